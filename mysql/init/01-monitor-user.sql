@@ -0,0 +1,4 @@
+-- Учетная запись для проверки реплик приложением (SHOW REPLICA STATUS).
+-- Создается на основной БД и приходит на реплики репликацией.
+CREATE USER 'monitor'@'%' IDENTIFIED BY 'monitorpassword';
+GRANT REPLICATION CLIENT ON *.* TO 'monitor'@'%';
@@ -0,0 +1,260 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.entity.Doctor;
+import com.example.visittracking.entity.Patient;
+import com.example.visittracking.entity.Visit;
+import com.example.visittracking.repository.DoctorPatientStatsRepository;
+import com.example.visittracking.repository.DoctorRepository;
+import com.example.visittracking.repository.OutboxEventRepository;
+import com.example.visittracking.repository.PatientRepository;
+import com.example.visittracking.repository.VisitRepository;
+import com.example.visittracking.outbox.OutboxService;
+import com.example.visittracking.repository.projection.DoctorPatientCount;
+import com.example.visittracking.repository.projection.DoctorVisitInterval;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Набор данных для бенчмарков и репозитории в памяти вместо JPA. Репозитории реализуют
+ * только методы, используемые на измеряемых путях, остальные выбрасывают исключение.
+ *
+ * @author Pavel Zhurenkov
+ */
+class InMemoryVisitStore {
+
+    private static final String[] TIMEZONES = {"America/New_York", "Europe/London", "Europe/Moscow", "Asia/Tokyo"};
+
+    private static final LocalDateTime SEED_START = LocalDateTime.of(2020, 1, 1, 8, 0);
+
+    final Patient[] patients;
+
+    final Doctor[] doctors;
+
+    /**
+     * Визиты в порядке фамилии и имени пациента, как их возвращает findVisitsWithFiltersFetched.
+     */
+    final List<Visit> visitsByPatientName;
+
+    private final Map<Integer, NavigableMap<LocalDateTime, Visit>> visitsByDoctor = new HashMap<>();
+
+    private final Map<Integer, Long> patientsPerDoctor = new HashMap<>();
+
+    private int nextVisitId;
+
+    InMemoryVisitStore(int visitCount, int visitsPerPatient, int doctorCount) {
+        Random random = new Random(42);
+        int patientCount = Math.max(1, visitCount / visitsPerPatient);
+
+        patients = new Patient[patientCount];
+        for (int i = 0; i < patientCount; i++) {
+            patients[i] = new Patient(i + 1, "First" + random.nextInt(1000), "Last" + random.nextInt(patientCount),
+                    null);
+        }
+        doctors = new Doctor[doctorCount];
+        for (int i = 0; i < doctorCount; i++) {
+            doctors[i] = new Doctor(i + 1, "Doctor" + i, "Doc" + i, TIMEZONES[i % TIMEZONES.length]);
+        }
+
+        List<Visit> visits = new ArrayList<>(visitCount);
+        Map<Integer, Set<Integer>> doctorPatients = new HashMap<>();
+        for (int i = 0; i < visitCount; i++) {
+            Doctor doctor = doctors[i % doctorCount];
+            Patient patient = patients[random.nextInt(patientCount)];
+            // Визиты врача идут подряд по получасу и не пересекаются
+            LocalDateTime start = SEED_START.plusMinutes(45L * (i / doctorCount));
+            Visit visit = new Visit(++nextVisitId, start, start.plusMinutes(30), patient, doctor);
+            visits.add(visit);
+            visitsByDoctor.computeIfAbsent(doctor.getId(), id -> new TreeMap<>()).put(start, visit);
+            doctorPatients.computeIfAbsent(doctor.getId(), id -> new HashSet<>()).add(patient.getId());
+        }
+        doctorPatients.forEach((doctorId, ids) -> patientsPerDoctor.put(doctorId, (long) ids.size()));
+
+        visits.sort(Comparator.comparing((Visit v) -> v.getPatient().getLastName())
+                .thenComparing(v -> v.getPatient().getFirstName()));
+        visitsByPatientName = visits;
+    }
+
+    VisitTrackingService newVisitTrackingService(VisitTrackingProperties properties) {
+        PatientRepository patientRepository = patientRepository();
+        DoctorRepository doctorRepository = doctorRepository();
+        VisitRepository visitRepository = visitRepository();
+        DoctorBookingLock doctorBookingLock = new DoctorBookingLock(doctorRepository, properties);
+        // Заполнение статистики в бенчмарках не вызывается, шаблон транзакций не нужен
+        DoctorPatientStatsService statsService = new DoctorPatientStatsService(
+                repository(DoctorPatientStatsRepository.class, Map.of()), doctorRepository, null, properties);
+        return new VisitTrackingService(
+                patientRepository,
+                doctorRepository,
+                visitRepository,
+                new EventGenerationService(event -> { }),
+                new VisitIntervalIndex(visitRepository, properties),
+                doctorBookingLock,
+                new ReferenceDataCache(patientRepository, doctorRepository, properties),
+                new DoctorPatientCountService(visitRepository, statsService, properties),
+                statsService,
+                new PatientSearchIndex(patientRepository, properties),
+                outboxService(properties),
+                // Fan-out выключен по умолчанию, последовательные запросы идут в пустой транзакции
+                new ParallelQueryRunner(repository(PlatformTransactionManager.class, Map.of(
+                        "getTransaction/1", args -> new SimpleTransactionStatus(),
+                        "commit/1", args -> null,
+                        "rollback/1", args -> null)), properties),
+                properties);
+    }
+
+    SlotSearchService newSlotSearchService(VisitTrackingProperties properties) {
+        return new SlotSearchService(visitRepository(),
+                new ReferenceDataCache(patientRepository(), doctorRepository(), properties), properties);
+    }
+
+    private static OutboxService outboxService(VisitTrackingProperties properties) {
+        ObjectMapper objectMapper = new ObjectMapper()
+                .findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        // Запись в outbox измеряется вместе с сериализацией, сама строка никуда не сохраняется
+        return new OutboxService(repository(OutboxEventRepository.class, Map.of(
+                "save/1", args -> args[0])), objectMapper, properties);
+    }
+
+    private PatientRepository patientRepository() {
+        return repository(PatientRepository.class, Map.of(
+                "findById/1", args -> byId(patients, (Integer) args[0]),
+                "existsById/1", args -> byId(patients, (Integer) args[0]).isPresent(),
+                "getReferenceById/1", args -> byId(patients, (Integer) args[0]).orElseThrow()));
+    }
+
+    private DoctorRepository doctorRepository() {
+        return repository(DoctorRepository.class, Map.of(
+                "findById/1", args -> byId(doctors, (Integer) args[0]),
+                "getReferenceById/1", args -> byId(doctors, (Integer) args[0]).orElseThrow(),
+                "findAllById/1", args -> ((Collection<?>) args[0]).stream()
+                        .map(id -> byId(doctors, (Integer) id))
+                        .flatMap(Optional::stream)
+                        .toList(),
+                "lockByIds/1", args -> new ArrayList<>((Collection<?>) args[0])));
+    }
+
+    private VisitRepository visitRepository() {
+        return repository(VisitRepository.class, Map.of(
+                // Нижняя граница earliestStart не нужна: ближайший визит по началу и так единственный кандидат
+                "findOverlappingVisit/4", args -> findOverlappingVisit(
+                        (Integer) args[0], (LocalDateTime) args[2], (LocalDateTime) args[3]),
+                // Сохраненные визиты не добавляются в набор, чтобы его размер не менялся между итерациями
+                "save/1", args -> {
+                    Visit visit = (Visit) args[0];
+                    visit.setId(++nextVisitId);
+                    return visit;
+                },
+                "countPatientsWithFilters/4", args -> (long) patients.length,
+                "findVisitsWithFiltersFetched/5", args -> page((Pageable) args[4]),
+                "countTotalPatientsByDoctorIds/1", args -> countTotalPatients((Collection<?>) args[0]),
+                // Условие end >= from не проверяется: поиск сам пропускает закончившиеся визиты
+                "findVisitIntervalsByDoctorIdsInRange/4", args -> findVisitIntervals(
+                        (Collection<?>) args[0], (LocalDateTime) args[1], (LocalDateTime) args[3])));
+    }
+
+    private List<DoctorVisitInterval> findVisitIntervals(Collection<?> doctorIds, LocalDateTime earliestStart,
+                                                         LocalDateTime to) {
+        List<DoctorVisitInterval> intervals = new ArrayList<>();
+        for (Object doctorId : doctorIds) {
+            NavigableMap<LocalDateTime, Visit> schedule =
+                    visitsByDoctor.getOrDefault(doctorId, Collections.emptyNavigableMap());
+            // Без партиционирования нижняя граница не передается, как и в запросе
+            NavigableMap<LocalDateTime, Visit> range = earliestStart == null
+                    ? schedule.headMap(to, true)
+                    : schedule.subMap(earliestStart, true, to, true);
+            for (Visit visit : range.values()) {
+                intervals.add(new Interval((Integer) doctorId, visit.getStartDateTime(), visit.getEndDateTime()));
+            }
+        }
+        return intervals;
+    }
+
+    private Optional<Visit> findOverlappingVisit(Integer doctorId, LocalDateTime start, LocalDateTime end) {
+        NavigableMap<LocalDateTime, Visit> schedule = visitsByDoctor.getOrDefault(doctorId, Collections.emptyNavigableMap());
+        Map.Entry<LocalDateTime, Visit> floor = schedule.floorEntry(end);
+        if (floor != null && !floor.getValue().getEndDateTime().isBefore(start)) {
+            return Optional.of(floor.getValue());
+        }
+        return Optional.empty();
+    }
+
+    private List<Visit> page(Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), visitsByPatientName.size());
+        int to = Math.min(from + pageable.getPageSize(), visitsByPatientName.size());
+        return visitsByPatientName.subList(from, to);
+    }
+
+    private List<DoctorPatientCount> countTotalPatients(Collection<?> doctorIds) {
+        List<DoctorPatientCount> counts = new ArrayList<>(doctorIds.size());
+        for (Object doctorId : doctorIds) {
+            Long total = patientsPerDoctor.get(doctorId);
+            if (total != null) {
+                counts.add(new Count((Integer) doctorId, total));
+            }
+        }
+        return counts;
+    }
+
+    private static <T> Optional<T> byId(T[] entities, Integer id) {
+        return id != null && id >= 1 && id <= entities.length ? Optional.of(entities[id - 1]) : Optional.empty();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Object[] arguments = args == null ? new Object[0] : args;
+            Function<Object[], Object> implementation = methods.get(method.getName() + "/" + arguments.length);
+            if (implementation != null) {
+                return implementation.apply(arguments);
+            }
+            return switch (method.getName()) {
+                case "toString" -> type.getSimpleName() + "InMemory";
+                case "hashCode" -> System.identityHashCode(proxy);
+                case "equals" -> proxy == arguments[0];
+                default -> throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            };
+        });
+    }
+
+    private record Interval(Integer doctorId, LocalDateTime startDateTime, LocalDateTime endDateTime)
+            implements DoctorVisitInterval {
+
+        @Override
+        public Integer getDoctorId() {
+            return doctorId;
+        }
+
+        @Override
+        public LocalDateTime getStartDateTime() {
+            return startDateTime;
+        }
+
+        @Override
+        public LocalDateTime getEndDateTime() {
+            return endDateTime;
+        }
+    }
+
+    private record Count(Integer doctorId, Long totalPatients) implements DoctorPatientCount {
+
+        @Override
+        public Integer getDoctorId() {
+            return doctorId;
+        }
+
+        @Override
+        public Long getTotalPatients() {
+            return totalPatients;
+        }
+    }
+}
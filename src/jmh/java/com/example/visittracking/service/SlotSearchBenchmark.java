@@ -0,0 +1,65 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.dto.SlotSearchRequest;
+import com.example.visittracking.dto.SlotSearchResponse;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск ближайшего свободного времени среди всех врачей клиники. У каждого врача {@code visitsPerDoctor}
+ * визитов подряд с промежутками короче искомой длительности, поэтому просматривается все расписание.
+ * {@code sequential} — все врачи в вызывающем потоке, {@code fork-join} — порог по умолчанию.
+ *
+ * @author Pavel Zhurenkov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SlotSearchBenchmark {
+
+    @Param({"500"})
+    private int doctors;
+
+    @Param({"20", "200"})
+    private int visitsPerDoctor;
+
+    @Param({"sequential", "fork-join"})
+    private String mode;
+
+    private SlotSearchService service;
+
+    private SlotSearchRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        VisitTrackingProperties properties = new VisitTrackingProperties();
+        if (mode.equals("sequential")) {
+            properties.getSlotSearch().setParallelThreshold(Integer.MAX_VALUE);
+        }
+        InMemoryVisitStore store = new InMemoryVisitStore(doctors * visitsPerDoctor, 10, doctors);
+        service = store.newSlotSearchService(properties);
+
+        List<Integer> doctorIds = new ArrayList<>(doctors);
+        for (int id = 1; id <= doctors; id++) {
+            doctorIds.add(id);
+        }
+        request = new SlotSearchRequest();
+        request.setDoctorIds(doctorIds);
+        request.setFrom("2019-12-31T00:00:00Z");
+        request.setTo("2020-01-30T00:00:00Z");
+        request.setDurationMinutes(30);
+        request.setLimit(5);
+    }
+
+    @Benchmark
+    public SlotSearchResponse findEarliestSlots() {
+        return service.findEarliestSlots(request);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.dto.CreateVisitRequest;
+import com.example.visittracking.dto.PatientVisitsResponse;
+import com.example.visittracking.dto.VisitResponse;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Горячие пути VisitTrackingService на репозиториях в памяти: измеряется код сервиса
+ * без сети и БД.
+ *
+ * @author Pavel Zhurenkov
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VisitTrackingServiceBenchmark {
+
+    private static final int REQUESTS = 1024;
+
+    @Param({"10000", "100000", "1000000"})
+    private int visits;
+
+    @Param({"20"})
+    private int pageSize;
+
+    private VisitTrackingService service;
+
+    private CreateVisitRequest[] requests;
+
+    private Pageable[] pages;
+
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryVisitStore store = new InMemoryVisitStore(visits, 10, 1000);
+        service = store.newVisitTrackingService(new VisitTrackingProperties());
+
+        Random random = new Random(7);
+        requests = new CreateVisitRequest[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            // Время после всех засеянных визитов: проверка пересечения проходит, конфликтов нет
+            LocalDateTime start = LocalDateTime.of(2040, 1, 1, 8, 0).plusMinutes(45L * i);
+            CreateVisitRequest request = new CreateVisitRequest();
+            request.setPatientId(1 + random.nextInt(store.patients.length));
+            request.setDoctorId(1 + random.nextInt(store.doctors.length));
+            request.setStart(start.atOffset(ZoneOffset.UTC).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+            request.setEnd(start.plusMinutes(30).atOffset(ZoneOffset.UTC).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME));
+            requests[i] = request;
+        }
+
+        int pageCount = Math.max(1, visits / pageSize);
+        pages = new Pageable[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            pages[i] = PageRequest.of(random.nextInt(pageCount), pageSize);
+        }
+    }
+
+    @Benchmark
+    public VisitResponse createVisit() {
+        // Синхронизация транзакции нужна блокировке врача, замок освобождается как после коммита
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            return service.createVisit(requests[next()]);
+        } finally {
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationManager.clearSynchronization();
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations,
+                    TransactionSynchronization.STATUS_COMMITTED);
+        }
+    }
+
+    @Benchmark
+    public PatientVisitsResponse getPatientVisits() {
+        return service.getPatientVisits(pages[next()], null, null);
+    }
+
+    @Benchmark
+    public LocalDateTime parseDateTime() {
+        CreateVisitRequest request = requests[next()];
+        return VisitTrackingService.parseDateTime(request.getStart(), "Europe/Moscow");
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (REQUESTS - 1);
+        return cursor;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.visittracking.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение DateTimeCodec с прежним путем через ZonedDateTime.parse, ZoneId.of и LocalDateTime.toString.
+ * Распределение памяти на операцию видно с {@code -Djmh.args="-prof gc"}.
+ *
+ * @author Pavel Zhurenkov
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DateTimeCodecBenchmark {
+
+    private static final int SIZE = 1024;
+
+    private static final String TIMEZONE = "Europe/Moscow";
+
+    private final String[] inputs = new String[SIZE];
+
+    private final LocalDateTime[] dateTimes = new LocalDateTime[SIZE];
+
+    private JsonGenerator generator;
+
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 8, 0);
+        for (int i = 0; i < SIZE; i++) {
+            dateTimes[i] = start.plusMinutes(37L * i);
+            inputs[i] = dateTimes[i].atOffset(ZoneOffset.UTC).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+        }
+        generator = new JsonFactory().createGenerator(OutputStream.nullOutputStream());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        generator.close();
+    }
+
+    @Benchmark
+    public LocalDateTime parseJdk() {
+        return ZonedDateTime.parse(inputs[next()]).withZoneSameInstant(ZoneId.of(TIMEZONE)).toLocalDateTime();
+    }
+
+    @Benchmark
+    public LocalDateTime parseCodec() {
+        return DateTimeCodec.parse(inputs[next()], DateTimeCodec.zone(TIMEZONE));
+    }
+
+    @Benchmark
+    public String formatJdk() {
+        return dateTimes[next()].toString();
+    }
+
+    @Benchmark
+    public String formatCodec() {
+        return DateTimeCodec.format(dateTimes[next()]);
+    }
+
+    @Benchmark
+    public void writeJdk(Blackhole blackhole) throws IOException {
+        generator.writeString(dateTimes[next()].toString());
+        blackhole.consume(generator);
+    }
+
+    @Benchmark
+    public void writeCodec(Blackhole blackhole) throws IOException {
+        DateTimeCodec.write(generator, dateTimes[next()]);
+        blackhole.consume(generator);
+    }
+
+    private int next() {
+        cursor = (cursor + 1) & (SIZE - 1);
+        return cursor;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.visittracking.util;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TimestampConverterBenchmark {
+
+    private long timestamp = 1_760_000_000_000L;
+
+    @Benchmark
+    public String getDetailedTimeInfo() {
+        // Сдвиг на секунду, чтобы результат не сворачивался в константу
+        timestamp += 1000;
+        return TimestampConverter.getDetailedTimeInfo(timestamp);
+    }
+
+    /**
+     * Прежняя реализация через String.format для сравнения.
+     */
+    @Benchmark
+    public String getDetailedTimeInfoStringFormat() {
+        timestamp += 1000;
+        LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault());
+        return String.format("Time: %02d:%02d:%02d | Date: %s",
+                dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond(), dateTime.toLocalDate().toString());
+    }
+
+    @Benchmark
+    public String convertTimestampToTime() {
+        timestamp += 1000;
+        return TimestampConverter.convertTimestampToTime(timestamp);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.visittracking.archive;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.repository.VisitRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+/**
+ * Периодически переносит визиты старше {@code visittracking.archive.horizon} из visits в visits_archive.
+ * Каждый пакет переносится в своей транзакции, поэтому блокировки держатся недолго.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Component
+public class VisitArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(VisitArchiver.class);
+
+    private final VisitRepository visitRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final VisitTrackingProperties.Archive properties;
+
+    public VisitArchiver(VisitRepository visitRepository, TransactionTemplate transactionTemplate,
+                         VisitTrackingProperties properties) {
+        this.visitRepository = visitRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties.getArchive();
+    }
+
+    @Scheduled(fixedDelayString = "${visittracking.archive.interval:1h}")
+    public void archive() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(properties.getHorizon());
+        int total = 0;
+        try {
+            int moved;
+            do {
+                moved = archiveBatch(cutoff);
+                total += moved;
+            } while (moved == properties.getBatchSize());
+        } catch (RuntimeException e) {
+            logger.error("Visit archival failed after moving {} visits", total, e);
+            return;
+        }
+        if (total > 0) {
+            logger.info("Visit archival: moved={}, cutoff={}", total, cutoff);
+        }
+    }
+
+    /**
+     * Переносит один пакет визитов, начавшихся раньше {@code cutoff}, в отдельной транзакции.
+     *
+     * @return количество перенесенных визитов
+     */
+    public int archiveBatch(LocalDateTime cutoff) {
+        Integer moved = transactionTemplate.execute(
+                status -> visitRepository.archiveVisitsBefore(cutoff, properties.getBatchSize()));
+        return moved == null ? 0 : moved;
+    }
+}
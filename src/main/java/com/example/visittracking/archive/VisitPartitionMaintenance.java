@@ -0,0 +1,127 @@
+package com.example.visittracking.archive;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Обслуживает помесячные партиции visits: заранее создает партиции будущих месяцев
+ * и удаляет опустевшие после архивации партиции прошлых месяцев. Партиционированная visits
+ * не имеет внешних ключей, поэтому здесь же считаются визиты без пациента или врача.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Component
+public class VisitPartitionMaintenance {
+
+    private static final Logger logger = LoggerFactory.getLogger(VisitPartitionMaintenance.class);
+
+    private static final String PARTITIONS_SQL = "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'visits' AND PARTITION_NAME IS NOT NULL " +
+            "ORDER BY PARTITION_ORDINAL_POSITION";
+
+    private static final String ORPHANS_SQL = "SELECT COUNT(*) FROM visits v " +
+            "LEFT JOIN patients p ON p.id = v.patient_id LEFT JOIN doctors d ON d.id = v.doctor_id " +
+            "WHERE p.id IS NULL OR d.id IS NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final VisitTrackingProperties.Partitioning partitioning;
+
+    private final VisitTrackingProperties.Archive archive;
+
+    private final AtomicLong orphans = new AtomicLong();
+
+    public VisitPartitionMaintenance(JdbcTemplate jdbcTemplate, VisitTrackingProperties properties,
+                                     MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.partitioning = properties.getPartitioning();
+        this.archive = properties.getArchive();
+        if (partitioning.isEnabled()) {
+            Gauge.builder("visittracking.visits.orphaned", orphans, AtomicLong::get)
+                    .description("Визиты, ссылающиеся на отсутствующих пациента или врача")
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${visittracking.partitioning.maintenance-interval:1d}")
+    public void maintain() {
+        if (!partitioning.isEnabled()) {
+            return;
+        }
+        try {
+            List<String> partitions = jdbcTemplate.queryForList(PARTITIONS_SQL, String.class);
+            if (!partitions.contains(VisitPartitions.FUTURE)) {
+                logger.warn("Table visits is not partitioned by month, partition maintenance skipped");
+                return;
+            }
+            addFuturePartitions(partitions);
+            if (archive.isEnabled()) {
+                dropArchivedPartitions(partitions);
+            }
+            checkOrphans();
+        } catch (DataAccessException e) {
+            logger.error("Visit partition maintenance failed", e);
+        }
+    }
+
+    private void addFuturePartitions(List<String> partitions) {
+        YearMonth last = null;
+        for (String partition : partitions) {
+            YearMonth month = VisitPartitions.month(partition);
+            if (month != null) {
+                last = month;
+            }
+        }
+        YearMonth until = YearMonth.now().plusMonths(partitioning.getMonthsAhead());
+        List<YearMonth> months = VisitPartitions.monthsAfter(last == null ? YearMonth.now().minusMonths(1) : last, until);
+        if (!months.isEmpty()) {
+            jdbcTemplate.execute(VisitPartitions.reorganizeFuture(months));
+            logger.info("Visit partitions added: {} .. {}", months.get(0), months.get(months.size() - 1));
+        }
+    }
+
+    /**
+     * Приложение не удаляет пациентов и врачей, но без внешних ключей удаление в обход него
+     * оставит визиты с несуществующими ссылками. Запрос читает всю таблицу, поэтому выполняется
+     * вместе с обслуживанием партиций, а не при каждом запросе.
+     */
+    private void checkOrphans() {
+        Long count = jdbcTemplate.queryForObject(ORPHANS_SQL, Long.class);
+        orphans.set(count == null ? 0 : count);
+        if (orphans.get() > 0) {
+            logger.warn("Visits referencing missing patients or doctors: {}", orphans.get());
+        }
+    }
+
+    /**
+     * Удаляет пустые партиции, целиком лежащие до горизонта архивации. Создание визитов раньше
+     * горизонта запрещено, поэтому в такие партиции новые строки не попадают.
+     */
+    private void dropArchivedPartitions(List<String> partitions) {
+        YearMonth cutoff = YearMonth.from(LocalDateTime.now().minus(archive.getHorizon()));
+        for (String partition : partitions) {
+            YearMonth month = VisitPartitions.month(partition);
+            if (month == null || !month.isBefore(cutoff)) {
+                continue;
+            }
+            Boolean hasRows = jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM visits PARTITION (" + partition + "))", Boolean.class);
+            if (Boolean.FALSE.equals(hasRows)) {
+                jdbcTemplate.execute("ALTER TABLE visits DROP PARTITION " + partition);
+                logger.info("Archived visit partition dropped: {}", partition);
+            }
+        }
+    }
+}
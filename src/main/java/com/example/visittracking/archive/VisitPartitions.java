@@ -0,0 +1,109 @@
+package com.example.visittracking.archive;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Помесячные партиции таблицы visits по start_date_time: {@code pYYYYMM} для каждого месяца
+ * и {@code p_future} для всего, что позже последнего месяца.
+ *
+ * @author Pavel Zhurenkov
+ */
+public final class VisitPartitions {
+
+    public static final String FUTURE = "p_future";
+
+    private static final DateTimeFormatter NAME = DateTimeFormatter.ofPattern("'p'yyyyMM");
+
+    private VisitPartitions() {
+    }
+
+    /**
+     * Нижняя граница начала визитов, которые могут пересекаться с интервалом, начинающимся в {@code start}:
+     * визит не длиннее {@code visittracking.visits.max-duration} не может начаться раньше. Граница нужна
+     * только для отсечения партиций, поэтому без партиционирования возвращается null и запрос ограничивается
+     * индексом по врачу и времени.
+     */
+    public static LocalDateTime earliestOverlappingStart(VisitTrackingProperties properties, LocalDateTime start) {
+        return properties.getPartitioning().isEnabled()
+                ? start.minus(properties.getVisits().getMaxDuration())
+                : null;
+    }
+
+    /**
+     * Визит длиннее {@code visittracking.visits.max-duration} проверка пересечений с нижней границей
+     * {@link #earliestOverlappingStart} не увидит, поэтому с партиционированием такие визиты не создаются.
+     * Без партиционирования длительность не ограничена.
+     */
+    public static boolean exceedsMaxDuration(VisitTrackingProperties properties, LocalDateTime start,
+                                             LocalDateTime end) {
+        return properties.getPartitioning().isEnabled()
+                && Duration.between(start, end).compareTo(properties.getVisits().getMaxDuration()) > 0;
+    }
+
+    public static String name(YearMonth month) {
+        return NAME.format(month);
+    }
+
+    /**
+     * @return месяц партиции или null для {@code p_future} и чужих имен
+     */
+    public static YearMonth month(String partitionName) {
+        if (partitionName == null || partitionName.length() != 7 || partitionName.charAt(0) != 'p') {
+            return null;
+        }
+        for (int i = 1; i < 7; i++) {
+            if (!Character.isDigit(partitionName.charAt(i))) {
+                return null;
+            }
+        }
+        int year = Integer.parseInt(partitionName.substring(1, 5));
+        int month = Integer.parseInt(partitionName.substring(5));
+        return month >= 1 && month <= 12 ? YearMonth.of(year, month) : null;
+    }
+
+    /**
+     * Месяцы после {@code last} по {@code until} включительно.
+     */
+    public static List<YearMonth> monthsAfter(YearMonth last, YearMonth until) {
+        List<YearMonth> months = new ArrayList<>();
+        for (YearMonth month = last.plusMonths(1); !month.isAfter(until); month = month.plusMonths(1)) {
+            months.add(month);
+        }
+        return months;
+    }
+
+    /**
+     * Разбиение таблицы на месяцы с {@code from} по {@code until} включительно.
+     */
+    public static String partitionBy(YearMonth from, YearMonth until) {
+        List<YearMonth> months = new ArrayList<>();
+        months.add(from);
+        months.addAll(monthsAfter(from, until));
+        return "PARTITION BY RANGE COLUMNS (start_date_time) " + definitions(months);
+    }
+
+    /**
+     * Выделяет из {@code p_future} партиции новых месяцев. Визиты из {@code p_future} переносятся
+     * в них, поэтому новые месяцы создаются заранее, пока в будущих месяцах еще мало записей.
+     */
+    public static String reorganizeFuture(List<YearMonth> months) {
+        return "ALTER TABLE visits REORGANIZE PARTITION " + FUTURE + " INTO " + definitions(months);
+    }
+
+    private static String definitions(List<YearMonth> months) {
+        StringJoiner joiner = new StringJoiner(", ", "(", ")");
+        for (YearMonth month : months) {
+            joiner.add("PARTITION " + name(month) + " VALUES LESS THAN ('" + month.plusMonths(1).atDay(1) + " 00:00:00')");
+        }
+        joiner.add("PARTITION " + FUTURE + " VALUES LESS THAN (MAXVALUE)");
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.visittracking.audit;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.dto.AuditStatsDto;
+import com.example.visittracking.util.MpscRingBuffer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Асинхронная запись аудита. Потоки запросов только кладут событие в ограниченную очередь,
+ * отдельный поток забирает события и пишет их в {@link AuditSink} пакетами: по достижении
+ * {@code batch-size} событий или через {@code flush-interval} после первого события пакета.
+ * При переполнении очереди событие отбрасывается, запрос не ждет записи.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Component
+public class AuditPipeline implements SmartLifecycle, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditPipeline.class);
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AuditSink sink;
+
+    private final VisitTrackingProperties.Audit properties;
+
+    private final MpscRingBuffer<AuditRecord> buffer;
+
+    private final AtomicLong published = new AtomicLong();
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final AtomicLong written = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    private volatile long lastBatchLagMillis;
+
+    private volatile boolean running;
+
+    private Thread writerThread;
+
+    public AuditPipeline(AuditSink sink, VisitTrackingProperties properties) {
+        this.sink = sink;
+        this.properties = properties.getAudit();
+        this.buffer = new MpscRingBuffer<>(this.properties.getCapacity());
+    }
+
+    /**
+     * Ставит событие в очередь на запись.
+     *
+     * @return false, если событие отброшено
+     */
+    public boolean publish(AuditRecord record) {
+        if (!running) {
+            return false;
+        }
+        if (buffer.offer(record)) {
+            published.incrementAndGet();
+            return true;
+        }
+        dropped.incrementAndGet();
+        return false;
+    }
+
+    public AuditStatsDto getStats() {
+        AuditStatsDto dto = new AuditStatsDto();
+        dto.setRunning(running);
+        dto.setCapacity(buffer.capacity());
+        dto.setQueued(buffer.size());
+        dto.setPublished(published.get());
+        dto.setDropped(dropped.get());
+        dto.setWritten(written.get());
+        dto.setFailed(failed.get());
+        dto.setLastBatchLagMillis(lastBatchLagMillis);
+        return dto;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("visittracking.audit.queued", buffer, MpscRingBuffer::size)
+                .description("События аудита в очереди на запись")
+                .register(registry);
+        FunctionCounter.builder("visittracking.audit.events", dropped, AtomicLong::get)
+                .description("События аудита").tag("result", "dropped")
+                .register(registry);
+        FunctionCounter.builder("visittracking.audit.events", written, AtomicLong::get)
+                .description("События аудита").tag("result", "written")
+                .register(registry);
+        FunctionCounter.builder("visittracking.audit.events", failed, AtomicLong::get)
+                .description("События аудита").tag("result", "failed")
+                .register(registry);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running || !properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::drainLoop, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(properties.getShutdownTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Audit pipeline stopped: written={}, dropped={}, failed={}",
+                written.get(), dropped.get(), failed.get());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drainLoop() {
+        int batchSize = properties.getBatchSize();
+        long flushIntervalNanos = properties.getFlushInterval().toNanos();
+        List<AuditRecord> batch = new ArrayList<>(batchSize);
+        long batchStarted = 0;
+
+        while (running || !buffer.isEmpty()) {
+            int drained = buffer.drain(batch::add, batchSize - batch.size());
+            if (drained > 0 && batchStarted == 0) {
+                batchStarted = System.nanoTime();
+            }
+            boolean full = batch.size() >= batchSize;
+            boolean due = !batch.isEmpty() && (System.nanoTime() - batchStarted >= flushIntervalNanos || !running);
+            if (full || due) {
+                flush(batch);
+                batch.clear();
+                batchStarted = 0;
+            } else if (drained == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch);
+        }
+    }
+
+    private void flush(List<AuditRecord> batch) {
+        try {
+            sink.write(batch);
+            written.addAndGet(batch.size());
+            lastBatchLagMillis = System.currentTimeMillis() - batch.get(0).timestamp();
+        } catch (Exception e) {
+            // Ошибка хранилища не должна останавливать поток записи
+            failed.addAndGet(batch.size());
+            logger.error("Failed to write audit batch: size={}", batch.size(), e);
+        }
+    }
+}
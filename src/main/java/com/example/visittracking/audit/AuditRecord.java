@@ -0,0 +1,10 @@
+package com.example.visittracking.audit;
+
+/**
+ * Событие аудита в очереди на запись.
+ *
+ * @param timestamp время события в миллисекундах от эпохи
+ * @author Pavel Zhurenkov
+ */
+public record AuditRecord(String eventType, String description, long timestamp) {
+}
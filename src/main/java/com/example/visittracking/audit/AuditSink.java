@@ -0,0 +1,13 @@
+package com.example.visittracking.audit;
+
+import java.util.List;
+
+/**
+ * Хранилище событий аудита. Вызывается только из потока записи {@link AuditPipeline}.
+ *
+ * @author Pavel Zhurenkov
+ */
+public interface AuditSink {
+
+    void write(List<AuditRecord> records) throws Exception;
+}
@@ -0,0 +1,55 @@
+package com.example.visittracking.audit;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Дописывает события аудита в конец файла, по одной строке на событие.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Component
+@ConditionalOnProperty(name = "visittracking.audit.sink", havingValue = "file")
+public class FileAuditSink implements AuditSink, DisposableBean {
+
+    private final BufferedWriter writer;
+
+    public FileAuditSink(VisitTrackingProperties properties) throws IOException {
+        Path file = properties.getAudit().getFile();
+        if (file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        this.writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+    }
+
+    @Override
+    public void write(List<AuditRecord> records) throws IOException {
+        for (AuditRecord record : records) {
+            writer.write(Instant.ofEpochMilli(record.timestamp()).toString());
+            writer.write('\t');
+            writer.write(record.eventType());
+            writer.write('\t');
+            writer.write(record.description());
+            writer.newLine();
+        }
+        // Пакет считается записанным только после сброса буфера
+        writer.flush();
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.visittracking.audit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Запись пакета событий в таблицу audit_log одним пакетным INSERT.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Component
+@ConditionalOnProperty(name = "visittracking.audit.sink", havingValue = "jdbc", matchIfMissing = true)
+public class JdbcAuditSink implements AuditSink {
+
+    private static final String INSERT_AUDIT_SQL =
+            "INSERT INTO audit_log (event_type, description, occurred_at) VALUES (?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public JdbcAuditSink(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void write(List<AuditRecord> records) {
+        jdbcTemplate.batchUpdate(INSERT_AUDIT_SQL, records, records.size(), (ps, record) -> {
+            ps.setString(1, record.eventType());
+            ps.setString(2, record.description());
+            ps.setTimestamp(3, new Timestamp(record.timestamp()));
+        });
+    }
+}
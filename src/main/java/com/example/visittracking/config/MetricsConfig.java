@@ -0,0 +1,24 @@
+package com.example.visittracking.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Метрики приложения. Время запросов к репозиториям Spring Data пишет сам Spring Boot
+ * в {@code spring.data.repository.invocations} с тегами repository и method.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Включает аннотацию {@link io.micrometer.core.annotation.Timed} на методах сервисов.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.visittracking.config;
+
+import com.example.visittracking.migration.partitioning.V4__Partition_visits_by_month;
+import org.flywaydb.core.api.Location;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayConfigurationCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Подключает миграцию, разбивающую visits на помесячные партиции. Миграция лежит вне
+ * {@code db/migration}, поэтому без этой настройки Flyway ее не видит. После применения
+ * отключать настройку нельзя: Flyway не найдет уже примененную миграцию. Партиционирование
+ * может включаться на базе, где уже применены более поздние миграции, поэтому разрешен
+ * порядок вне очереди.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "visittracking.partitioning", name = "enabled", havingValue = "true")
+public class PartitioningConfig {
+
+    private static final String MIGRATION_LOCATION = "classpath:com/example/visittracking/migration/partitioning";
+
+    @Bean
+    public FlywayConfigurationCustomizer visitPartitioningMigration(VisitTrackingProperties properties) {
+        return configuration -> {
+            List<Location> locations = new ArrayList<>(Arrays.asList(configuration.getLocations()));
+            locations.add(new Location(MIGRATION_LOCATION));
+            Map<String, String> placeholders = new HashMap<>(configuration.getPlaceholders());
+            placeholders.put(V4__Partition_visits_by_month.MONTHS_AHEAD_PLACEHOLDER,
+                    String.valueOf(properties.getPartitioning().getMonthsAhead()));
+            placeholders.put(V4__Partition_visits_by_month.MAX_VISIT_DURATION_PLACEHOLDER,
+                    properties.getVisits().getMaxDuration().toString());
+            configuration.locations(locations.toArray(Location[]::new))
+                    .placeholders(placeholders)
+                    .outOfOrder(true);
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.visittracking.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.util.StringUtils;
+
+/**
+ * Неблокирующее чтение визитов пациентов через R2DBC. Пул R2DBC отделен от пула JDBC,
+ * запись и транзакции по-прежнему выполняются через JPA.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "visittracking.reactive", name = "enabled", havingValue = "true")
+public class ReactiveReadConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionPool reactiveConnectionPool(VisitTrackingProperties properties,
+                                                 DataSourceProperties dataSourceProperties) {
+        VisitTrackingProperties.Reactive reactive = properties.getReactive();
+        if (!StringUtils.hasText(reactive.getUrl())) {
+            throw new IllegalStateException("visittracking.reactive.url must be set when reactive reads are enabled");
+        }
+
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(reactive.getUrl()).mutate();
+        String username = reactive.getUsername() != null
+                ? reactive.getUsername() : dataSourceProperties.determineUsername();
+        String password = reactive.getPassword() != null
+                ? reactive.getPassword() : dataSourceProperties.determinePassword();
+        if (username != null) {
+            options.option(ConnectionFactoryOptions.USER, username);
+        }
+        if (password != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, password);
+        }
+
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+                .name("reactive")
+                // Соединения открываются по требованию, размер пула может быть меньше начального по умолчанию
+                .initialSize(0)
+                .maxSize(reactive.getMaxPoolSize())
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient(ConnectionPool reactiveConnectionPool) {
+        return DatabaseClient.create(reactiveConnectionPool);
+    }
+}
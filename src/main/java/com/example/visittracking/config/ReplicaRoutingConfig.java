@@ -0,0 +1,100 @@
+package com.example.visittracking.config;
+
+import com.example.visittracking.datasource.MySqlReplicaLagProbe;
+import com.example.visittracking.datasource.ReplicaRouter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Разделение чтения и записи. Соединение берется при первом запросе к БД, когда флаг
+ * read-only транзакции уже выставлен: транзакции только для чтения получают соединение
+ * реплики, остальные — основной БД.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "visittracking.replica", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRouter replicaRouter(DataSourceProperties dataSourceProperties,
+                                       VisitTrackingProperties properties,
+                                       Environment environment,
+                                       ObjectProvider<MeterRegistry> meterRegistry) {
+        VisitTrackingProperties.Replica replicaProperties = properties.getReplica();
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+
+        List<ReplicaRouter.Replica> replicas = new ArrayList<>();
+        for (VisitTrackingProperties.ReplicaDataSource replica : replicaProperties.getDatasources()) {
+            String name = replica.getName() != null ? replica.getName() : "replica-" + (replicas.size() + 1);
+            HikariDataSource dataSource = new HikariDataSource();
+            dataSource.setPoolName(name);
+            dataSource.setJdbcUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername() != null
+                    ? replica.getUsername() : dataSourceProperties.determineUsername());
+            dataSource.setPassword(replica.getPassword() != null
+                    ? replica.getPassword() : dataSourceProperties.determinePassword());
+            dataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            dataSource.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+            dataSource.setReadOnly(true);
+            // Недоступная при старте реплика не должна мешать запуску приложения
+            dataSource.setInitializationFailTimeout(-1);
+            // Пул основной БД Spring Boot находит через прокси сам, пулы реплик не являются бинами
+            meterRegistry.ifAvailable(registry ->
+                    dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+            replicas.add(new ReplicaRouter.Replica(name, dataSource,
+                    monitor(replica, replicaProperties, dataSource)));
+        }
+
+        ReplicaRouter router = new ReplicaRouter(primary, replicas, new MySqlReplicaLagProbe(),
+                replicaProperties.getMaxLag());
+        router.start(replicaProperties.getHealthCheckInterval());
+        return router;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRouter replicaRouter) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(replicaRouter.getPrimary());
+        dataSource.setReadOnlyDataSource(replicaRouter);
+        return dataSource;
+    }
+
+    /**
+     * Соединения для проверки реплики. Учетной записи приложения обычно не выдают REPLICATION CLIENT,
+     * без которой {@code SHOW REPLICA STATUS} завершается ошибкой и реплика исключается из чтения.
+     * Проверка идет раз в {@code health-check-interval}, поэтому соединение открывается на каждую проверку.
+     */
+    private static DataSource monitor(VisitTrackingProperties.ReplicaDataSource replica,
+                                      VisitTrackingProperties.Replica replicaProperties,
+                                      HikariDataSource dataSource) {
+        if (!StringUtils.hasText(replicaProperties.getMonitorUsername())) {
+            return dataSource;
+        }
+        DriverManagerDataSource monitor = new DriverManagerDataSource(
+                MySqlReplicaLagProbe.serverUrl(replica.getUrl()),
+                replicaProperties.getMonitorUsername(), replicaProperties.getMonitorPassword());
+        monitor.setDriverClassName(dataSource.getDriverClassName());
+        return monitor;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.visittracking.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,439 @@
+package com.example.visittracking.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки приложения с префиксом {@code visittracking}.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "visittracking")
+public class VisitTrackingProperties {
+
+    private final OverlapIndex overlapIndex = new OverlapIndex();
+
+    private final Batch batch = new Batch();
+
+    private final DoctorCountCache doctorCountCache = new DoctorCountCache();
+
+    private final ReferenceCache referenceCache = new ReferenceCache();
+
+    private final DoctorStats doctorStats = new DoctorStats();
+
+    private final Cursor cursor = new Cursor();
+
+    private final PatientSearch patientSearch = new PatientSearch();
+
+    private final Patients patients = new Patients();
+
+    private final Audit audit = new Audit();
+
+    private final Outbox outbox = new Outbox();
+
+    private final FanOut fanOut = new FanOut();
+
+    private final Replica replica = new Replica();
+
+    private final BookingLock bookingLock = new BookingLock();
+
+    private final Visits visits = new Visits();
+
+    private final Archive archive = new Archive();
+
+    private final Partitioning partitioning = new Partitioning();
+
+    private final RequestLog requestLog = new RequestLog();
+
+    private final Availability availability = new Availability();
+
+    private final SlotSearch slotSearch = new SlotSearch();
+
+    private final Reactive reactive = new Reactive();
+
+    @Getter
+    @Setter
+    public static class OverlapIndex {
+        /**
+         * Находить пересечение визитов по индексу в памяти без запроса к БД. Индекс хранит визиты,
+         * начавшиеся не раньше visits.max-duration до его загрузки, и не видит визиты других экземпляров,
+         * поэтому отсутствие пересечения в индексе всегда проверяется в БД.
+         */
+        private boolean enabled = false;
+    }
+
+    @Getter
+    @Setter
+    public static class Batch {
+        /**
+         * Максимальное количество визитов в одном пакетном запросе.
+         */
+        private int maxSize = 1000;
+        /**
+         * Размер пакета JDBC при вставке визитов.
+         */
+        private int jdbcBatchSize = 500;
+    }
+
+    @Getter
+    @Setter
+    public static class DoctorCountCache {
+        /**
+         * Кэшировать количество пациентов врача между запросами.
+         */
+        private boolean enabled = true;
+        private long maximumSize = 10_000;
+        private Duration expireAfterWrite = Duration.ofMinutes(10);
+    }
+
+    @Getter
+    @Setter
+    public static class ReferenceCache {
+        /**
+         * Кэшировать часовые пояса врачей и существование пациентов при создании визитов.
+         */
+        private boolean enabled = true;
+        private long maximumSize = 100_000;
+        private Duration expireAfterWrite = Duration.ofMinutes(30);
+    }
+
+    @Getter
+    @Setter
+    public static class DoctorStats {
+        /**
+         * Источник количества пациентов врача: подсчет по visits или таблица doctor_patient_stats.
+         * Таблица не уменьшается при архивации визитов, подсчет по visits — уменьшается.
+         */
+        private DoctorStatsSource source = DoctorStatsSource.QUERY;
+        /**
+         * Заполнить doctor_patient_stats по visits при старте приложения. Разовая операция для перехода
+         * на source=table с существующими визитами, включается на одном экземпляре.
+         */
+        private boolean backfillOnStartup = false;
+        /**
+         * Количество врачей, заполняемых в одной транзакции. Бронирования этих врачей ждут конца
+         * транзакции, поэтому пакет должен укладываться в booking-lock.lock-timeout.
+         */
+        private int backfillBatchSize = 20;
+    }
+
+    @Getter
+    @Setter
+    public static class Cursor {
+        /**
+         * Максимальное количество визитов на странице при выводе по курсору.
+         */
+        private int maxSize = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class PatientSearch {
+        /**
+         * Сужать поиск LIKE '%search%' списком пациентов из индекса n-грамм в памяти.
+         */
+        private boolean enabled = false;
+        /**
+         * Если под запрос попадает больше пациентов, используется LIKE.
+         */
+        private int maxIds = 1000;
+        /**
+         * Период загрузки пациентов, добавленных или измененных после загрузки индекса, по patients.updated_at.
+         */
+        private Duration refreshInterval = Duration.ofMinutes(1);
+        /**
+         * Период полного пересчета индекса, убирающего из него удаленных пациентов.
+         */
+        private Duration rebuildInterval = Duration.ofHours(1);
+    }
+
+    @Getter
+    @Setter
+    public static class Patients {
+        /**
+         * Режим постраничного вывода /api/patients: по визитам или по пациентам.
+         */
+        private PagingMode paging = PagingMode.VISITS;
+        /**
+         * Количество последних визитов пациента в режиме PATIENTS.
+         */
+        private int lastVisits = 10;
+    }
+
+    @Getter
+    @Setter
+    public static class Audit {
+        /**
+         * Асинхронная запись событий аудита.
+         */
+        private boolean enabled = true;
+        /**
+         * Хранилище аудита: таблица audit_log или файл.
+         */
+        private AuditSinkType sink = AuditSinkType.JDBC;
+        /**
+         * Размер очереди событий, степень двойки. При переполнении события отбрасываются.
+         */
+        private int capacity = 8192;
+        /**
+         * Максимальное количество событий в одном пакете записи.
+         */
+        private int batchSize = 500;
+        /**
+         * Максимальное время ожидания пакета с момента первого события.
+         */
+        private Duration flushInterval = Duration.ofMillis(200);
+        /**
+         * Время на запись оставшихся событий при остановке приложения.
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(5);
+        /**
+         * Файл аудита для sink=file.
+         */
+        private Path file = Path.of("logs/audit.log");
+    }
+
+    @Getter
+    @Setter
+    public static class Outbox {
+        /**
+         * Запись событий создания визитов в outbox и их публикация.
+         */
+        private boolean enabled = true;
+        /**
+         * Максимальное количество событий, публикуемых в одной транзакции.
+         */
+        private int batchSize = 100;
+        /**
+         * Количество неудачных попыток публикации, после которого событие больше не выбирается
+         * и остается в таблице с последней ошибкой.
+         */
+        private int maxAttempts = 5;
+        /**
+         * Срок хранения опубликованных событий.
+         */
+        private Duration retention = Duration.ofDays(7);
+    }
+
+    @Getter
+    @Setter
+    public static class FanOut {
+        /**
+         * Параллельное выполнение независимых запросов /api/patients.
+         */
+        private boolean enabled = false;
+        /**
+         * Размер пула потоков запросов. Не должен превышать размер пула соединений.
+         */
+        private int poolSize = 8;
+        /**
+         * Размер очереди пула. При заполнении запрос выполняется в потоке вызывающего.
+         */
+        private int queueCapacity = 100;
+    }
+
+    @Getter
+    @Setter
+    public static class BookingLock {
+        /**
+         * Блокировка расписания врача на время создания визита.
+         */
+        private boolean enabled = true;
+        /**
+         * Блокировка строки врача в БД. Нужна, если запущено несколько экземпляров приложения.
+         */
+        private boolean database = true;
+        /**
+         * Количество замков внутри процесса, степень двойки.
+         */
+        private int stripes = 256;
+        /**
+         * Время ожидания замка, после которого запрос отклоняется с 409.
+         */
+        private Duration lockTimeout = Duration.ofSeconds(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Visits {
+        /**
+         * Максимальная длительность визита при партиционировании: поиск пересечений не смотрит визиты,
+         * начавшиеся раньше начала нового визита на эту величину, что позволяет MySQL отсечь старые партиции,
+         * а более длинные визиты отклоняются (400). Без партиционирования длительность не ограничена.
+         * Также ограничивает, насколько давние визиты загружает индекс пересечений (overlap-index).
+         */
+        private Duration maxDuration = Duration.ofHours(24);
+    }
+
+    @Getter
+    @Setter
+    public static class Archive {
+        /**
+         * Перенос старых визитов из visits в visits_archive.
+         */
+        private boolean enabled = false;
+        /**
+         * Визиты, начавшиеся раньше этого срока, переносятся в архив.
+         */
+        private Duration horizon = Duration.ofDays(730);
+        /**
+         * Количество визитов, переносимых в одной транзакции.
+         */
+        private int batchSize = 1000;
+    }
+
+    @Getter
+    @Setter
+    public static class Partitioning {
+        /**
+         * Миграция, разбивающая visits на помесячные партиции по start_date_time.
+         */
+        private boolean enabled = false;
+        /**
+         * На сколько месяцев вперед заранее создаются партиции.
+         */
+        private int monthsAhead = 3;
+    }
+
+    @Getter
+    @Setter
+    public static class Availability {
+        /**
+         * Длительность слота в минутах, должна делить сутки без остатка.
+         */
+        private int slotMinutes = 5;
+        /**
+         * Максимальное количество дней врачей в кэше занятости.
+         */
+        private long maximumSize = 50_000;
+        /**
+         * Время жизни дня в кэше. Визиты, созданные этим экземпляром, попадают в кэш сразу,
+         * визиты других экземпляров — после истечения срока.
+         */
+        private Duration expireAfterWrite = Duration.ofMinutes(1);
+    }
+
+    @Getter
+    @Setter
+    public static class SlotSearch {
+        /**
+         * Максимальное количество врачей в одном поиске.
+         */
+        private int maxDoctors = 1000;
+        /**
+         * Максимальная длина окна поиска.
+         */
+        private Duration maxWindow = Duration.ofDays(31);
+        /**
+         * Количество кандидатов, если limit не указан.
+         */
+        private int defaultLimit = 5;
+        /**
+         * Максимальное значение limit.
+         */
+        private int maxLimit = 100;
+        /**
+         * Количество врачей, просматриваемых одной задачей ForkJoinPool. Поиск по меньшему
+         * количеству врачей выполняется в вызывающем потоке.
+         */
+        private int parallelThreshold = 64;
+    }
+
+    @Getter
+    @Setter
+    public static class Reactive {
+        /**
+         * Неблокирующее чтение визитов пациентов через R2DBC: /api/reactive/patients.
+         */
+        private boolean enabled = false;
+        /**
+         * URL подключения R2DBC, например {@code r2dbc:mysql://localhost:3306/visittracking}.
+         */
+        private String url;
+        /**
+         * Логин и пароль по умолчанию берутся из spring.datasource.
+         */
+        private String username;
+        private String password;
+        /**
+         * Максимальный размер пула соединений R2DBC.
+         */
+        private int maxPoolSize = 20;
+        /**
+         * Количество пациентов, для врачей которых количество пациентов запрашивается одним обращением.
+         */
+        private int batchSize = 256;
+    }
+
+    @Getter
+    @Setter
+    public static class RequestLog {
+        /**
+         * Доля успешных запросов, попадающих в лог, от 0 до 1. Запросы с ошибкой пишутся всегда.
+         */
+        private double sampleRate = 1.0;
+    }
+
+    @Getter
+    @Setter
+    public static class Replica {
+        /**
+         * Направление транзакций только для чтения на реплики.
+         */
+        private boolean enabled = false;
+        /**
+         * Подключения к репликам. Логин и пароль по умолчанию берутся из spring.datasource.
+         */
+        private List<ReplicaDataSource> datasources = new ArrayList<>();
+        /**
+         * Допустимое отставание реплики, при превышении чтение идет с других реплик или основной БД.
+         */
+        private Duration maxLag = Duration.ofSeconds(5);
+        /**
+         * Интервал проверки доступности и отставания реплик.
+         */
+        private Duration healthCheckInterval = Duration.ofSeconds(5);
+        /**
+         * Размер пула соединений каждой реплики.
+         */
+        private int maximumPoolSize = 10;
+        /**
+         * Учетная запись для проверки реплик ({@code SHOW REPLICA STATUS}), нужна привилегия REPLICATION CLIENT.
+         * Если не задана, проверка идет через пул соединений реплики.
+         */
+        private String monitorUsername;
+        private String monitorPassword;
+    }
+
+    @Getter
+    @Setter
+    public static class ReplicaDataSource {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+    }
+
+    public enum AuditSinkType {
+        JDBC,
+        FILE
+    }
+
+    public enum PagingMode {
+        VISITS,
+        PATIENTS
+    }
+
+    public enum DoctorStatsSource {
+        QUERY,
+        TABLE
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.visittracking.controller;
+
+import com.example.visittracking.audit.AuditPipeline;
+import com.example.visittracking.datasource.ReplicaRouter;
+import com.example.visittracking.dto.AuditStatsDto;
+import com.example.visittracking.dto.CacheStatsDto;
+import com.example.visittracking.dto.DoctorStatsBackfillDto;
+import com.example.visittracking.dto.ReplicaStatusDto;
+import com.example.visittracking.service.DoctorAvailabilityService;
+import com.example.visittracking.service.DoctorPatientCountService;
+import com.example.visittracking.service.DoctorPatientStatsService;
+import com.example.visittracking.service.ReferenceDataCache;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+@RestController
+@RequestMapping("/api/admin")
+@Tag(name = "Administration", description = "API для диагностики внутренних кэшей и очередей приложения")
+public class AdminController {
+
+    private final DoctorPatientCountService doctorPatientCountService;
+
+    private final DoctorPatientStatsService doctorPatientStatsService;
+
+    private final ReferenceDataCache referenceDataCache;
+
+    private final DoctorAvailabilityService doctorAvailabilityService;
+
+    private final AuditPipeline auditPipeline;
+
+    private final ObjectProvider<ReplicaRouter> replicaRouter;
+
+    public AdminController(DoctorPatientCountService doctorPatientCountService,
+                           DoctorPatientStatsService doctorPatientStatsService,
+                           ReferenceDataCache referenceDataCache,
+                           DoctorAvailabilityService doctorAvailabilityService,
+                           AuditPipeline auditPipeline,
+                           ObjectProvider<ReplicaRouter> replicaRouter) {
+        this.doctorPatientCountService = doctorPatientCountService;
+        this.doctorPatientStatsService = doctorPatientStatsService;
+        this.referenceDataCache = referenceDataCache;
+        this.doctorAvailabilityService = doctorAvailabilityService;
+        this.auditPipeline = auditPipeline;
+        this.replicaRouter = replicaRouter;
+    }
+
+    @GetMapping("/caches")
+    @Operation(
+            summary = "Получить статистику кэшей",
+            description = "Возвращает размер, попадания и промахи кэшей приложения"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Статистика кэшей получена")
+    })
+    public ResponseEntity<List<CacheStatsDto>> getCacheStats() {
+        return ResponseEntity.ok(List.of(
+                doctorPatientCountService.getStats(),
+                referenceDataCache.getDoctorStats(),
+                referenceDataCache.getPatientStats(),
+                doctorAvailabilityService.getStats()));
+    }
+
+    @GetMapping("/audit")
+    @Operation(
+            summary = "Получить состояние очереди аудита",
+            description = "Возвращает размер очереди, количество записанных, отброшенных и не записанных событий " +
+                    "и задержку записи последнего пакета"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Состояние очереди аудита получено")
+    })
+    public ResponseEntity<AuditStatsDto> getAuditStats() {
+        return ResponseEntity.ok(auditPipeline.getStats());
+    }
+
+    @GetMapping("/replicas")
+    @Operation(
+            summary = "Получить состояние реплик",
+            description = "Возвращает доступность и отставание реплик чтения. " +
+                    "Пустой список, если чтение с реплик выключено"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Состояние реплик получено")
+    })
+    public ResponseEntity<List<ReplicaStatusDto>> getReplicaStats() {
+        ReplicaRouter router = replicaRouter.getIfAvailable();
+        return ResponseEntity.ok(router != null ? router.getStats() : List.of());
+    }
+
+    @PostMapping("/doctor-stats/backfill")
+    @Operation(
+            summary = "Заполнить статистику пациентов врачей",
+            description = "Разово заполняет doctor_patient_stats по visits пакетами врачей. " +
+                    "Доступно при visittracking.doctor-stats.source=table"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Статистика заполнена"),
+            @ApiResponse(responseCode = "400", description = "Источник статистики не table")
+    })
+    public ResponseEntity<DoctorStatsBackfillDto> backfillDoctorStats() {
+        return ResponseEntity.ok(doctorPatientStatsService.backfill());
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.visittracking.controller;
+
+import com.example.visittracking.dto.DoctorAvailabilityResponse;
+import com.example.visittracking.dto.SlotSearchRequest;
+import com.example.visittracking.dto.SlotSearchResponse;
+import com.example.visittracking.service.DoctorAvailabilityService;
+import com.example.visittracking.service.SlotSearchService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+@RestController
+@RequestMapping("/api/doctors")
+@Tag(name = "Doctor Schedule", description = "API для получения свободного времени врачей")
+public class DoctorScheduleController {
+
+    private final DoctorAvailabilityService doctorAvailabilityService;
+
+    private final SlotSearchService slotSearchService;
+
+    public DoctorScheduleController(DoctorAvailabilityService doctorAvailabilityService,
+                                    SlotSearchService slotSearchService) {
+        this.doctorAvailabilityService = doctorAvailabilityService;
+        this.slotSearchService = slotSearchService;
+    }
+
+    @GetMapping("/{id}/availability")
+    @Operation(
+            summary = "Получить свободное время врача",
+            description = "Возвращает свободные интервалы врача за день в его часовом поясе. " +
+                    "Границы интервалов кратны slotMinutes"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Свободное время врача получено"),
+            @ApiResponse(responseCode = "400", description = "Некорректная дата"),
+            @ApiResponse(responseCode = "404", description = "Врач не найден")
+    })
+    public ResponseEntity<DoctorAvailabilityResponse> getAvailability(
+            @Parameter(description = "ID врача", required = true)
+            @PathVariable Integer id,
+            @Parameter(description = "День в формате yyyy-MM-dd в часовом поясе врача, по умолчанию сегодня")
+            @RequestParam(required = false) String date) {
+
+        DoctorAvailabilityResponse response = doctorAvailabilityService.getAvailability(id, date);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/slots/search")
+    @Operation(
+            summary = "Найти ближайшее свободное время",
+            description = "Возвращает самое раннее свободное время длительностью durationMinutes у каждого из врачей " +
+                    "в окне [from, to], отсортированное по началу. Время указано в часовом поясе врача"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Поиск выполнен"),
+            @ApiResponse(responseCode = "400", description = "Некорректные параметры поиска"),
+            @ApiResponse(responseCode = "404", description = "Врач не найден")
+    })
+    public ResponseEntity<SlotSearchResponse> searchSlots(
+            @Parameter(description = "Параметры поиска свободного времени", required = true)
+            @Valid @RequestBody SlotSearchRequest request) {
+
+        SlotSearchResponse response = slotSearchService.findEarliestSlots(request);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.visittracking.controller;
+
+import com.example.visittracking.dto.PatientVisitDto;
+import com.example.visittracking.service.ReactivePatientVisitService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+/**
+ * Потоковое чтение визитов пациентов. Поток запроса освобождается сразу, пациенты
+ * записываются в ответ по одному по мере чтения из БД.
+ *
+ * @author Pavel Zhurenkov
+ */
+@RestController
+@RequestMapping("/api/reactive")
+@ConditionalOnProperty(prefix = "visittracking.reactive", name = "enabled", havingValue = "true")
+@Tag(name = "Reactive Visit Tracking", description = "API для потокового чтения визитов пациентов через R2DBC")
+public class ReactivePatientController {
+
+    private final ReactivePatientVisitService reactivePatientVisitService;
+
+    public ReactivePatientController(ReactivePatientVisitService reactivePatientVisitService) {
+        this.reactivePatientVisitService = reactivePatientVisitService;
+    }
+
+    @GetMapping(value = "/patients", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Получить визиты пациентов потоком",
+            description = "Возвращает визиты пациентов по pageable, filter, ID в формате NDJSON: " +
+                    "один пациент с визитами в строке"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Получены визиты пациентов")
+    })
+    public Flux<PatientVisitDto> getPatientVisits(
+            @Parameter(description = "Параметры поиска визитов пациентов по ID", required = true)
+            Pageable pageable,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) List<Integer> doctorIds) {
+
+        return reactivePatientVisitService.getPatientVisits(pageable, search, doctorIds);
+    }
+
+    @GetMapping("/patients/count")
+    @Operation(
+            summary = "Получить количество пациентов",
+            description = "Возвращает количество пациентов с визитами по filter, ID"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Получено количество пациентов")
+    })
+    public Mono<Long> countPatients(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) List<Integer> doctorIds) {
+
+        return reactivePatientVisitService.countPatients(search, doctorIds);
+    }
+}
@@ -1,8 +1,13 @@
 package com.example.visittracking.controller;
 
+import com.example.visittracking.dto.BatchVisitResponse;
 import com.example.visittracking.dto.CreateVisitRequest;
+import com.example.visittracking.dto.CreateVisitsBatchRequest;
+import com.example.visittracking.dto.PatientVisitsCursorResponse;
 import com.example.visittracking.dto.PatientVisitsResponse;
 import com.example.visittracking.dto.VisitResponse;
+import com.example.visittracking.exception.ErrorMetrics;
+import com.example.visittracking.service.VisitExportService;
 import com.example.visittracking.service.VisitTrackingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,8 +16,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -26,8 +33,15 @@ public class VisitTrackingController {
 
     private final VisitTrackingService visitTrackingService;
 
-    public VisitTrackingController(VisitTrackingService visitTrackingService) {
+    private final VisitExportService visitExportService;
+
+    private final ErrorMetrics errorMetrics;
+
+    public VisitTrackingController(VisitTrackingService visitTrackingService, VisitExportService visitExportService,
+                                   ErrorMetrics errorMetrics) {
         this.visitTrackingService = visitTrackingService;
+        this.visitExportService = visitExportService;
+        this.errorMetrics = errorMetrics;
     }
 
     @PostMapping("/visits")
@@ -36,7 +50,10 @@ public class VisitTrackingController {
             description = "Возвращает информацию о созданном визите пациента"
     )
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Визит пациента создан")
+            @ApiResponse(responseCode = "200", description = "Визит пациента создан"),
+            @ApiResponse(responseCode = "400",
+                    description = "Некорректное время визита, с партиционированием в том числе визит длиннее "
+                            + "visittracking.visits.max-duration")
     })
     public ResponseEntity<VisitResponse> createVisit(
             @Parameter(description = "CreateVisitRequest пациента", required = true)
@@ -45,6 +62,22 @@ public class VisitTrackingController {
         return ResponseEntity.ok(response);
     }
 
+    @PostMapping("/visits/batch")
+    @Operation(
+            summary = "Создать визиты пациентов пакетом",
+            description = "Создает визиты в одной транзакции и возвращает результат по каждому визиту пакета"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Пакет визитов обработан")
+    })
+    public ResponseEntity<BatchVisitResponse> createVisits(
+            @Parameter(description = "Список CreateVisitRequest", required = true)
+            @Valid @RequestBody CreateVisitsBatchRequest request) {
+        BatchVisitResponse response = visitTrackingService.createVisits(request.getVisits());
+        errorMetrics.record(response);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/patients")
     @Operation(
             summary = "Получить визиты пациента",
@@ -62,4 +95,46 @@ public class VisitTrackingController {
         PatientVisitsResponse response = visitTrackingService.getPatientVisits(pageable, search, doctorIds);
         return ResponseEntity.ok(response);
     }
+
+    @GetMapping(value = "/patients", params = "cursor")
+    @Operation(
+            summary = "Получить визиты пациентов по курсору",
+            description = "Возвращает визиты пациентов после позиции курсора и курсор следующей страницы. " +
+                    "Для первой страницы передайте пустой cursor"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Получены визиты пациентов"),
+            @ApiResponse(responseCode = "400", description = "Некорректный курсор")
+    })
+    public ResponseEntity<PatientVisitsCursorResponse> getPatientVisitsByCursor(
+            @Parameter(description = "Курсор из nextCursor предыдущей страницы")
+            @RequestParam String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) List<Integer> doctorIds,
+            @Parameter(description = "Вернуть общее количество пациентов")
+            @RequestParam(defaultValue = "false") boolean withCount) {
+
+        PatientVisitsCursorResponse response = visitTrackingService.getPatientVisitsByCursor(
+                cursor, size, search, doctorIds, withCount);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping(value = "/visits/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Выгрузить визиты пациентов",
+            description = "Возвращает все визиты, подходящие под фильтры, потоком NDJSON: одна запись визита на строку"
+    )
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Выгрузка визитов")
+    })
+    public ResponseEntity<StreamingResponseBody> exportVisits(
+            @RequestParam(required = false) String search,
+            @RequestParam(required = false) List<Integer> doctorIds) {
+
+        StreamingResponseBody body = out -> visitExportService.exportVisits(search, doctorIds, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
 }
@@ -0,0 +1,38 @@
+package com.example.visittracking.datasource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Отставание реплики MySQL 8 по {@code SHOW REPLICA STATUS}. Сервер без настроенной репликации
+ * считается неисправным: по адресу реплики может оказаться отдельная БД, которая не получает изменений.
+ *
+ * @author Pavel Zhurenkov
+ */
+public class MySqlReplicaLagProbe implements ReplicaLagProbe {
+
+    @Override
+    public Duration lag(DataSource replica) throws SQLException {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet status = statement.executeQuery("SHOW REPLICA STATUS")) {
+            if (!status.next()) {
+                return null;
+            }
+            long seconds = status.getLong("Seconds_Behind_Source");
+            return status.wasNull() ? null : Duration.ofSeconds(seconds);
+        }
+    }
+
+    /**
+     * Адрес сервера без базы по умолчанию: пользователю проверки с одной привилегией REPLICATION CLIENT
+     * подключение к базе приложения запрещено.
+     */
+    public static String serverUrl(String jdbcUrl) {
+        return jdbcUrl.replaceFirst("^(jdbc:mysql://[^/?]+)/[^?]*", "$1/");
+    }
+}
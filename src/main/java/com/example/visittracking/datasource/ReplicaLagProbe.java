@@ -0,0 +1,19 @@
+package com.example.visittracking.datasource;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+
+/**
+ * Определение отставания реплики от основной БД.
+ *
+ * @author Pavel Zhurenkov
+ */
+@FunctionalInterface
+public interface ReplicaLagProbe {
+
+    /**
+     * @return отставание реплики или null, если репликация остановлена
+     */
+    Duration lag(DataSource replica) throws SQLException;
+}
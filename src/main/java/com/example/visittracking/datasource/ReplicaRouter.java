@@ -0,0 +1,255 @@
+package com.example.visittracking.datasource;
+
+import com.example.visittracking.dto.ReplicaStatusDto;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Источник соединений для транзакций только для чтения. Соединения выдаются по кругу
+ * из исправных реплик; реплика исключается, если она недоступна, репликация остановлена
+ * или отставание превышает {@code maxLag}. Без исправных реплик соединение берется из основной БД.
+ *
+ * @author Pavel Zhurenkov
+ */
+public class ReplicaRouter extends AbstractDataSource implements Closeable, MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRouter.class);
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final ReplicaLagProbe lagProbe;
+
+    private final Duration maxLag;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final AtomicLong primaryFallbacks = new AtomicLong();
+
+    private volatile List<Replica> healthy;
+
+    private ScheduledExecutorService healthChecker;
+
+    public ReplicaRouter(DataSource primary, List<Replica> replicas, ReplicaLagProbe lagProbe, Duration maxLag) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.lagProbe = lagProbe;
+        this.maxLag = maxLag;
+        // До первой проверки реплики считаются исправными, ошибка соединения исключит реплику сразу
+        this.healthy = this.replicas;
+    }
+
+    /**
+     * Запускает периодическую проверку реплик.
+     */
+    public void start(Duration interval) {
+        healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkHealth, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    public void checkHealth() {
+        List<Replica> result = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            try {
+                Duration lag = lagProbe.lag(replica.monitor());
+                replica.lagMillis = lag == null ? -1 : lag.toMillis();
+                if (lag == null) {
+                    replica.lastError = "Replication is not running";
+                } else if (lag.compareTo(maxLag) > 0) {
+                    replica.lastError = "Replication lag " + lag.toSeconds() + "s exceeds " + maxLag.toSeconds() + "s";
+                } else {
+                    replica.lastError = null;
+                    result.add(replica);
+                    continue;
+                }
+            } catch (SQLException | RuntimeException e) {
+                replica.lagMillis = -1;
+                replica.lastError = e.getMessage();
+            }
+            logger.warn("Replica excluded from reads: name={}, reason={}", replica.name(), replica.lastError);
+        }
+        healthy = List.copyOf(result);
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public boolean isHealthy(Replica replica) {
+        return healthy.contains(replica);
+    }
+
+    public List<ReplicaStatusDto> getStats() {
+        List<ReplicaStatusDto> stats = new ArrayList<>(replicas.size());
+        for (Replica replica : replicas) {
+            ReplicaStatusDto dto = new ReplicaStatusDto();
+            dto.setName(replica.name());
+            dto.setHealthy(isHealthy(replica));
+            dto.setLagMillis(replica.lagMillis());
+            dto.setLastError(replica.lastError());
+            stats.add(dto);
+        }
+        return stats;
+    }
+
+    public long getPrimaryFallbacks() {
+        return primaryFallbacks.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("visittracking.replica.primary.fallbacks", primaryFallbacks, AtomicLong::get)
+                .description("Чтения, ушедшие на основную БД из-за отсутствия исправных реплик")
+                .register(registry);
+        for (Replica replica : replicas) {
+            Gauge.builder("visittracking.replica.lag", replica, Replica::lagMillis)
+                    .description("Отставание реплики, -1 если неизвестно")
+                    .baseUnit("milliseconds")
+                    .tag("replica", replica.name())
+                    .register(registry);
+            Gauge.builder("visittracking.replica.healthy", replica, r -> isHealthy(r) ? 1 : 0)
+                    .tag("replica", replica.name())
+                    .register(registry);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            closeQuietly(replica.dataSource());
+        }
+        closeQuietly(primary);
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        List<Replica> candidates = healthy;
+        int size = candidates.size();
+        if (size > 0) {
+            int start = Math.floorMod(nextReplica.getAndIncrement(), size);
+            for (int i = 0; i < size; i++) {
+                Replica replica = candidates.get((start + i) % size);
+                try {
+                    return source.open(replica.dataSource());
+                } catch (SQLFeatureNotSupportedException e) {
+                    // Пул не поддерживает такой способ получения соединения, реплика при этом исправна
+                    throw e;
+                } catch (SQLException e) {
+                    markDown(replica, e.getMessage());
+                }
+            }
+        }
+        primaryFallbacks.incrementAndGet();
+        return source.open(primary);
+    }
+
+    private synchronized void markDown(Replica replica, String reason) {
+        replica.lastError = reason;
+        List<Replica> remaining = new ArrayList<>(healthy);
+        if (remaining.remove(replica)) {
+            healthy = List.copyOf(remaining);
+            logger.warn("Replica excluded from reads: name={}, reason={}", replica.name(), reason);
+        }
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                logger.warn("Failed to close data source", e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection open(DataSource dataSource) throws SQLException;
+    }
+
+    /**
+     * Пул соединений реплики, источник соединений для ее проверки и результат последней проверки.
+     */
+    public static final class Replica {
+
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private final DataSource monitor;
+
+        private volatile long lagMillis;
+
+        private volatile String lastError;
+
+        public Replica(String name, DataSource dataSource) {
+            this(name, dataSource, dataSource);
+        }
+
+        public Replica(String name, DataSource dataSource, DataSource monitor) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.monitor = monitor;
+        }
+
+        public String name() {
+            return name;
+        }
+
+        public DataSource dataSource() {
+            return dataSource;
+        }
+
+        public DataSource monitor() {
+            return monitor;
+        }
+
+        public long lagMillis() {
+            return lagMillis;
+        }
+
+        public String lastError() {
+            return lastError;
+        }
+    }
+}
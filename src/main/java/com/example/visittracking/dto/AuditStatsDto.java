@@ -0,0 +1,18 @@
+package com.example.visittracking.dto;
+
+import lombok.Data;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+@Data
+public class AuditStatsDto {
+    private boolean running;
+    private int capacity;
+    private int queued;
+    private long published;
+    private long dropped;
+    private long written;
+    private long failed;
+    private long lastBatchLagMillis;
+}
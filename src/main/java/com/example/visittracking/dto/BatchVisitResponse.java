@@ -0,0 +1,15 @@
+package com.example.visittracking.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+@Data
+public class BatchVisitResponse {
+    private List<BatchVisitResult> results;
+    private int created;
+    private int rejected;
+}
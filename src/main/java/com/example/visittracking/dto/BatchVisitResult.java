@@ -0,0 +1,14 @@
+package com.example.visittracking.dto;
+
+import lombok.Data;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+@Data
+public class BatchVisitResult {
+    private int index;
+    private BatchVisitStatus status;
+    private String message;
+    private VisitResponse visit;
+}
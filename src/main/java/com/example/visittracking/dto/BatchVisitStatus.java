@@ -0,0 +1,11 @@
+package com.example.visittracking.dto;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+public enum BatchVisitStatus {
+    CREATED,
+    CONFLICT,
+    NOT_FOUND,
+    INVALID
+}
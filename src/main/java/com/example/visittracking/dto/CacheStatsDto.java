@@ -0,0 +1,16 @@
+package com.example.visittracking.dto;
+
+import lombok.Data;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+@Data
+public class CacheStatsDto {
+    private String name;
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+    private long evictionCount;
+}
@@ -0,0 +1,17 @@
+package com.example.visittracking.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+@Data
+public class CreateVisitsBatchRequest {
+    @NotEmpty
+    @Valid
+    private List<CreateVisitRequest> visits;
+}
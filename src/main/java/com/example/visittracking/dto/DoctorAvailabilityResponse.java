@@ -0,0 +1,17 @@
+package com.example.visittracking.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+@Data
+public class DoctorAvailabilityResponse {
+    private Integer doctorId;
+    private String date;
+    private String timezone;
+    private int slotMinutes;
+    private List<FreeSlotDto> freeSlots;
+}
@@ -0,0 +1,12 @@
+package com.example.visittracking.dto;
+
+import lombok.Data;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+@Data
+public class DoctorStatsBackfillDto {
+    private int doctors;
+    private long newPairs;
+}
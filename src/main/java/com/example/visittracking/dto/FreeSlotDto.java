@@ -0,0 +1,14 @@
+package com.example.visittracking.dto;
+
+import lombok.Data;
+
+/**
+ * Свободный интервал: подойдет любой визит, который начинается и заканчивается внутри него.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Data
+public class FreeSlotDto {
+    private String start;
+    private String end;
+}
@@ -0,0 +1,15 @@
+package com.example.visittracking.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+@Data
+public class PatientVisitsCursorResponse {
+    private List<PatientVisitDto> data;
+    private Long count;
+    private String nextCursor;
+}
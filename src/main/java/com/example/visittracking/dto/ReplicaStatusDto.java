@@ -0,0 +1,14 @@
+package com.example.visittracking.dto;
+
+import lombok.Data;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+@Data
+public class ReplicaStatusDto {
+    private String name;
+    private boolean healthy;
+    private long lagMillis;
+    private String lastError;
+}
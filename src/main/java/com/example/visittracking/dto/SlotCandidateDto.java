@@ -0,0 +1,16 @@
+package com.example.visittracking.dto;
+
+import lombok.Data;
+
+/**
+ * Свободное время врача; start и end можно передать в CreateVisitRequest без изменений.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Data
+public class SlotCandidateDto {
+    private Integer doctorId;
+    private String timezone;
+    private String start;
+    private String end;
+}
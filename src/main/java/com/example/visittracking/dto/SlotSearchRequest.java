@@ -0,0 +1,23 @@
+package com.example.visittracking.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+@Data
+public class SlotSearchRequest {
+    @NotEmpty
+    private List<Integer> doctorIds;
+    @NotNull
+    private String from;
+    @NotNull
+    private String to;
+    @NotNull
+    private Integer durationMinutes;
+    private Integer limit;
+}
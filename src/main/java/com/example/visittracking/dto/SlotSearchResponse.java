@@ -0,0 +1,13 @@
+package com.example.visittracking.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+@Data
+public class SlotSearchResponse {
+    private List<SlotCandidateDto> slots;
+}
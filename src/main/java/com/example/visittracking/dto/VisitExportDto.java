@@ -0,0 +1,18 @@
+package com.example.visittracking.dto;
+
+import lombok.Data;
+
+/**
+ * Строка выгрузки визитов в формате NDJSON.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Data
+public class VisitExportDto {
+    private Integer patientId;
+    private String firstName;
+    private String lastName;
+    private String start;
+    private String end;
+    private DoctorInfoDto doctor;
+}
@@ -0,0 +1,33 @@
+package com.example.visittracking.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись журнала действий пользователей. Заполняется пакетами через {@code JdbcAuditSink}.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Entity
+@Table(name = "audit_log")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditLog {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "event_type", length = 100)
+    private String eventType;
+
+    @Column(name = "description")
+    private String description;
+
+    @Column(name = "occurred_at")
+    private LocalDateTime occurredAt;
+}
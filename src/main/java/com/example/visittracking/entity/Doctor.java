@@ -1,5 +1,6 @@
 package com.example.visittracking.entity;
 
+import com.example.visittracking.listener.ReferenceDataCacheListener;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -8,6 +9,7 @@ import lombok.*;
  */
 @Entity
 @Table(name = "doctors")
+@EntityListeners(ReferenceDataCacheListener.class)
 @Getter
 @Setter
 @Builder
@@ -0,0 +1,26 @@
+package com.example.visittracking.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Отметка о первом визите пациента к врачу.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Entity
+@Table(name = "doctor_patients")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorPatient {
+    @EmbeddedId
+    private DoctorPatientId id;
+
+    @Column(name = "first_visit_date_time")
+    private LocalDateTime firstVisitDateTime;
+}
@@ -0,0 +1,24 @@
+package com.example.visittracking.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+@Embeddable
+@Getter
+@Setter
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorPatientId implements Serializable {
+    @Column(name = "doctor_id")
+    private Integer doctorId;
+
+    @Column(name = "patient_id")
+    private Integer patientId;
+}
@@ -0,0 +1,25 @@
+package com.example.visittracking.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Количество уникальных пациентов врача, обновляемое при создании визитов.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Entity
+@Table(name = "doctor_patient_stats")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DoctorPatientStats {
+    @Id
+    @Column(name = "doctor_id")
+    private Integer doctorId;
+
+    @Column(name = "total_patients")
+    private Long totalPatients;
+}
@@ -1,13 +1,18 @@
 package com.example.visittracking.entity;
 
+import com.example.visittracking.listener.PatientSearchIndexListener;
+import com.example.visittracking.listener.ReferenceDataCacheListener;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDateTime;
+
 /**
  * @author Pavel Zhurenkov
  */
 @Entity
 @Table(name = "patients")
+@EntityListeners({PatientSearchIndexListener.class, ReferenceDataCacheListener.class})
 @Getter
 @Setter
 @Builder
@@ -23,4 +28,10 @@ public class Patient {
 
     @Column(name = "last_name")
     private String lastName;
+
+    /**
+     * Заполняется БД при вставке и изменении строки.
+     */
+    @Column(name = "updated_at", insertable = false, updatable = false)
+    private LocalDateTime updatedAt;
 }
@@ -0,0 +1,67 @@
+package com.example.visittracking.exception;
+
+import com.example.visittracking.dto.BatchVisitResponse;
+import com.example.visittracking.dto.BatchVisitResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Счетчик {@code visittracking.errors} отклоненных запросов. Тег {@code type}: conflict, not_found,
+ * validation или error; тег {@code source}: api для ответов с ошибкой, batch для отклоненных элементов пакета.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Component
+public class ErrorMetrics {
+
+    private static final String NAME = "visittracking.errors";
+
+    private final Counter[] api;
+
+    private final Counter[] batch;
+
+    public ErrorMetrics(MeterRegistry meterRegistry) {
+        this.api = counters(meterRegistry, "api");
+        this.batch = counters(meterRegistry, "batch");
+    }
+
+    public void record(int httpStatus) {
+        api[type(httpStatus)].increment();
+    }
+
+    public void record(BatchVisitResponse response) {
+        for (BatchVisitResult result : response.getResults()) {
+            switch (result.getStatus()) {
+                case CONFLICT -> batch[type(HttpStatus.CONFLICT.value())].increment();
+                case NOT_FOUND -> batch[type(HttpStatus.NOT_FOUND.value())].increment();
+                case INVALID -> batch[type(HttpStatus.BAD_REQUEST.value())].increment();
+                default -> {
+                }
+            }
+        }
+    }
+
+    private static int type(int httpStatus) {
+        return switch (httpStatus) {
+            case 409 -> 0;
+            case 404 -> 1;
+            case 400 -> 2;
+            default -> 3;
+        };
+    }
+
+    private static Counter[] counters(MeterRegistry meterRegistry, String source) {
+        String[] types = {"conflict", "not_found", "validation", "error"};
+        Counter[] counters = new Counter[types.length];
+        for (int i = 0; i < types.length; i++) {
+            counters[i] = Counter.builder(NAME)
+                    .description("Отклоненные запросы")
+                    .tag("type", types[i])
+                    .tag("source", source)
+                    .register(meterRegistry);
+        }
+        return counters;
+    }
+}
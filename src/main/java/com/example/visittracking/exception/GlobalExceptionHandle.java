@@ -17,9 +17,16 @@ import java.util.stream.Collectors;
 @RestControllerAdvice
 public class GlobalExceptionHandle {
 
+    private final ErrorMetrics errorMetrics;
+
+    public GlobalExceptionHandle(ErrorMetrics errorMetrics) {
+        this.errorMetrics = errorMetrics;
+    }
+
     @ExceptionHandler(ApplicationException.class)
     public ResponseEntity<ApiError> handleApplicationException(ApplicationException ex) {
         HttpStatus status = HttpStatus.resolve(ex.getHttpStatus());
+        errorMetrics.record(ex.getHttpStatus());
         ApiError apiError = ApiError.builder()
                 .status(ex.getHttpStatus())
                 .message(ex.getMessage())
@@ -30,6 +37,7 @@ public class GlobalExceptionHandle {
 
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ApiError> handleValidation(MethodArgumentNotValidException ex){
+        errorMetrics.record(HttpStatus.BAD_REQUEST.value());
         Map<String, String> errors = ex.getBindingResult()
                 .getFieldErrors()
                 .stream()
@@ -47,6 +55,7 @@ public class GlobalExceptionHandle {
 
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleGeneric(Exception ex) {
+        errorMetrics.record(HttpStatus.INTERNAL_SERVER_ERROR.value());
         ApiError apiError = ApiError.builder()
                 .status(HttpStatus.INTERNAL_SERVER_ERROR.value())
                 .message(ex.getMessage())
@@ -0,0 +1,12 @@
+package com.example.visittracking.exception.custom;
+
+import com.example.visittracking.exception.ApplicationException;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+public class RequestNotValidException extends ApplicationException {
+    public RequestNotValidException(String message, int status) {
+        super(message, status);
+    }
+}
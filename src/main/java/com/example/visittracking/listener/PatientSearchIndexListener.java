@@ -0,0 +1,33 @@
+package com.example.visittracking.listener;
+
+import com.example.visittracking.entity.Patient;
+import com.example.visittracking.service.PatientSearchIndex;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Синхронизирует индекс поиска пациентов с изменениями сущности {@link Patient}.
+ *
+ * @author Pavel Zhurenkov
+ */
+public class PatientSearchIndexListener {
+
+    private final ObjectProvider<PatientSearchIndex> patientSearchIndex;
+
+    public PatientSearchIndexListener(ObjectProvider<PatientSearchIndex> patientSearchIndex) {
+        this.patientSearchIndex = patientSearchIndex;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onSave(Patient patient) {
+        patientSearchIndex.ifAvailable(index -> index.onPatientSaved(patient));
+    }
+
+    @PostRemove
+    public void onRemove(Patient patient) {
+        patientSearchIndex.ifAvailable(index -> index.onPatientRemoved(patient));
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.visittracking.listener;
+
+import com.example.visittracking.entity.Doctor;
+import com.example.visittracking.entity.Patient;
+import com.example.visittracking.service.ReferenceDataCache;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Сбрасывает кэш справочных данных при изменении или удалении врача и пациента.
+ *
+ * @author Pavel Zhurenkov
+ */
+public class ReferenceDataCacheListener {
+
+    private final ObjectProvider<ReferenceDataCache> referenceDataCache;
+
+    public ReferenceDataCacheListener(ObjectProvider<ReferenceDataCache> referenceDataCache) {
+        this.referenceDataCache = referenceDataCache;
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        if (entity instanceof Doctor doctor) {
+            referenceDataCache.ifAvailable(cache -> cache.evictDoctor(doctor.getId()));
+        } else if (entity instanceof Patient patient) {
+            referenceDataCache.ifAvailable(cache -> cache.evictPatient(patient.getId()));
+        }
+    }
+}
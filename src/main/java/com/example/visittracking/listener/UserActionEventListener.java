@@ -1,9 +1,14 @@
 package com.example.visittracking.listener;
 
+import com.example.visittracking.audit.AuditPipeline;
+import com.example.visittracking.audit.AuditRecord;
+import com.example.visittracking.config.VisitTrackingProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import static com.example.visittracking.util.TimestampConverter.getDetailedTimeInfo;
 
@@ -15,12 +20,41 @@ public class UserActionEventListener {
 
     private static final Logger logger = LoggerFactory.getLogger(UserActionEventListener.class);
 
+    private final AuditPipeline auditPipeline;
+
+    private final VisitTrackingProperties.Outbox outboxProperties;
+
+    public UserActionEventListener(AuditPipeline auditPipeline, VisitTrackingProperties properties) {
+        this.auditPipeline = auditPipeline;
+        this.outboxProperties = properties.getOutbox();
+    }
+
     @EventListener
     public void handleUserActionEvent(UserActionEvent event) {
-        logger.info("User action occurred: description={}, timestamp={}",
-                event.getDescription(), getDetailedTimeInfo(event.getTimestamp()));
+        // Каждое действие уже попадает в аудит, в лог оно нужно только при отладке
+        if (logger.isDebugEnabled()) {
+            logger.debug("User action occurred: description={}, timestamp={}",
+                    event.getDescription(), getDetailedTimeInfo(event.getTimestamp()));
+        }
 
-        //todo
+        // Создание визитов попадает в аудит из outbox, см. VisitsCreatedAuditListener
+        if (event instanceof VisitCreatedEvent && outboxProperties.isEnabled()) {
+            return;
+        }
+
+        AuditRecord record = new AuditRecord(event.getClass().getSimpleName(),
+                event.getDescription(), event.getTimestamp());
+
+        // Событие внутри транзакции попадает в аудит только после ее коммита
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    auditPipeline.publish(record);
+                }
+            });
+        } else {
+            auditPipeline.publish(record);
+        }
     }
 }
-
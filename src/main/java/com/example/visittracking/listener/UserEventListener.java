@@ -1,5 +1,6 @@
 package com.example.visittracking.listener;
 
+import com.example.visittracking.config.VisitTrackingProperties;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.context.event.ApplicationStartedEvent;
@@ -8,6 +9,8 @@ import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.springframework.web.context.support.RequestHandledEvent;
 
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * @author Pavel Zhurenkov
  */
@@ -16,6 +19,12 @@ public class UserEventListener {
 
     private static final Logger logger = LoggerFactory.getLogger(UserEventListener.class);
 
+    private final VisitTrackingProperties.RequestLog properties;
+
+    public UserEventListener(VisitTrackingProperties properties) {
+        this.properties = properties.getRequestLog();
+    }
+
     @EventListener
     public void onApplicationEvent(ContextRefreshedEvent event) {
         logger.info("Context refreshed");
@@ -24,11 +33,32 @@ public class UserEventListener {
     @EventListener
     public void handleApplicationStarted(ApplicationStartedEvent event) {
         logger.info("Application started");
+
+        boolean virtualThreads = event.getApplicationContext().getEnvironment()
+                .getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        if (virtualThreads && Runtime.version().feature() < 21) {
+            logger.warn("spring.threads.virtual.enabled is ignored: virtual threads require Java 21+, running on {}",
+                    Runtime.version());
+        }
     }
 
+    /**
+     * Пишет выборку запросов с долей {@code visittracking.request-log.sample-rate}. Описание запроса
+     * собирается из нескольких строк, поэтому строится только для попавших в выборку.
+     */
     @EventListener
     public void onApplicationEvent(RequestHandledEvent event) {
-        logger.info("Request handled: : description={}", event.getDescription());
+        if (!logger.isInfoEnabled()) {
+            return;
+        }
+        if (event.wasFailure() || isSampled()) {
+            logger.info("Request handled: description={}", event.getDescription());
+        }
+    }
+
+    private boolean isSampled() {
+        double sampleRate = properties.getSampleRate();
+        return sampleRate >= 1.0 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
     }
 }
 
@@ -0,0 +1,31 @@
+package com.example.visittracking.listener;
+
+import com.example.visittracking.entity.Visit;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+@Getter
+public class VisitCreatedEvent extends UserActionEvent {
+
+    private final Set<Integer> doctorIds;
+
+    /**
+     * Созданные визиты; пустой список, если известны только врачи.
+     */
+    private final List<Visit> visits;
+
+    public VisitCreatedEvent(Object source, String description, Set<Integer> doctorIds) {
+        this(source, description, doctorIds, List.of());
+    }
+
+    public VisitCreatedEvent(Object source, String description, Set<Integer> doctorIds, List<Visit> visits) {
+        super(source, description);
+        this.doctorIds = doctorIds;
+        this.visits = visits;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.visittracking.listener;
+
+import com.example.visittracking.audit.AuditPipeline;
+import com.example.visittracking.audit.AuditRecord;
+import com.example.visittracking.outbox.VisitsCreatedMessage;
+import org.springframework.stereotype.Component;
+import org.springframework.context.event.EventListener;
+
+/**
+ * Записывает в аудит каждый созданный визит по событиям из outbox. Это единственный источник
+ * аудита создания визитов: {@link UserActionEventListener} пропускает {@link VisitCreatedEvent},
+ * пока outbox включен.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Component
+public class VisitsCreatedAuditListener {
+
+    private final AuditPipeline auditPipeline;
+
+    public VisitsCreatedAuditListener(AuditPipeline auditPipeline) {
+        this.auditPipeline = auditPipeline;
+    }
+
+    @EventListener
+    public void onVisitsCreated(VisitsCreatedMessage message) {
+        long timestamp = System.currentTimeMillis();
+        for (VisitsCreatedMessage.CreatedVisit visit : message.visits()) {
+            auditPipeline.publish(new AuditRecord(VisitsCreatedMessage.EVENT_TYPE,
+                    "Visit created: id=" + visit.visitId() + ", patientId=" + visit.patientId()
+                            + ", doctorId=" + visit.doctorId() + ", start=" + visit.start() + ", end=" + visit.end(),
+                    timestamp));
+        }
+    }
+}
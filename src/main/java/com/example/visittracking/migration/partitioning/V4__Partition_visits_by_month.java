@@ -0,0 +1,95 @@
+package com.example.visittracking.migration.partitioning;
+
+import com.example.visittracking.archive.VisitPartitions;
+import org.flywaydb.core.api.FlywayException;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Разбивает visits на помесячные партиции по start_date_time. Подключается только при
+ * {@code visittracking.partitioning.enabled=true}, см. {@code PartitioningConfig}.
+ * <p>
+ * MySQL требует, чтобы каждый уникальный ключ партиционированной таблицы содержал столбец
+ * разбиения, и не поддерживает внешние ключи у таких таблиц. Поэтому первичный ключ становится
+ * (id, start_date_time), а внешние ключи visits удаляются; индексы по patient_id и doctor_id остаются.
+ * <p>
+ * После разбиения поиск пересечений не читает визиты, начавшиеся раньше начала интервала минус
+ * {@code visittracking.visits.max-duration}. Если в visits уже есть более длинный визит, он был бы
+ * пропущен, поэтому миграция завершается ошибкой. Проверка читает всю таблицу и выполняется один раз,
+ * вместе с миграцией.
+ *
+ * @author Pavel Zhurenkov
+ */
+public class V4__Partition_visits_by_month extends BaseJavaMigration {
+
+    public static final String MONTHS_AHEAD_PLACEHOLDER = "partitionMonthsAhead";
+
+    public static final String MAX_VISIT_DURATION_PLACEHOLDER = "visitMaxDuration";
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        Map<String, String> placeholders = context.getConfiguration().getPlaceholders();
+        String monthsAhead = placeholders.getOrDefault(MONTHS_AHEAD_PLACEHOLDER, "3");
+        Duration maxDuration = Duration.parse(placeholders.getOrDefault(MAX_VISIT_DURATION_PLACEHOLDER, "PT24H"));
+        try (Statement statement = context.getConnection().createStatement()) {
+            checkMaxDuration(statement, maxDuration);
+            for (String foreignKey : foreignKeys(statement)) {
+                statement.execute("ALTER TABLE visits DROP FOREIGN KEY " + foreignKey);
+            }
+            statement.execute("ALTER TABLE visits MODIFY start_date_time DATETIME(6) NOT NULL, " +
+                    "DROP PRIMARY KEY, ADD PRIMARY KEY (id, start_date_time)");
+
+            YearMonth current = YearMonth.now();
+            YearMonth first = firstMonth(statement, current);
+            statement.execute("ALTER TABLE visits " +
+                    VisitPartitions.partitionBy(first, current.plusMonths(Integer.parseInt(monthsAhead))));
+        }
+    }
+
+    static void checkMaxDuration(Statement statement, Duration maxDuration) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery(
+                "SELECT MAX(TIMESTAMPDIFF(MICROSECOND, start_date_time, end_date_time)) FROM visits")) {
+            if (!resultSet.next()) {
+                return;
+            }
+            long longestMicros = resultSet.getLong(1);
+            if (!resultSet.wasNull() && longestMicros > maxDuration.toNanos() / 1000) {
+                throw new FlywayException("Visits longer than visittracking.visits.max-duration=" + maxDuration
+                        + " exist (longest " + Duration.ofNanos(longestMicros * 1000)
+                        + "), overlap checks on partitioned visits would miss them; "
+                        + "raise max-duration or fix the visits before enabling partitioning");
+            }
+        }
+    }
+
+    private static List<String> foreignKeys(Statement statement) throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery("SELECT CONSTRAINT_NAME " +
+                "FROM information_schema.REFERENTIAL_CONSTRAINTS " +
+                "WHERE CONSTRAINT_SCHEMA = DATABASE() AND TABLE_NAME = 'visits'")) {
+            while (resultSet.next()) {
+                names.add(resultSet.getString(1));
+            }
+        }
+        return names;
+    }
+
+    private static YearMonth firstMonth(Statement statement, YearMonth current) throws SQLException {
+        try (ResultSet resultSet = statement.executeQuery("SELECT MIN(start_date_time) FROM visits")) {
+            if (resultSet.next() && resultSet.getTimestamp(1) != null) {
+                YearMonth first = YearMonth.from(resultSet.getTimestamp(1).toLocalDateTime());
+                return first.isBefore(current) ? first : current;
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.visittracking.outbox;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.entity.OutboxEvent;
+import com.example.visittracking.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Периодически забирает неопубликованные события outbox и публикует их внутри своей транзакции.
+ * Слушатели вызываются синхронно до коммита отметки о публикации: событие, на котором слушатель
+ * упал, остается неопубликованным, поэтому доставка не реже одного раза и слушатели должны быть
+ * идемпотентны.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Component
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final VisitTrackingProperties.Outbox properties;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository, ApplicationEventPublisher eventPublisher,
+                       ObjectMapper objectMapper, TransactionTemplate transactionTemplate,
+                       VisitTrackingProperties properties) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties.getOutbox();
+    }
+
+    @Scheduled(fixedDelayString = "${visittracking.outbox.poll-interval:500ms}")
+    public void poll() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            // Разбираем накопившиеся события пакетами, пока очередь не опустеет.
+            // Пакет с неудачными событиями откладывает повтор до следующего опроса.
+            while (relay() == properties.getBatchSize()) {
+                logger.debug("Outbox batch relayed, polling next batch");
+            }
+        } catch (RuntimeException e) {
+            logger.error("Outbox relay failed", e);
+        }
+    }
+
+    /**
+     * Публикует один пакет событий в отдельной транзакции.
+     *
+     * @return количество опубликованных событий, без событий с ошибкой
+     */
+    public int relay() {
+        Integer relayed = transactionTemplate.execute(status -> relayBatch());
+        return relayed == null ? 0 : relayed;
+    }
+
+    @Scheduled(fixedDelayString = "${visittracking.outbox.cleanup-interval:1h}")
+    public void cleanup() {
+        Integer deleted = transactionTemplate.execute(status -> outboxEventRepository.deletePublishedBefore(
+                LocalDateTime.now().minus(properties.getRetention())));
+        if (deleted != null && deleted > 0) {
+            logger.info("Outbox cleanup: deleted={}", deleted);
+        }
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> events = outboxEventRepository.lockUnpublished(
+                properties.getBatchSize(), properties.getMaxAttempts());
+        if (events.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            try {
+                eventPublisher.publishEvent(toMessage(event));
+                ids.add(event.getId());
+            } catch (RuntimeException e) {
+                recordFailure(event, e);
+            }
+        }
+        if (!ids.isEmpty()) {
+            outboxEventRepository.markPublished(ids, LocalDateTime.now());
+        }
+        return ids.size();
+    }
+
+    private Object toMessage(OutboxEvent event) {
+        if (!VisitsCreatedMessage.EVENT_TYPE.equals(event.getEventType())) {
+            throw new IllegalStateException("Unknown outbox event type: " + event.getEventType());
+        }
+        try {
+            return objectMapper.readValue(event.getPayload(), VisitsCreatedMessage.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable outbox payload: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * Событие остается неопубликованным: ретранслятор повторит его в следующих пакетах,
+     * пока не будет исчерпано visittracking.outbox.max-attempts.
+     */
+    private void recordFailure(OutboxEvent event, RuntimeException e) {
+        int attempts = event.getAttempts() + 1;
+        if (attempts >= properties.getMaxAttempts()) {
+            logger.error("Outbox event abandoned after {} attempts: id={}, type={}",
+                    attempts, event.getId(), event.getEventType(), e);
+        } else {
+            logger.warn("Outbox event failed: id={}, type={}, attempt={}",
+                    event.getId(), event.getEventType(), attempts, e);
+        }
+        outboxEventRepository.recordFailure(event.getId(), abbreviate(String.valueOf(e.getMessage())));
+    }
+
+    private static String abbreviate(String error) {
+        return error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH);
+    }
+}
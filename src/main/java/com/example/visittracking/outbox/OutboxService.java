@@ -0,0 +1,59 @@
+package com.example.visittracking.outbox;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.entity.OutboxEvent;
+import com.example.visittracking.entity.Visit;
+import com.example.visittracking.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Запись событий в таблицу outbox_events в транзакции, изменяющей данные.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Service
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final VisitTrackingProperties.Outbox properties;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper,
+                         VisitTrackingProperties properties) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.properties = properties.getOutbox();
+    }
+
+    /**
+     * Записывает одно событие на все визиты транзакции. Визиты должны быть уже сохранены.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void visitsCreated(List<Visit> visits) {
+        if (!properties.isEnabled() || visits.isEmpty()) {
+            return;
+        }
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(VisitsCreatedMessage.EVENT_TYPE);
+        event.setPayload(toJson(VisitsCreatedMessage.of(visits)));
+        event.setCreatedAt(LocalDateTime.now());
+        outboxEventRepository.save(event);
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize outbox payload", e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.visittracking.outbox;
+
+import com.example.visittracking.entity.Visit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Визиты, созданные в одной транзакции. Публикуется ретранслятором outbox в его транзакции
+ * и обрабатывается синхронными слушателями {@code @EventListener}.
+ *
+ * @author Pavel Zhurenkov
+ */
+public record VisitsCreatedMessage(List<CreatedVisit> visits) {
+
+    public static final String EVENT_TYPE = "VisitsCreated";
+
+    public static VisitsCreatedMessage of(List<Visit> visits) {
+        return new VisitsCreatedMessage(visits.stream()
+                .map(visit -> new CreatedVisit(visit.getId(), visit.getPatient().getId(), visit.getDoctor().getId(),
+                        visit.getStartDateTime(), visit.getEndDateTime()))
+                .toList());
+    }
+
+    public record CreatedVisit(Integer visitId, Integer patientId, Integer doctorId,
+                               LocalDateTime start, LocalDateTime end) {
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.visittracking.repository;
+
+import com.example.visittracking.entity.DoctorPatientStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+@Repository
+public interface DoctorPatientStatsRepository extends JpaRepository<DoctorPatientStats, Integer> {
+
+    /**
+     * @return 1, если пациент пришел к врачу впервые, иначе 0
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO doctor_patients (doctor_id, patient_id, first_visit_date_time) " +
+            "VALUES (:doctorId, :patientId, :firstVisitDateTime)", nativeQuery = true)
+    int insertDoctorPatientIfAbsent(
+            @Param("doctorId") Integer doctorId,
+            @Param("patientId") Integer patientId,
+            @Param("firstVisitDateTime") LocalDateTime firstVisitDateTime);
+
+    @Modifying
+    @Query(value = "INSERT INTO doctor_patient_stats (doctor_id, total_patients) VALUES (:doctorId, :increment) " +
+            "ON DUPLICATE KEY UPDATE total_patients = total_patients + :increment", nativeQuery = true)
+    void incrementTotalPatients(@Param("doctorId") Integer doctorId, @Param("increment") long increment);
+
+    /**
+     * Отмечает пары врач-пациент по визитам врачей с ID от {@code fromDoctorId} до {@code toDoctorId}.
+     * Условие по doctor_id ограничивает чтение диапазоном индекса visits.
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO doctor_patients (doctor_id, patient_id, first_visit_date_time) " +
+            "SELECT doctor_id, patient_id, MIN(start_date_time) FROM visits " +
+            "WHERE doctor_id BETWEEN :fromDoctorId AND :toDoctorId GROUP BY doctor_id, patient_id",
+            nativeQuery = true)
+    int backfillDoctorPatients(@Param("fromDoctorId") Integer fromDoctorId, @Param("toDoctorId") Integer toDoctorId);
+
+    @Modifying
+    @Query(value = "REPLACE INTO doctor_patient_stats (doctor_id, total_patients) " +
+            "SELECT doctor_id, COUNT(*) FROM doctor_patients " +
+            "WHERE doctor_id BETWEEN :fromDoctorId AND :toDoctorId GROUP BY doctor_id", nativeQuery = true)
+    int rebuildTotalPatients(@Param("fromDoctorId") Integer fromDoctorId, @Param("toDoctorId") Integer toDoctorId);
+}
@@ -1,13 +1,28 @@
 package com.example.visittracking.repository;
 
 import com.example.visittracking.entity.Doctor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 /**
  * @author Pavel Zhurenkov
  */
 
 @Repository
 public interface DoctorRepository extends JpaRepository<Doctor, Integer> {
+
+    /**
+     * Блокирует строки врачей до конца транзакции. Строки блокируются в порядке первичного ключа.
+     */
+    @Query(value = "SELECT id FROM doctors WHERE id IN (:doctorIds) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Integer> lockByIds(@Param("doctorIds") Collection<Integer> doctorIds);
+
+    @Query("SELECT d.id FROM Doctor d WHERE d.id > :afterId ORDER BY d.id")
+    List<Integer> findIdsAfter(@Param("afterId") Integer afterId, Limit limit);
 }
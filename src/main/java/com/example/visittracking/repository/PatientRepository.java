@@ -1,12 +1,26 @@
 package com.example.visittracking.repository;
 
 import com.example.visittracking.entity.Patient;
+import com.example.visittracking.repository.projection.PatientNameVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 /**
  * @author Pavel Zhurenkov
  */
 @Repository
 public interface PatientRepository extends JpaRepository<Patient, Integer> {
+
+    @Query("SELECT p.id AS id, p.firstName AS firstName, p.lastName AS lastName, p.updatedAt AS updatedAt " +
+            "FROM Patient p")
+    List<PatientNameVersion> findAllNames();
+
+    @Query("SELECT p.id AS id, p.firstName AS firstName, p.lastName AS lastName, p.updatedAt AS updatedAt " +
+            "FROM Patient p WHERE p.updatedAt >= :since")
+    List<PatientNameVersion> findNamesChangedSince(@Param("since") LocalDateTime since);
 }
@@ -2,33 +2,71 @@ package com.example.visittracking.repository;
 
 import com.example.visittracking.entity.Patient;
 import com.example.visittracking.entity.Visit;
+import com.example.visittracking.repository.projection.DoctorPatientCount;
+import com.example.visittracking.repository.projection.DoctorVisitInterval;
+import com.example.visittracking.repository.projection.PatientLastVisit;
+import com.example.visittracking.repository.projection.PatientName;
+import com.example.visittracking.repository.projection.VisitInterval;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 /**
  * @author Pavel Zhurenkov
  */
 @Repository
-public interface VisitRepository extends JpaRepository<Visit, Integer> {
+public interface VisitRepository extends JpaRepository<Visit, Integer>, VisitRepositoryCustom {
 
+    /**
+     * Интервалы пересекаются, если каждый начинается не позже конца другого; касание границами
+     * считается пересечением. Условие по диапазону читается из индекса (doctor_id, start_date_time, end_date_time).
+     * <p>
+     * {@code earliestStart} — начало нового визита минус максимальная длительность визита, см.
+     * {@link com.example.visittracking.archive.VisitPartitions#earliestOverlappingStart}. Передается только
+     * при партиционировании, чтобы MySQL отсек старые партиции; null снимает ограничение.
+     */
     @Query("SELECT v FROM Visit v " +
             "WHERE v.doctor.id = :doctorId " +
-            "AND (:startDateTime BETWEEN v.startDateTime AND v.endDateTime " +
-            "OR :endDateTime BETWEEN v.startDateTime AND v.endDateTime " +
-            "OR v.startDateTime BETWEEN :startDateTime AND :endDateTime)")
+            "AND (:earliestStart IS NULL OR v.startDateTime >= :earliestStart) " +
+            "AND v.startDateTime <= :endDateTime " +
+            "AND v.endDateTime >= :startDateTime")
     Optional<Visit> findOverlappingVisit(
             @Param("doctorId") Integer doctorId,
+            @Param("earliestStart") LocalDateTime earliestStart,
             @Param("startDateTime") LocalDateTime startDateTime,
             @Param("endDateTime") LocalDateTime endDateTime);
 
+    @Query("SELECT v.startDateTime AS startDateTime, v.endDateTime AS endDateTime FROM Visit v " +
+            "WHERE v.doctor.id = :doctorId AND v.startDateTime >= :from")
+    List<VisitInterval> findVisitIntervalsByDoctorIdStartingFrom(@Param("doctorId") Integer doctorId,
+                                                                 @Param("from") LocalDateTime from);
+
+    @Query("SELECT v.doctor.id AS doctorId, v.startDateTime AS startDateTime, v.endDateTime AS endDateTime " +
+            "FROM Visit v " +
+            "WHERE v.doctor.id IN :doctorIds " +
+            "AND (:earliestStart IS NULL OR v.startDateTime >= :earliestStart) " +
+            "AND v.startDateTime <= :to AND v.endDateTime >= :from")
+    List<DoctorVisitInterval> findVisitIntervalsByDoctorIdsInRange(
+            @Param("doctorIds") Collection<Integer> doctorIds,
+            @Param("earliestStart") LocalDateTime earliestStart,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
     @Query("SELECT DISTINCT v.patient FROM Visit v WHERE v.doctor.id IN :doctorIds")
     List<Patient> findPatientsByDoctorIds(@Param("doctorIds") List<Integer> doctorIds);
 
@@ -42,6 +80,66 @@ public interface VisitRepository extends JpaRepository<Visit, Integer> {
             @Param("doctorIds") List<Integer> doctorIds,
             Pageable pageable);
 
+    /**
+     * Потоковое чтение визитов для выгрузки. Поток необходимо закрыть, вызывать внутри транзакции.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT v FROM Visit v " +
+            "JOIN FETCH v.patient p " +
+            "JOIN FETCH v.doctor d " +
+            "WHERE (:search IS NULL OR " +
+            "(p.firstName LIKE %:search% OR p.lastName LIKE %:search%)) " +
+            "AND (:doctorIds IS NULL OR d.id IN :doctorIds) " +
+            "AND (:patientIds IS NULL OR p.id IN :patientIds OR p.updatedAt >= :changedSince) " +
+            "ORDER BY p.lastName, p.firstName, p.id, v.startDateTime")
+    Stream<Visit> streamVisitsWithFilters(
+            @Param("search") String search,
+            @Param("doctorIds") List<Integer> doctorIds,
+            @Param("patientIds") List<Integer> patientIds,
+            @Param("changedSince") LocalDateTime changedSince);
+
+    @Query("SELECT v FROM Visit v " +
+            "JOIN FETCH v.patient p " +
+            "JOIN FETCH v.doctor d " +
+            "WHERE (:search IS NULL OR " +
+            "(p.firstName LIKE %:search% OR p.lastName LIKE %:search%)) " +
+            "AND (:doctorIds IS NULL OR d.id IN :doctorIds) " +
+            "AND (:patientIds IS NULL OR p.id IN :patientIds OR p.updatedAt >= :changedSince) " +
+            "ORDER BY p.lastName, p.firstName")
+    List<Visit> findVisitsWithFiltersFetched(
+            @Param("search") String search,
+            @Param("doctorIds") List<Integer> doctorIds,
+            @Param("patientIds") List<Integer> patientIds,
+            @Param("changedSince") LocalDateTime changedSince,
+            Pageable pageable);
+
+    @Query("SELECT v FROM Visit v " +
+            "JOIN FETCH v.patient p " +
+            "JOIN FETCH v.doctor d " +
+            "WHERE (:search IS NULL OR " +
+            "(p.firstName LIKE %:search% OR p.lastName LIKE %:search%)) " +
+            "AND (:doctorIds IS NULL OR d.id IN :doctorIds) " +
+            "AND (:patientIds IS NULL OR p.id IN :patientIds OR p.updatedAt >= :changedSince) " +
+            "AND (:lastName IS NULL " +
+            "OR p.lastName > :lastName " +
+            "OR (p.lastName = :lastName AND p.firstName > :firstName) " +
+            "OR (p.lastName = :lastName AND p.firstName = :firstName AND p.id > :patientId) " +
+            "OR (p.lastName = :lastName AND p.firstName = :firstName AND p.id = :patientId AND v.id > :visitId)) " +
+            "ORDER BY p.lastName, p.firstName, p.id, v.id")
+    List<Visit> findVisitsWithFiltersAfter(
+            @Param("search") String search,
+            @Param("doctorIds") List<Integer> doctorIds,
+            @Param("patientIds") List<Integer> patientIds,
+            @Param("changedSince") LocalDateTime changedSince,
+            @Param("lastName") String lastName,
+            @Param("firstName") String firstName,
+            @Param("patientId") Integer patientId,
+            @Param("visitId") Integer visitId,
+            Limit limit);
+
     @Query("SELECT COUNT(DISTINCT v.patient) FROM Visit v " +
             "WHERE (:search IS NULL OR " +
             "(v.patient.firstName LIKE %:search% OR v.patient.lastName LIKE %:search%)) " +
@@ -50,9 +148,74 @@ public interface VisitRepository extends JpaRepository<Visit, Integer> {
             @Param("search") String search,
             @Param("doctorIds") List<Integer> doctorIds);
 
+    @Query("SELECT COUNT(DISTINCT v.patient) FROM Visit v " +
+            "WHERE (:search IS NULL OR " +
+            "(v.patient.firstName LIKE %:search% OR v.patient.lastName LIKE %:search%)) " +
+            "AND (:doctorIds IS NULL OR v.doctor.id IN :doctorIds) " +
+            "AND (:patientIds IS NULL OR v.patient.id IN :patientIds " +
+            "OR v.patient.updatedAt >= :changedSince)")
+    Long countPatientsWithFilters(
+            @Param("search") String search,
+            @Param("doctorIds") List<Integer> doctorIds,
+            @Param("patientIds") List<Integer> patientIds,
+            @Param("changedSince") LocalDateTime changedSince);
+
+    @Query("SELECT p.id AS id, p.firstName AS firstName, p.lastName AS lastName FROM Patient p " +
+            "WHERE (:search IS NULL OR " +
+            "(p.firstName LIKE %:search% OR p.lastName LIKE %:search%)) " +
+            "AND (:patientIds IS NULL OR p.id IN :patientIds OR p.updatedAt >= :changedSince) " +
+            "AND EXISTS (SELECT v.id FROM Visit v WHERE v.patient = p " +
+            "AND (:doctorIds IS NULL OR v.doctor.id IN :doctorIds)) " +
+            "ORDER BY p.lastName, p.firstName, p.id")
+    List<PatientName> findPatientsWithFilters(
+            @Param("search") String search,
+            @Param("doctorIds") List<Integer> doctorIds,
+            @Param("patientIds") List<Integer> patientIds,
+            @Param("changedSince") LocalDateTime changedSince,
+            Pageable pageable);
+
+    /**
+     * Последние визиты пациентов, начавшиеся не раньше {@code since}. При включенном архиве
+     * {@code since} — горизонт архивации, и запрос читает только горячие партиции.
+     */
+    @Query(value = "SELECT t.patient_id AS patientId, t.start_date_time AS startDateTime, " +
+            "t.end_date_time AS endDateTime, t.doctor_id AS doctorId, " +
+            "d.first_name AS doctorFirstName, d.last_name AS doctorLastName " +
+            "FROM (SELECT v.id, v.patient_id, v.doctor_id, v.start_date_time, v.end_date_time, " +
+            "ROW_NUMBER() OVER (PARTITION BY v.patient_id ORDER BY v.start_date_time DESC, v.id DESC) AS rn " +
+            "FROM visits v WHERE v.patient_id IN (:patientIds) AND v.start_date_time >= :since) t " +
+            "JOIN doctors d ON d.id = t.doctor_id " +
+            "WHERE t.rn <= :limit " +
+            "ORDER BY t.patient_id, t.rn", nativeQuery = true)
+    List<PatientLastVisit> findLastVisitsByPatientIds(
+            @Param("patientIds") Collection<Integer> patientIds,
+            @Param("since") LocalDateTime since,
+            @Param("limit") int limit);
+
+    @Query(value = "SELECT t.patient_id AS patientId, t.start_date_time AS startDateTime, " +
+            "t.end_date_time AS endDateTime, t.doctor_id AS doctorId, " +
+            "d.first_name AS doctorFirstName, d.last_name AS doctorLastName " +
+            "FROM (SELECT v.id, v.patient_id, v.doctor_id, v.start_date_time, v.end_date_time, " +
+            "ROW_NUMBER() OVER (PARTITION BY v.patient_id ORDER BY v.start_date_time DESC, v.id DESC) AS rn " +
+            "FROM visits v WHERE v.patient_id IN (:patientIds) AND v.doctor_id IN (:doctorIds) " +
+            "AND v.start_date_time >= :since) t " +
+            "JOIN doctors d ON d.id = t.doctor_id " +
+            "WHERE t.rn <= :limit " +
+            "ORDER BY t.patient_id, t.rn", nativeQuery = true)
+    List<PatientLastVisit> findLastVisitsByPatientIdsAndDoctorIds(
+            @Param("patientIds") Collection<Integer> patientIds,
+            @Param("doctorIds") Collection<Integer> doctorIds,
+            @Param("since") LocalDateTime since,
+            @Param("limit") int limit);
+
     @Query("SELECT v FROM Visit v WHERE v.patient.id = :patientId ORDER BY v.startDateTime DESC")
     List<Visit> findVisitsByPatientId(@Param("patientId") Integer patientId);
 
     @Query("SELECT COUNT(DISTINCT v.patient) FROM Visit v WHERE v.doctor.id = :doctorId")
     Long countTotalPatientsByDoctorId(@Param("doctorId") Integer doctorId);
+
+    @Query("SELECT v.doctor.id AS doctorId, COUNT(DISTINCT v.patient.id) AS totalPatients FROM Visit v " +
+            "WHERE v.doctor.id IN :doctorIds " +
+            "GROUP BY v.doctor.id")
+    List<DoctorPatientCount> countTotalPatientsByDoctorIds(@Param("doctorIds") Collection<Integer> doctorIds);
 }
@@ -0,0 +1,25 @@
+package com.example.visittracking.repository;
+
+import com.example.visittracking.entity.Visit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+public interface VisitRepositoryCustom {
+
+    /**
+     * Вставляет визиты пакетами JDBC и проставляет им сгенерированные идентификаторы.
+     */
+    List<Visit> insertAll(List<Visit> visits);
+
+    /**
+     * Переносит в visits_archive не более {@code limit} самых старых визитов, начавшихся раньше {@code cutoff}.
+     * Строки, заблокированные другими транзакциями, пропускаются. Вызывать внутри транзакции.
+     *
+     * @return количество перенесенных визитов
+     */
+    int archiveVisitsBefore(LocalDateTime cutoff, int limit);
+}
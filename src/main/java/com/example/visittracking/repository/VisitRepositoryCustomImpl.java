@@ -0,0 +1,99 @@
+package com.example.visittracking.repository;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.entity.Visit;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+public class VisitRepositoryCustomImpl implements VisitRepositoryCustom {
+
+    private static final String INSERT_VISIT_SQL =
+            "INSERT INTO visits (start_date_time, end_date_time, patient_id, doctor_id) VALUES (?, ?, ?, ?)";
+
+    private static final String LOCK_ARCHIVE_CANDIDATES_SQL =
+            "SELECT id FROM visits WHERE start_date_time < ? ORDER BY start_date_time LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final int batchSize;
+
+    public VisitRepositoryCustomImpl(JdbcTemplate jdbcTemplate, VisitTrackingProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = properties.getBatch().getJdbcBatchSize();
+    }
+
+    @Override
+    public List<Visit> insertAll(List<Visit> visits) {
+        for (int from = 0; from < visits.size(); from += batchSize) {
+            insertChunk(visits.subList(from, Math.min(from + batchSize, visits.size())));
+        }
+        return visits;
+    }
+
+    @Override
+    public int archiveVisitsBefore(LocalDateTime cutoff, int limit) {
+        Timestamp before = Timestamp.valueOf(cutoff);
+        List<Integer> ids = jdbcTemplate.queryForList(LOCK_ARCHIVE_CANDIDATES_SQL, Integer.class, before, limit);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        // Условие по start_date_time оставляет в плане только старые партиции
+        String where = " FROM visits WHERE start_date_time < ? AND id IN ("
+                + String.join(", ", Collections.nCopies(ids.size(), "?")) + ")";
+        Object[] args = new Object[ids.size() + 1];
+        args[0] = before;
+        for (int i = 0; i < ids.size(); i++) {
+            args[i + 1] = ids.get(i);
+        }
+
+        Object[] insertArgs = new Object[args.length + 1];
+        insertArgs[0] = Timestamp.valueOf(LocalDateTime.now());
+        System.arraycopy(args, 0, insertArgs, 1, args.length);
+        jdbcTemplate.update("INSERT INTO visits_archive " +
+                "(archived_at, id, start_date_time, end_date_time, patient_id, doctor_id) " +
+                "SELECT ?, id, start_date_time, end_date_time, patient_id, doctor_id" + where, insertArgs);
+        return jdbcTemplate.update("DELETE" + where, args);
+    }
+
+    private void insertChunk(List<Visit> chunk) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement(INSERT_VISIT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Visit visit = chunk.get(i);
+                        ps.setTimestamp(1, Timestamp.valueOf(visit.getStartDateTime()));
+                        ps.setTimestamp(2, Timestamp.valueOf(visit.getEndDateTime()));
+                        ps.setInt(3, visit.getPatient().getId());
+                        ps.setInt(4, visit.getDoctor().getId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return chunk.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < chunk.size() && i < keys.size(); i++) {
+            Object key = keys.get(i).values().iterator().next();
+            chunk.get(i).setId(((Number) key).intValue());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.visittracking.repository.projection;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+public interface DoctorPatientCount {
+
+    Integer getDoctorId();
+
+    Long getTotalPatients();
+}
@@ -0,0 +1,9 @@
+package com.example.visittracking.repository.projection;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+public interface DoctorVisitInterval extends VisitInterval {
+
+    Integer getDoctorId();
+}
@@ -0,0 +1,15 @@
+package com.example.visittracking.repository.projection;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+public interface PatientLastVisit extends VisitInterval {
+
+    Integer getPatientId();
+
+    Integer getDoctorId();
+
+    String getDoctorFirstName();
+
+    String getDoctorLastName();
+}
@@ -0,0 +1,13 @@
+package com.example.visittracking.repository.projection;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+public interface PatientName {
+
+    Integer getId();
+
+    String getFirstName();
+
+    String getLastName();
+}
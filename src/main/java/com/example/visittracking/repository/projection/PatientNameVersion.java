@@ -0,0 +1,13 @@
+package com.example.visittracking.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Имя пациента и время последнего изменения строки.
+ *
+ * @author Pavel Zhurenkov
+ */
+public interface PatientNameVersion extends PatientName {
+
+    LocalDateTime getUpdatedAt();
+}
@@ -0,0 +1,13 @@
+package com.example.visittracking.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+public interface VisitInterval {
+
+    LocalDateTime getStartDateTime();
+
+    LocalDateTime getEndDateTime();
+}
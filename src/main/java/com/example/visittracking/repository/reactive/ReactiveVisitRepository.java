@@ -0,0 +1,115 @@
+package com.example.visittracking.repository.reactive;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Чтение визитов через R2DBC с теми же фильтрами, что у
+ * {@link com.example.visittracking.repository.VisitRepository#findVisitsWithFiltersFetched} и
+ * {@link com.example.visittracking.repository.VisitRepository#countPatientsWithFilters(String, List, List)}.
+ * Пустой список в фильтре не ограничивает выборку.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Repository
+@ConditionalOnProperty(prefix = "visittracking.reactive", name = "enabled", havingValue = "true")
+public class ReactiveVisitRepository {
+
+    private static final String SELECT_VISITS_SQL =
+            "SELECT v.id, v.start_date_time, v.end_date_time, " +
+                    "p.id AS patient_id, p.first_name AS patient_first_name, p.last_name AS patient_last_name, " +
+                    "d.id AS doctor_id, d.first_name AS doctor_first_name, d.last_name AS doctor_last_name " +
+                    "FROM visits v " +
+                    "JOIN patients p ON p.id = v.patient_id " +
+                    "JOIN doctors d ON d.id = v.doctor_id";
+
+    private static final String COUNT_PATIENTS_SQL =
+            "SELECT COUNT(DISTINCT v.patient_id) FROM visits v " +
+                    "JOIN patients p ON p.id = v.patient_id";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveVisitRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Визиты в порядке фамилии, имени и ID пациента: визиты одного пациента идут подряд.
+     */
+    public Flux<VisitRow> findVisitsWithFilters(String search, List<Integer> doctorIds, List<Integer> patientIds,
+                                                LocalDateTime changedSince, Pageable pageable) {
+        StringBuilder sql = new StringBuilder(SELECT_VISITS_SQL);
+        Map<String, Object> params = new LinkedHashMap<>();
+        appendFilters(sql, params, search, doctorIds, patientIds, changedSince);
+        sql.append(" ORDER BY p.last_name, p.first_name, p.id, v.id");
+        if (pageable.isPaged()) {
+            sql.append(" LIMIT :limit OFFSET :offset");
+            params.put("limit", pageable.getPageSize());
+            params.put("offset", pageable.getOffset());
+        }
+
+        return bind(databaseClient.sql(sql.toString()), params)
+                .map((row, metadata) -> new VisitRow(
+                        row.get("id", Integer.class),
+                        row.get("patient_id", Integer.class),
+                        row.get("patient_first_name", String.class),
+                        row.get("patient_last_name", String.class),
+                        row.get("start_date_time", LocalDateTime.class),
+                        row.get("end_date_time", LocalDateTime.class),
+                        row.get("doctor_id", Integer.class),
+                        row.get("doctor_first_name", String.class),
+                        row.get("doctor_last_name", String.class)))
+                .all();
+    }
+
+    public Mono<Long> countPatientsWithFilters(String search, List<Integer> doctorIds, List<Integer> patientIds,
+                                               LocalDateTime changedSince) {
+        StringBuilder sql = new StringBuilder(COUNT_PATIENTS_SQL);
+        Map<String, Object> params = new LinkedHashMap<>();
+        appendFilters(sql, params, search, doctorIds, patientIds, changedSince);
+
+        return bind(databaseClient.sql(sql.toString()), params)
+                .map((row, metadata) -> row.get(0, Long.class))
+                .one();
+    }
+
+    private static void appendFilters(StringBuilder sql, Map<String, Object> params, String search,
+                                      List<Integer> doctorIds, List<Integer> patientIds,
+                                      LocalDateTime changedSince) {
+        String keyword = " WHERE ";
+        if (search != null) {
+            sql.append(keyword).append("(p.first_name LIKE :search OR p.last_name LIKE :search)");
+            params.put("search", "%" + search + "%");
+            keyword = " AND ";
+        }
+        if (doctorIds != null && !doctorIds.isEmpty()) {
+            // Коллекция раскрывается DatabaseClient в список параметров
+            sql.append(keyword).append("v.doctor_id IN (:doctorIds)");
+            params.put("doctorIds", doctorIds);
+            keyword = " AND ";
+        }
+        if (patientIds != null && !patientIds.isEmpty()) {
+            // Пациенты, измененные после загрузки индекса, проверяются только LIKE
+            sql.append(keyword).append("(v.patient_id IN (:patientIds) OR p.updated_at >= :changedSince)");
+            params.put("patientIds", patientIds);
+            params.put("changedSince", changedSince);
+        }
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec,
+                                                          Map<String, Object> params) {
+        for (Map.Entry<String, Object> param : params.entrySet()) {
+            spec = spec.bind(param.getKey(), param.getValue());
+        }
+        return spec;
+    }
+}
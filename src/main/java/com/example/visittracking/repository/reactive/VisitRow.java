@@ -0,0 +1,19 @@
+package com.example.visittracking.repository.reactive;
+
+import java.time.LocalDateTime;
+
+/**
+ * Визит вместе с пациентом и врачом, строка результата {@link ReactiveVisitRepository}.
+ *
+ * @author Pavel Zhurenkov
+ */
+public record VisitRow(Integer visitId,
+                       Integer patientId,
+                       String patientFirstName,
+                       String patientLastName,
+                       LocalDateTime startDateTime,
+                       LocalDateTime endDateTime,
+                       Integer doctorId,
+                       String doctorFirstName,
+                       String doctorLastName) {
+}
@@ -0,0 +1,257 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.archive.VisitPartitions;
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.dto.CacheStatsDto;
+import com.example.visittracking.dto.DoctorAvailabilityResponse;
+import com.example.visittracking.dto.FreeSlotDto;
+import com.example.visittracking.entity.Visit;
+import com.example.visittracking.exception.custom.DateTimeNotValidException;
+import com.example.visittracking.exception.custom.ResourceNotFoundException;
+import com.example.visittracking.listener.VisitCreatedEvent;
+import com.example.visittracking.repository.VisitRepository;
+import com.example.visittracking.repository.projection.DoctorVisitInterval;
+import com.example.visittracking.util.DateTimeCodec;
+import com.example.visittracking.util.SlotBitmap;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Свободное время врача по дням. Занятость дня хранится битмапом слотов длиной
+ * {@code visittracking.availability.slot-minutes}, загружается из visits одним запросом
+ * и дополняется созданными визитами после коммита.
+ * <p>
+ * Слот — закрытый интервал [начало, конец] и занят, если касается визита: так же пересечение
+ * проверяется при создании визита. Поэтому любой визит внутри свободного интервала будет принят,
+ * если его не опередит другой запрос.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Service
+public class DoctorAvailabilityService implements MeterBinder {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    private final VisitRepository visitRepository;
+
+    private final ReferenceDataCache referenceDataCache;
+
+    private final Cache<DayKey, SlotBitmap> cache;
+
+    private final int slotMinutes;
+
+    private final int slotsPerDay;
+
+    private final long slotSeconds;
+
+    private final VisitTrackingProperties properties;
+
+    public DoctorAvailabilityService(VisitRepository visitRepository, ReferenceDataCache referenceDataCache,
+                                     VisitTrackingProperties properties) {
+        VisitTrackingProperties.Availability availability = properties.getAvailability();
+        this.slotMinutes = availability.getSlotMinutes();
+        if (slotMinutes <= 0 || MINUTES_PER_DAY % slotMinutes != 0) {
+            throw new IllegalStateException(
+                    "visittracking.availability.slot-minutes must divide 1440, got " + slotMinutes);
+        }
+        this.visitRepository = visitRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.slotsPerDay = MINUTES_PER_DAY / slotMinutes;
+        this.slotSeconds = slotMinutes * 60L;
+        this.properties = properties;
+        long ttlNanos = availability.getExpireAfterWrite().toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(availability.getMaximumSize())
+                // Срок отсчитывается от загрузки из БД: отметки новых визитов его не продлевают
+                .expireAfter(new Expiry<DayKey, SlotBitmap>() {
+                    @Override
+                    public long expireAfterCreate(DayKey key, SlotBitmap value, long currentTime) {
+                        return ttlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(DayKey key, SlotBitmap value, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(DayKey key, SlotBitmap value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * @param date день в часовом поясе врача в формате yyyy-MM-dd; null — сегодня
+     */
+    public DoctorAvailabilityResponse getAvailability(Integer doctorId, String date) {
+        String timezone = referenceDataCache.getDoctorTimezone(doctorId)
+                .orElseThrow(() -> new ResourceNotFoundException("Doctor not found", HttpStatus.NOT_FOUND.value()));
+        ZoneId zone = DateTimeCodec.zone(timezone);
+        LocalDate day = parseDate(date, zone);
+
+        SlotBitmap busy = cache.get(new DayKey(doctorId, day), key -> load(key, zone));
+
+        LocalDateTime dayStart = day.atStartOfDay();
+        List<FreeSlotDto> freeSlots = new ArrayList<>();
+        int slot = busy.nextClear(0);
+        while (slot < slotsPerDay) {
+            int end = busy.nextSet(slot);
+            FreeSlotDto freeSlot = new FreeSlotDto();
+            freeSlot.setStart(format(dayStart.plusMinutes((long) slot * slotMinutes), zone));
+            freeSlot.setEnd(format(dayStart.plusMinutes((long) end * slotMinutes), zone));
+            freeSlots.add(freeSlot);
+            slot = busy.nextClear(end);
+        }
+
+        DoctorAvailabilityResponse response = new DoctorAvailabilityResponse();
+        response.setDoctorId(doctorId);
+        response.setDate(day.toString());
+        response.setTimezone(timezone);
+        response.setSlotMinutes(slotMinutes);
+        response.setFreeSlots(freeSlots);
+        return response;
+    }
+
+    @EventListener
+    public void onVisitCreated(VisitCreatedEvent event) {
+        List<Visit> visits = event.getVisits();
+        if (visits.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    visits.forEach(DoctorAvailabilityService.this::markCached);
+                }
+            });
+        } else {
+            visits.forEach(this::markCached);
+        }
+    }
+
+    public CacheStatsDto getStats() {
+        CacheStats stats = cache.stats();
+        CacheStatsDto dto = new CacheStatsDto();
+        dto.setName("doctorAvailability");
+        dto.setSize(cache.estimatedSize());
+        dto.setHitCount(stats.hitCount());
+        dto.setMissCount(stats.missCount());
+        dto.setHitRate(stats.hitRate());
+        dto.setEvictionCount(stats.evictionCount());
+        return dto;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "doctorAvailability");
+    }
+
+    private SlotBitmap load(DayKey key, ZoneId zone) {
+        LocalDateTime dayStart = key.date().atStartOfDay();
+        LocalDateTime dayEnd = dayStart.plusDays(1);
+        SlotBitmap busy = new SlotBitmap(slotsPerDay);
+        markNonexistentTime(busy, dayStart, dayEnd, zone);
+        LocalDateTime earliestStart = VisitPartitions.earliestOverlappingStart(properties, dayStart);
+        for (DoctorVisitInterval interval : visitRepository.findVisitIntervalsByDoctorIdsInRange(
+                Set.of(key.doctorId()), earliestStart, dayStart, dayEnd)) {
+            mark(busy, dayStart, interval.getStartDateTime(), interval.getEndDateTime());
+        }
+        return busy;
+    }
+
+    /**
+     * Отмечает визит в закэшированных днях, которых он касается. Загрузка дня, идущая в этот момент,
+     * завершается раньше: Caffeine выполняет загрузку и изменение одного ключа последовательно.
+     */
+    private void markCached(Visit visit) {
+        Integer doctorId = visit.getDoctor().getId();
+        LocalDateTime start = visit.getStartDateTime();
+        LocalDateTime end = visit.getEndDateTime();
+        // Визит с начала суток касается последнего слота предыдущего дня
+        LocalDate last = end.toLocalDate();
+        for (LocalDate day = start.minusMinutes(slotMinutes).toLocalDate(); !day.isAfter(last); day = day.plusDays(1)) {
+            LocalDateTime dayStart = day.atStartOfDay();
+            cache.asMap().computeIfPresent(new DayKey(doctorId, day), (key, busy) -> {
+                SlotBitmap updated = busy.copy();
+                mark(updated, dayStart, start, end);
+                return updated;
+            });
+        }
+    }
+
+    /**
+     * Слот i — [i * L, (i + 1) * L] — касается визита [start, end], если (i + 1) * L >= start и i * L <= end.
+     */
+    private void mark(SlotBitmap busy, LocalDateTime dayStart, LocalDateTime start, LocalDateTime end) {
+        long from = Duration.between(dayStart, start).getSeconds();
+        long to = Duration.between(dayStart, end).getSeconds();
+        busy.set(toSlot(-Math.floorDiv(-from, slotSeconds) - 1), toSlot(Math.floorDiv(to, slotSeconds)));
+    }
+
+    /**
+     * При переходе на летнее время часть суток не существует, визит на нее создать нельзя.
+     */
+    private void markNonexistentTime(SlotBitmap busy, LocalDateTime dayStart, LocalDateTime dayEnd, ZoneId zone) {
+        ZoneRules rules = zone.getRules();
+        ZoneOffsetTransition transition = rules.nextTransition(dayStart.atZone(zone).toInstant());
+        while (transition != null && transition.getDateTimeBefore().isBefore(dayEnd)) {
+            if (transition.isGap()) {
+                long from = Duration.between(dayStart, transition.getDateTimeBefore()).getSeconds();
+                long to = Duration.between(dayStart, transition.getDateTimeAfter()).getSeconds();
+                busy.set(toSlot(-Math.floorDiv(-from, slotSeconds)), toSlot(-Math.floorDiv(-to, slotSeconds) - 1));
+            }
+            transition = rules.nextTransition(transition.getInstant());
+        }
+    }
+
+    private int toSlot(long slot) {
+        return (int) Math.max(-1, Math.min(slot, slotsPerDay));
+    }
+
+    private LocalDate parseDate(String date, ZoneId zone) {
+        if (date == null || date.isBlank()) {
+            return LocalDate.now(zone);
+        }
+        try {
+            return LocalDate.parse(date);
+        } catch (DateTimeParseException e) {
+            throw new DateTimeNotValidException("Date must be in yyyy-MM-dd format", HttpStatus.BAD_REQUEST.value());
+        }
+    }
+
+    private static String format(LocalDateTime dateTime, ZoneId zone) {
+        return ZonedDateTime.of(dateTime, zone).toOffsetDateTime().toString();
+    }
+
+    private record DayKey(Integer doctorId, LocalDate date) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.exception.custom.ConflictResourceException;
+import com.example.visittracking.repository.DoctorRepository;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Блокировка расписания врачей на время транзакции бронирования. Внутри процесса врачи
+ * распределяются по фиксированному набору замков, между экземплярами приложения запись
+ * сериализуется блокировкой строки врача ({@code SELECT ... FOR UPDATE}). Замки берутся
+ * в порядке возрастания, чтобы пакеты с пересекающимися врачами не блокировали друг друга
+ * взаимно, и освобождаются после завершения транзакции.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Component
+public class DoctorBookingLock {
+
+    private final DoctorRepository doctorRepository;
+
+    private final VisitTrackingProperties.BookingLock properties;
+
+    private final ReentrantLock[] stripes;
+
+    public DoctorBookingLock(DoctorRepository doctorRepository, VisitTrackingProperties properties) {
+        this.doctorRepository = doctorRepository;
+        this.properties = properties.getBookingLock();
+        int count = this.properties.getStripes();
+        if (count < 1 || Integer.bitCount(count) != 1) {
+            throw new IllegalArgumentException("Stripe count must be a power of two: " + count);
+        }
+        this.stripes = new ReentrantLock[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Блокирует расписание врачей до конца текущей транзакции.
+     *
+     * @throws ConflictResourceException если замок не получен за {@code lock-timeout}
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void lock(Collection<Integer> doctorIds) {
+        if (!properties.isEnabled() || doctorIds.isEmpty()) {
+            return;
+        }
+        TreeSet<Integer> stripeIndexes = new TreeSet<>();
+        for (Integer doctorId : doctorIds) {
+            stripeIndexes.add(stripeIndex(doctorId));
+        }
+
+        List<ReentrantLock> acquired = new ArrayList<>(stripeIndexes.size());
+        // Освобождение регистрируется до захвата, чтобы замки не остались занятыми при любом исходе
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                for (int i = acquired.size() - 1; i >= 0; i--) {
+                    acquired.get(i).unlock();
+                }
+            }
+        });
+        long timeoutNanos = properties.getLockTimeout().toNanos();
+        for (Integer index : stripeIndexes) {
+            ReentrantLock stripe = stripes[index];
+            if (!tryLock(stripe, timeoutNanos)) {
+                throw new ConflictResourceException("Doctor schedule is being updated, retry later",
+                        HttpStatus.CONFLICT.value());
+            }
+            acquired.add(stripe);
+        }
+
+        if (properties.isDatabase()) {
+            doctorRepository.lockByIds(new TreeSet<>(doctorIds));
+        }
+    }
+
+    private int stripeIndex(Integer doctorId) {
+        int hash = doctorId.hashCode();
+        return (hash ^ (hash >>> 16)) & (stripes.length - 1);
+    }
+
+    private static boolean tryLock(ReentrantLock lock, long timeoutNanos) {
+        try {
+            return lock.tryLock(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
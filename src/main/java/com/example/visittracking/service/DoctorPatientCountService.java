@@ -0,0 +1,115 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.dto.CacheStatsDto;
+import com.example.visittracking.listener.VisitCreatedEvent;
+import com.example.visittracking.repository.VisitRepository;
+import com.example.visittracking.repository.projection.DoctorPatientCount;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Количество уникальных пациентов врача с кэшем в памяти.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Service
+public class DoctorPatientCountService implements MeterBinder {
+
+    private final VisitRepository visitRepository;
+
+    private final DoctorPatientStatsService doctorPatientStatsService;
+
+    private final Cache<Integer, Long> cache;
+
+    private final boolean enabled;
+
+    public DoctorPatientCountService(VisitRepository visitRepository,
+                                     DoctorPatientStatsService doctorPatientStatsService,
+                                     VisitTrackingProperties properties) {
+        VisitTrackingProperties.DoctorCountCache cacheProperties = properties.getDoctorCountCache();
+        this.visitRepository = visitRepository;
+        this.doctorPatientStatsService = doctorPatientStatsService;
+        this.enabled = cacheProperties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheProperties.getMaximumSize())
+                .expireAfterWrite(cacheProperties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+    }
+
+    public Map<Integer, Long> getTotalPatients(Set<Integer> doctorIds) {
+        if (doctorIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        if (!enabled) {
+            return loadTotalPatients(doctorIds);
+        }
+        return cache.getAll(doctorIds, this::loadTotalPatients);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "doctorPatientCounts");
+    }
+
+    public CacheStatsDto getStats() {
+        CacheStats stats = cache.stats();
+        CacheStatsDto dto = new CacheStatsDto();
+        dto.setName("doctorPatientCounts");
+        dto.setSize(cache.estimatedSize());
+        dto.setHitCount(stats.hitCount());
+        dto.setMissCount(stats.missCount());
+        dto.setHitRate(stats.hitRate());
+        dto.setEvictionCount(stats.evictionCount());
+        return dto;
+    }
+
+    @EventListener
+    public void onVisitCreated(VisitCreatedEvent event) {
+        Set<Integer> doctorIds = event.getDoctorIds();
+        cache.invalidateAll(doctorIds);
+
+        // Повторно сбрасываем после завершения транзакции: за время до коммита
+        // другой запрос мог закэшировать старое значение
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidateAll(doctorIds);
+                }
+            });
+        }
+    }
+
+    private Map<Integer, Long> loadTotalPatients(Collection<? extends Integer> doctorIds) {
+        Map<Integer, Long> counts;
+        if (doctorPatientStatsService.isEnabled()) {
+            // Чтение готовых счетчиков по первичному ключу
+            counts = doctorPatientStatsService.getTotalPatients(doctorIds);
+        } else {
+            counts = new HashMap<>();
+            for (DoctorPatientCount count : visitRepository.countTotalPatientsByDoctorIds(Set.copyOf(doctorIds))) {
+                counts.put(count.getDoctorId(), count.getTotalPatients());
+            }
+        }
+        // Врачи без визитов тоже кэшируются, чтобы не запрашивать их повторно
+        for (Integer doctorId : doctorIds) {
+            counts.putIfAbsent(doctorId, 0L);
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.dto.DoctorStatsBackfillDto;
+import com.example.visittracking.entity.DoctorPatientId;
+import com.example.visittracking.entity.DoctorPatientStats;
+import com.example.visittracking.entity.Visit;
+import com.example.visittracking.exception.custom.RequestNotValidException;
+import com.example.visittracking.repository.DoctorPatientStatsRepository;
+import com.example.visittracking.repository.DoctorRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Ведение таблицы doctor_patient_stats в транзакции создания визита.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Service
+public class DoctorPatientStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DoctorPatientStatsService.class);
+
+    private static final Comparator<DoctorPatientId> DOCTOR_PATIENT_ORDER =
+            Comparator.comparing(DoctorPatientId::getDoctorId).thenComparing(DoctorPatientId::getPatientId);
+
+    private final DoctorPatientStatsRepository statsRepository;
+
+    private final DoctorRepository doctorRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final VisitTrackingProperties.DoctorStats properties;
+
+    public DoctorPatientStatsService(DoctorPatientStatsRepository statsRepository,
+                                     DoctorRepository doctorRepository,
+                                     TransactionTemplate transactionTemplate,
+                                     VisitTrackingProperties properties) {
+        this.statsRepository = statsRepository;
+        this.doctorRepository = doctorRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties.getDoctorStats();
+    }
+
+    public boolean isEnabled() {
+        return properties.getSource() == VisitTrackingProperties.DoctorStatsSource.TABLE;
+    }
+
+    /**
+     * Отмечает новые пары врач-пациент и увеличивает счетчики врачей.
+     * Вызывается в транзакции, сохраняющей визиты.
+     */
+    public void recordVisits(Collection<Visit> visits) {
+        if (!isEnabled()) {
+            return;
+        }
+        // Пары и счетчики обновляются в порядке ID врача и пациента: параллельные транзакции
+        // берут блокировки строк в одном порядке и не блокируют друг друга взаимно
+        Map<DoctorPatientId, LocalDateTime> pairs = new TreeMap<>(DOCTOR_PATIENT_ORDER);
+        for (Visit visit : visits) {
+            pairs.merge(new DoctorPatientId(visit.getDoctor().getId(), visit.getPatient().getId()),
+                    visit.getStartDateTime(), (a, b) -> a.isBefore(b) ? a : b);
+        }
+
+        Map<Integer, Long> increments = new TreeMap<>();
+        for (Map.Entry<DoctorPatientId, LocalDateTime> pair : pairs.entrySet()) {
+            DoctorPatientId id = pair.getKey();
+            int inserted = statsRepository.insertDoctorPatientIfAbsent(id.getDoctorId(), id.getPatientId(),
+                    pair.getValue());
+            if (inserted > 0) {
+                increments.merge(id.getDoctorId(), 1L, Long::sum);
+            }
+        }
+        increments.forEach(statsRepository::incrementTotalPatients);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<Integer, Long> getTotalPatients(Collection<? extends Integer> doctorIds) {
+        Map<Integer, Long> counts = new HashMap<>();
+        for (DoctorPatientStats stats : statsRepository.findAllById(new ArrayList<>(doctorIds))) {
+            counts.put(stats.getDoctorId(), stats.getTotalPatients());
+        }
+        return counts;
+    }
+
+    /**
+     * Разово заполняет doctor_patients и doctor_patient_stats по visits, например при переходе на
+     * source=table с существующими визитами. Врачи обрабатываются пакетами по {@code backfill-batch-size}
+     * в порядке ID, каждый пакет в своей транзакции под блокировкой строк врачей пакета:
+     * запрос читает визиты только этих врачей, и бронирования остальных врачей не ждут. Замки
+     * {@link DoctorBookingLock} внутри процесса не берутся: замок общий для многих врачей, и на время
+     * пакета он останавливал бы бронирования врачей, не входящих в пакет.
+     */
+    public DoctorStatsBackfillDto backfill() {
+        if (!isEnabled()) {
+            throw new RequestNotValidException("Doctor stats source is not table", HttpStatus.BAD_REQUEST.value());
+        }
+        DoctorStatsBackfillDto result = new DoctorStatsBackfillDto();
+        int batchSize = properties.getBackfillBatchSize();
+        Integer afterId = 0;
+        List<Integer> doctorIds;
+        do {
+            doctorIds = doctorRepository.findIdsAfter(afterId, Limit.of(batchSize));
+            if (doctorIds.isEmpty()) {
+                break;
+            }
+            result.setNewPairs(result.getNewPairs() + backfillBatch(doctorIds));
+            result.setDoctors(result.getDoctors() + doctorIds.size());
+            afterId = doctorIds.get(doctorIds.size() - 1);
+        } while (doctorIds.size() == batchSize);
+
+        logger.info("Doctor patient stats rebuilt: newPairs={}, doctors={}", result.getNewPairs(), result.getDoctors());
+        return result;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (isEnabled() && properties.isBackfillOnStartup()) {
+            backfill();
+        }
+    }
+
+    /**
+     * @param doctorIds ID врачей по возрастанию
+     * @return количество новых пар врач-пациент
+     */
+    private int backfillBatch(List<Integer> doctorIds) {
+        Integer inserted = transactionTemplate.execute(status -> {
+            // Бронирование берет ту же блокировку строки врача (booking-lock.database) и ждет конца пакета,
+            // поэтому пересчет не расходится с recordVisits
+            doctorRepository.lockByIds(doctorIds);
+            Integer from = doctorIds.get(0);
+            Integer to = doctorIds.get(doctorIds.size() - 1);
+            int pairs = statsRepository.backfillDoctorPatients(from, to);
+            statsRepository.rebuildTotalPatients(from, to);
+            return pairs;
+        });
+        return inserted == null ? 0 : inserted;
+    }
+}
@@ -1,9 +1,15 @@
 package com.example.visittracking.service;
 
+import com.example.visittracking.entity.Visit;
 import com.example.visittracking.listener.UserActionEvent;
+import com.example.visittracking.listener.VisitCreatedEvent;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 
 /**
  * @author Pavel Zhurenkov
@@ -18,10 +24,25 @@ public class EventGenerationService {
         this.eventPublisher = eventPublisher;
     }
 
-    public void createVisitEvent(){
-        UserActionEvent event = new UserActionEvent(
+    public void createVisitEvent(Set<Integer> doctorIds){
+        UserActionEvent event = new VisitCreatedEvent(
+                this,
+                "Created visits successfully",
+                Set.copyOf(doctorIds)
+        );
+        eventPublisher.publishEvent(event);
+    }
+
+    public void createVisitEvent(List<Visit> visits) {
+        Set<Integer> doctorIds = new HashSet<>();
+        for (Visit visit : visits) {
+            doctorIds.add(visit.getDoctor().getId());
+        }
+        UserActionEvent event = new VisitCreatedEvent(
                 this,
-                "Created visits successfully"
+                "Created visits successfully",
+                Set.copyOf(doctorIds),
+                List.copyOf(visits)
         );
         eventPublisher.publishEvent(event);
     }
@@ -0,0 +1,81 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Supplier;
+
+/**
+ * Параллельное выполнение независимых запросов на отдельном ограниченном пуле.
+ * Каждый запрос выполняется в собственной транзакции только для чтения. Если очередь пула
+ * заполнена, запрос выполняется в вызывающем потоке. Без fan-out те же запросы выполняются
+ * последовательно в одной транзакции через {@link #inReadOnlyTransaction(Supplier)}.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Component
+public class ParallelQueryRunner implements DisposableBean {
+
+    private final VisitTrackingProperties.FanOut properties;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final ThreadPoolTaskExecutor executor;
+
+    public ParallelQueryRunner(PlatformTransactionManager transactionManager, VisitTrackingProperties properties) {
+        this.properties = properties.getFanOut();
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        this.executor = new ThreadPoolTaskExecutor();
+        this.executor.setCorePoolSize(this.properties.getPoolSize());
+        this.executor.setMaxPoolSize(this.properties.getPoolSize());
+        this.executor.setQueueCapacity(this.properties.getQueueCapacity());
+        this.executor.setThreadNamePrefix("query-");
+        this.executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        if (this.properties.isEnabled()) {
+            this.executor.initialize();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public <T> CompletableFuture<T> supply(Supplier<T> query) {
+        return CompletableFuture.supplyAsync(() -> readOnlyTransaction.execute(status -> query.get()), executor);
+    }
+
+    /**
+     * Выполняет запросы в вызывающем потоке в одной транзакции только для чтения.
+     */
+    public <T> T inReadOnlyTransaction(Supplier<T> queries) {
+        return readOnlyTransaction.execute(status -> queries.get());
+    }
+
+    /**
+     * Ожидает результат и пробрасывает исключение запроса без обертки.
+     */
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+}
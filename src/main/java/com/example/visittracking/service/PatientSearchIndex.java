@@ -0,0 +1,188 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.entity.Patient;
+import com.example.visittracking.repository.PatientRepository;
+import com.example.visittracking.repository.projection.PatientNameVersion;
+import com.example.visittracking.util.NGramIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Поиск пациентов по подстроке имени или фамилии через индекс в памяти.
+ * Индекс заполняется при старте и обновляется после коммита изменений пациентов этим экземпляром.
+ * Пациенты, добавленные или переименованные другими экземплярами или вне приложения, догружаются
+ * по {@code patients.updated_at} раз в {@code refresh-interval}; удаленные убираются при полном пересчете
+ * раз в {@code rebuild-interval}. Индекс только сужает круг пациентов для LIKE: пациенты, измененные
+ * после загрузки индекса, проверяются запросом без него, поэтому отставание индекса не меняет результат.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Component
+public class PatientSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PatientSearchIndex.class);
+
+    /**
+     * Строка, измененная транзакцией, зафиксированной после загрузки индекса, может получить
+     * updated_at раньше уже загруженных строк. Граница изменений сдвигается назад на этот запас.
+     */
+    private static final Duration COMMIT_MARGIN = Duration.ofMinutes(1);
+
+    private final PatientRepository patientRepository;
+
+    private final VisitTrackingProperties.PatientSearch properties;
+
+    private volatile NGramIndex index = new NGramIndex();
+
+    private volatile boolean ready;
+
+    /**
+     * Наибольшее загруженное в индекс updated_at. Записывается после изменения индекса
+     * и читается до поиска по нему, поэтому граница никогда не опережает содержимое индекса.
+     */
+    private volatile LocalDateTime indexedUpdatedAt;
+
+    private long rebuiltAt;
+
+    public PatientSearchIndex(PatientRepository patientRepository, VisitTrackingProperties properties) {
+        this.patientRepository = patientRepository;
+        this.properties = properties.getPatientSearch();
+    }
+
+    @Transactional(readOnly = true)
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        rebuild();
+        ready = true;
+        logger.info("Patient search index warmed: patients={}", index.size());
+    }
+
+    /**
+     * Догружает пациентов, добавленных или измененных мимо этого экземпляра. Когда подходит
+     * время полного пересчета, индекс строится заново без удаленных пациентов.
+     */
+    @Transactional(readOnly = true)
+    @Scheduled(fixedDelayString = "${visittracking.patient-search.refresh-interval:1m}",
+            initialDelayString = "${visittracking.patient-search.refresh-interval:1m}")
+    public synchronized void refresh() {
+        if (!properties.isEnabled() || !ready) {
+            return;
+        }
+        if (System.nanoTime() - rebuiltAt >= properties.getRebuildInterval().toNanos()) {
+            rebuild();
+            return;
+        }
+        LocalDateTime since = changedSince();
+        List<PatientNameVersion> changed = since == null
+                ? patientRepository.findAllNames()
+                : patientRepository.findNamesChangedSince(since);
+        LocalDateTime updatedAt = indexedUpdatedAt;
+        for (PatientNameVersion patient : changed) {
+            index.put(patient.getId(), patient.getFirstName(), patient.getLastName());
+            updatedAt = latest(updatedAt, patient.getUpdatedAt());
+        }
+        indexedUpdatedAt = updatedAt;
+        logger.debug("Patient search index refreshed: changed={}", changed.size());
+    }
+
+    /**
+     * @return ID пациентов, подходящих под поиск по состоянию индекса, или пустой Optional,
+     * если индекс не сужает поиск
+     */
+    public Optional<List<Integer>> resolve(String search) {
+        if (!ready || search == null || search.indexOf('%') >= 0 || search.indexOf('_') >= 0) {
+            return Optional.empty();
+        }
+        BitSet ids = index.search(search);
+        // Без совпадений сужать нечего, под поиск могут попасть только измененные пациенты
+        if (ids.isEmpty() || ids.cardinality() > properties.getMaxIds()) {
+            return Optional.empty();
+        }
+        return Optional.of(ids.stream().boxed().toList());
+    }
+
+    /**
+     * Дополняет поиск по подстроке списком ID пациентов из индекса, если это возможно.
+     * LIKE сохраняется: пациент из индекса мог быть переименован, а пациенты, измененные после
+     * загрузки индекса, проходят мимо списка по {@code changedSince}.
+     */
+    public VisitFilter filter(String search, List<Integer> doctorIds) {
+        // Граница читается до поиска по индексу, см. indexedUpdatedAt
+        LocalDateTime since = changedSince();
+        if (since == null) {
+            return new VisitFilter(search, doctorIds, null, null);
+        }
+        return resolve(search)
+                .map(patientIds -> new VisitFilter(search, doctorIds, patientIds, since))
+                .orElseGet(() -> new VisitFilter(search, doctorIds, null, null));
+    }
+
+    public void onPatientSaved(Patient patient) {
+        afterCommit(() -> index.put(patient.getId(), patient.getFirstName(), patient.getLastName()));
+    }
+
+    public void onPatientRemoved(Patient patient) {
+        afterCommit(() -> index.remove(patient.getId()));
+    }
+
+    /**
+     * Строит новый индекс по таблице и подменяет им текущий, поиск на время построения не блокируется.
+     */
+    private synchronized void rebuild() {
+        NGramIndex rebuilt = new NGramIndex();
+        LocalDateTime updatedAt = null;
+        for (PatientNameVersion patient : patientRepository.findAllNames()) {
+            rebuilt.put(patient.getId(), patient.getFirstName(), patient.getLastName());
+            updatedAt = latest(updatedAt, patient.getUpdatedAt());
+        }
+        index = rebuilt;
+        indexedUpdatedAt = updatedAt;
+        rebuiltAt = System.nanoTime();
+    }
+
+    /**
+     * @return граница, начиная с которой изменения пациентов могут отсутствовать в индексе,
+     * или null, если индекс пуст
+     */
+    private LocalDateTime changedSince() {
+        LocalDateTime updatedAt = indexedUpdatedAt;
+        return updatedAt == null ? null : updatedAt.minus(COMMIT_MARGIN);
+    }
+
+    private static LocalDateTime latest(LocalDateTime current, LocalDateTime candidate) {
+        return current == null || candidate.isAfter(current) ? candidate : current;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.dto.DoctorInfoDto;
+import com.example.visittracking.dto.LastVisitDto;
+import com.example.visittracking.dto.PatientVisitDto;
+import com.example.visittracking.repository.reactive.ReactiveVisitRepository;
+import com.example.visittracking.repository.reactive.VisitRow;
+import com.example.visittracking.util.DateTimeCodec;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Визиты пациентов потоком через R2DBC. Пациенты отдаются по мере чтения строк,
+ * следующая порция читается из БД по запросу подписчика.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Service
+@ConditionalOnProperty(prefix = "visittracking.reactive", name = "enabled", havingValue = "true")
+public class ReactivePatientVisitService {
+
+    private final ReactiveVisitRepository reactiveVisitRepository;
+
+    private final PatientSearchIndex patientSearchIndex;
+
+    private final DoctorPatientCountService doctorPatientCountService;
+
+    private final EventGenerationService eventGenerationService;
+
+    private final VisitTrackingProperties properties;
+
+    public ReactivePatientVisitService(ReactiveVisitRepository reactiveVisitRepository,
+                                       PatientSearchIndex patientSearchIndex,
+                                       DoctorPatientCountService doctorPatientCountService,
+                                       EventGenerationService eventGenerationService,
+                                       VisitTrackingProperties properties) {
+        this.reactiveVisitRepository = reactiveVisitRepository;
+        this.patientSearchIndex = patientSearchIndex;
+        this.doctorPatientCountService = doctorPatientCountService;
+        this.eventGenerationService = eventGenerationService;
+        this.properties = properties;
+    }
+
+    public Flux<PatientVisitDto> getPatientVisits(Pageable pageable, String search, List<Integer> doctorIds) {
+        VisitFilter filter = patientSearchIndex.filter(search, doctorIds);
+        return reactiveVisitRepository.findVisitsWithFilters(
+                        filter.search(), filter.doctorIds(), filter.patientIds(), filter.changedSince(), pageable)
+                // Визиты упорядочены по пациенту, поэтому визиты одного пациента идут подряд
+                .bufferUntilChanged(VisitRow::patientId)
+                .buffer(properties.getReactive().getBatchSize())
+                .concatMap(this::toPatientVisits)
+                .doOnComplete(eventGenerationService::getPatientVisitsEvent);
+    }
+
+    public Mono<Long> countPatients(String search, List<Integer> doctorIds) {
+        VisitFilter filter = patientSearchIndex.filter(search, doctorIds);
+        return reactiveVisitRepository.countPatientsWithFilters(
+                filter.search(), filter.doctorIds(), filter.patientIds(), filter.changedSince());
+    }
+
+    /**
+     * Количество пациентов врачей берется одним обращением на порцию пациентов. Промах кэша
+     * читает БД через JDBC, поэтому обращение выполняется вне потоков R2DBC.
+     */
+    private Flux<PatientVisitDto> toPatientVisits(List<List<VisitRow>> patients) {
+        Set<Integer> doctorIdSet = new HashSet<>();
+        for (List<VisitRow> visits : patients) {
+            for (VisitRow visit : visits) {
+                doctorIdSet.add(visit.doctorId());
+            }
+        }
+
+        return Mono.fromCallable(() -> doctorPatientCountService.getTotalPatients(doctorIdSet))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapIterable(doctorPatientCounts -> {
+                    List<PatientVisitDto> result = new ArrayList<>(patients.size());
+                    for (List<VisitRow> visits : patients) {
+                        result.add(toPatientVisitDto(visits, doctorPatientCounts));
+                    }
+                    return result;
+                });
+    }
+
+    private static PatientVisitDto toPatientVisitDto(List<VisitRow> visits, Map<Integer, Long> doctorPatientCounts) {
+        VisitRow first = visits.get(0);
+        PatientVisitDto dto = new PatientVisitDto();
+        dto.setFirstName(first.patientFirstName());
+        dto.setLastName(first.patientLastName());
+        dto.setLastVisits(new ArrayList<>(visits.size()));
+
+        for (VisitRow visit : visits) {
+            LastVisitDto lastVisitDto = new LastVisitDto();
+            lastVisitDto.setStart(DateTimeCodec.format(visit.startDateTime()));
+            lastVisitDto.setEnd(DateTimeCodec.format(visit.endDateTime()));
+
+            DoctorInfoDto doctorInfo = new DoctorInfoDto();
+            doctorInfo.setFirstName(visit.doctorFirstName());
+            doctorInfo.setLastName(visit.doctorLastName());
+            doctorInfo.setTotalPatients(doctorPatientCounts.get(visit.doctorId()));
+
+            lastVisitDto.setDoctor(doctorInfo);
+            dto.getLastVisits().add(lastVisitDto);
+        }
+        return dto;
+    }
+}
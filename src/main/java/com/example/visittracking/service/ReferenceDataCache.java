@@ -0,0 +1,163 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.dto.CacheStatsDto;
+import com.example.visittracking.entity.Doctor;
+import com.example.visittracking.entity.Patient;
+import com.example.visittracking.repository.DoctorRepository;
+import com.example.visittracking.repository.PatientRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Справочные данные, нужные при создании визита: часовой пояс врача и существование пациента.
+ * Отсутствующие записи не кэшируются. Изменения врачей и пациентов через JPA сбрасывают кэш,
+ * изменения в обход приложения становятся видны через {@code expire-after-write}.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Component
+public class ReferenceDataCache implements MeterBinder {
+
+    private final PatientRepository patientRepository;
+
+    private final DoctorRepository doctorRepository;
+
+    private final Cache<Integer, String> doctorTimezones;
+
+    private final Cache<Integer, Boolean> patients;
+
+    private final boolean enabled;
+
+    public ReferenceDataCache(PatientRepository patientRepository, DoctorRepository doctorRepository,
+                              VisitTrackingProperties properties) {
+        VisitTrackingProperties.ReferenceCache cacheProperties = properties.getReferenceCache();
+        this.patientRepository = patientRepository;
+        this.doctorRepository = doctorRepository;
+        this.enabled = cacheProperties.isEnabled();
+        this.doctorTimezones = Caffeine.newBuilder()
+                .maximumSize(cacheProperties.getMaximumSize())
+                .expireAfterWrite(cacheProperties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        this.patients = Caffeine.newBuilder()
+                .maximumSize(cacheProperties.getMaximumSize())
+                .expireAfterWrite(cacheProperties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+    }
+
+    public Optional<String> getDoctorTimezone(Integer doctorId) {
+        if (!enabled) {
+            return doctorRepository.findById(doctorId).map(Doctor::getTimezone);
+        }
+        return Optional.ofNullable(doctorTimezones.get(doctorId,
+                id -> doctorRepository.findById(id).map(Doctor::getTimezone).orElse(null)));
+    }
+
+    /**
+     * @return часовые пояса найденных врачей
+     */
+    public Map<Integer, String> getDoctorTimezones(Set<Integer> doctorIds) {
+        if (!enabled) {
+            return loadDoctorTimezones(doctorIds);
+        }
+        return doctorTimezones.getAll(doctorIds, this::loadDoctorTimezones);
+    }
+
+    public boolean patientExists(Integer patientId) {
+        if (!enabled) {
+            return patientRepository.existsById(patientId);
+        }
+        return patients.get(patientId, id -> patientRepository.existsById(id) ? Boolean.TRUE : null) != null;
+    }
+
+    /**
+     * @return ID найденных пациентов
+     */
+    public Set<Integer> getExistingPatients(Set<Integer> patientIds) {
+        if (!enabled) {
+            return loadExistingPatients(patientIds).keySet();
+        }
+        return patients.getAll(patientIds, this::loadExistingPatients).keySet();
+    }
+
+    public void evictDoctor(Integer doctorId) {
+        evict(doctorTimezones, doctorId);
+    }
+
+    public void evictPatient(Integer patientId) {
+        evict(patients, patientId);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, doctorTimezones, "doctorTimezones");
+        CaffeineCacheMetrics.monitor(registry, patients, "patients");
+    }
+
+    public CacheStatsDto getDoctorStats() {
+        return stats("doctorTimezones", doctorTimezones);
+    }
+
+    public CacheStatsDto getPatientStats() {
+        return stats("patients", patients);
+    }
+
+    private Map<Integer, String> loadDoctorTimezones(Collection<? extends Integer> doctorIds) {
+        Map<Integer, String> timezones = new HashMap<>();
+        for (Doctor doctor : doctorRepository.findAllById(Set.copyOf(doctorIds))) {
+            timezones.put(doctor.getId(), doctor.getTimezone());
+        }
+        return timezones;
+    }
+
+    private Map<Integer, Boolean> loadExistingPatients(Collection<? extends Integer> patientIds) {
+        Map<Integer, Boolean> existing = new HashMap<>();
+        for (Patient patient : patientRepository.findAllById(Set.copyOf(patientIds))) {
+            existing.put(patient.getId(), Boolean.TRUE);
+        }
+        return existing;
+    }
+
+    private static void evict(Cache<Integer, ?> cache, Integer id) {
+        if (id == null) {
+            return;
+        }
+        cache.invalidate(id);
+        // Повторно сбрасываем после завершения транзакции: до коммита другой запрос мог закэшировать старое значение
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(id);
+                }
+            });
+        }
+    }
+
+    private static CacheStatsDto stats(String name, Cache<Integer, ?> cache) {
+        CacheStats stats = cache.stats();
+        CacheStatsDto dto = new CacheStatsDto();
+        dto.setName(name);
+        dto.setSize(cache.estimatedSize());
+        dto.setHitCount(stats.hitCount());
+        dto.setMissCount(stats.missCount());
+        dto.setHitRate(stats.hitRate());
+        dto.setEvictionCount(stats.evictionCount());
+        return dto;
+    }
+}
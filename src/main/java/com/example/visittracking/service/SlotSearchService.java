@@ -0,0 +1,317 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.archive.VisitPartitions;
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.dto.SlotCandidateDto;
+import com.example.visittracking.dto.SlotSearchRequest;
+import com.example.visittracking.dto.SlotSearchResponse;
+import com.example.visittracking.exception.custom.DateTimeNotValidException;
+import com.example.visittracking.exception.custom.RequestNotValidException;
+import com.example.visittracking.exception.custom.ResourceNotFoundException;
+import com.example.visittracking.repository.VisitRepository;
+import com.example.visittracking.repository.projection.DoctorVisitInterval;
+import com.example.visittracking.repository.projection.VisitInterval;
+import com.example.visittracking.util.DateTimeCodec;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Поиск ближайшего свободного времени заданной длительности у любого из врачей.
+ * Визиты всех врачей в окне поиска загружаются одним запросом, затем расписания врачей
+ * просматриваются параллельно в {@link ForkJoinPool#commonPool()}.
+ * <p>
+ * Начало кандидата кратно {@code visittracking.availability.slot-minutes} от полуночи врача,
+ * как границы интервалов {@link DoctorAvailabilityService}. Кандидат не касается визитов:
+ * так же пересечение проверяется при создании визита.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Service
+public class SlotSearchService {
+
+    private static final Comparator<Candidate> EARLIEST_FIRST = Comparator
+            .comparing((Candidate candidate) -> candidate.start().toInstant())
+            .thenComparing(Candidate::doctorId);
+
+    private final VisitRepository visitRepository;
+
+    private final ReferenceDataCache referenceDataCache;
+
+    private final VisitTrackingProperties properties;
+
+    public SlotSearchService(VisitRepository visitRepository, ReferenceDataCache referenceDataCache,
+                             VisitTrackingProperties properties) {
+        this.visitRepository = visitRepository;
+        this.referenceDataCache = referenceDataCache;
+        this.properties = properties;
+    }
+
+    /**
+     * @return самое раннее свободное время каждого врача, отсортированное по началу; не более limit записей
+     */
+    public SlotSearchResponse findEarliestSlots(SlotSearchRequest request) {
+        VisitTrackingProperties.SlotSearch settings = properties.getSlotSearch();
+        Set<Integer> doctorIds = new LinkedHashSet<>(request.getDoctorIds());
+        if (doctorIds.size() > settings.getMaxDoctors()) {
+            throw new RequestNotValidException("Search must not include more than " + settings.getMaxDoctors()
+                    + " doctors", HttpStatus.BAD_REQUEST.value());
+        }
+        int limit = request.getLimit() != null ? request.getLimit() : settings.getDefaultLimit();
+        if (limit < 1 || limit > settings.getMaxLimit()) {
+            throw new RequestNotValidException("Limit must be between 1 and " + settings.getMaxLimit(),
+                    HttpStatus.BAD_REQUEST.value());
+        }
+
+        Duration duration = Duration.ofMinutes(request.getDurationMinutes());
+        Duration maxVisitDuration = properties.getVisits().getMaxDuration();
+        if (duration.isNegative() || duration.isZero()) {
+            throw new DateTimeNotValidException("Duration must be positive", HttpStatus.BAD_REQUEST.value());
+        }
+        if (duration.compareTo(maxVisitDuration) > 0) {
+            throw new DateTimeNotValidException("Visit must not be longer than " + maxVisitDuration,
+                    HttpStatus.BAD_REQUEST.value());
+        }
+        Instant from = parseInstant(request.getFrom());
+        Instant to = parseInstant(request.getTo());
+        if (!to.isAfter(from)) {
+            throw new DateTimeNotValidException("End time must be after start time", HttpStatus.BAD_REQUEST.value());
+        }
+        if (Duration.between(from, to).compareTo(settings.getMaxWindow()) > 0) {
+            throw new DateTimeNotValidException("Search window must not be longer than " + settings.getMaxWindow(),
+                    HttpStatus.BAD_REQUEST.value());
+        }
+
+        Map<Integer, String> timezones = referenceDataCache.getDoctorTimezones(doctorIds);
+        if (timezones.size() < doctorIds.size()) {
+            throw new ResourceNotFoundException("Doctor not found", HttpStatus.NOT_FOUND.value());
+        }
+
+        // Визиты хранятся в местном времени врача: окно запроса покрывает окна всех часовых поясов
+        DoctorSchedule[] schedules = new DoctorSchedule[doctorIds.size()];
+        LocalDateTime archiveHorizon = archiveHorizon();
+        LocalDateTime queryFrom = null;
+        LocalDateTime queryTo = null;
+        int index = 0;
+        for (Integer doctorId : doctorIds) {
+            String timezone = timezones.get(doctorId);
+            ZoneId zone = DateTimeCodec.zone(timezone);
+            LocalDateTime localFrom = LocalDateTime.ofInstant(from, zone);
+            LocalDateTime localTo = LocalDateTime.ofInstant(to, zone);
+            if (archiveHorizon != null && localFrom.isBefore(archiveHorizon)) {
+                localFrom = archiveHorizon;
+            }
+            schedules[index++] = new DoctorSchedule(doctorId, timezone, zone, localFrom, new ArrayList<>());
+            if (queryFrom == null || localFrom.isBefore(queryFrom)) {
+                queryFrom = localFrom;
+            }
+            if (queryTo == null || localTo.isAfter(queryTo)) {
+                queryTo = localTo;
+            }
+        }
+
+        Map<Integer, List<VisitInterval>> visitsByDoctor = new HashMap<>();
+        for (DoctorSchedule schedule : schedules) {
+            visitsByDoctor.put(schedule.doctorId(), schedule.visits());
+        }
+        for (DoctorVisitInterval interval : visitRepository.findVisitIntervalsByDoctorIdsInRange(
+                doctorIds, VisitPartitions.earliestOverlappingStart(properties, queryFrom), queryFrom, queryTo)) {
+            visitsByDoctor.get(interval.getDoctorId()).add(interval);
+        }
+
+        SearchTask task = new SearchTask(schedules, 0, schedules.length, to, duration,
+                properties.getAvailability().getSlotMinutes() * 60L, Math.max(1, settings.getParallelThreshold()));
+        List<Candidate> candidates = schedules.length > task.threshold
+                ? ForkJoinPool.commonPool().invoke(task)
+                : task.compute();
+        candidates.sort(EARLIEST_FIRST);
+
+        List<SlotCandidateDto> slots = new ArrayList<>(Math.min(limit, candidates.size()));
+        for (Candidate candidate : candidates.subList(0, Math.min(limit, candidates.size()))) {
+            SlotCandidateDto slot = new SlotCandidateDto();
+            slot.setDoctorId(candidate.doctorId());
+            slot.setTimezone(candidate.timezone());
+            slot.setStart(candidate.start().toOffsetDateTime().toString());
+            slot.setEnd(candidate.end().toOffsetDateTime().toString());
+            slots.add(slot);
+        }
+        SlotSearchResponse response = new SlotSearchResponse();
+        response.setSlots(slots);
+        return response;
+    }
+
+    /**
+     * Самое раннее начало свободного времени длительностью duration, которое начинается не раньше from
+     * и заканчивается не позже deadline.
+     * <p>
+     * Местное время переводится в секунды от 1970-01-01T00:00 без смещения: сутки кратны шагу слота,
+     * поэтому выравнивание от эпохи совпадает с выравниванием от полуночи. Доли секунды визитов
+     * отбрасываются, граница визита при этом только расширяется.
+     *
+     * @param visits      визиты врача в местном времени; несортированный список сортируется
+     * @param slotSeconds шаг начала кандидата от полуночи
+     * @return начало или null, если свободного времени в окне нет
+     */
+    static ZonedDateTime findEarliest(List<? extends VisitInterval> visits, ZoneId zone, LocalDateTime from,
+                                      Instant deadline, Duration duration, long slotSeconds) {
+        int size = visits.size();
+        long[] starts = new long[size];
+        long[] ends = new long[size];
+        if (!toSeconds(visits, starts, ends)) {
+            visits.sort(Comparator.comparing(VisitInterval::getStartDateTime));
+            toSeconds(visits, starts, ends);
+        }
+        long length = duration.getSeconds();
+        int next = 0;
+        long cursor = alignUp(toSeconds(from) + (from.getNano() > 0 ? 1 : 0), slotSeconds);
+        while (true) {
+            // Визиты отсортированы по началу: если первый не закончившийся визит начинается после кандидата,
+            // остальные тоже
+            while (next < size && ends[next] < cursor) {
+                next++;
+            }
+            // Пересечения проверяются в местном времени, часовой пояс нужен только кандидату без пересечений
+            long end = cursor + length;
+            if (next < size && end >= starts[next]) {
+                cursor = alignAfter(ends[next], slotSeconds);
+                continue;
+            }
+            LocalDateTime local = LocalDateTime.ofEpochSecond(cursor, 0, ZoneOffset.UTC);
+            ZonedDateTime start = ZonedDateTime.of(local, zone);
+            if (!start.toLocalDateTime().equals(local)) {
+                // Время в переходе на летнее время не существует
+                cursor = alignUp(toSeconds(start.toLocalDateTime()), slotSeconds);
+                continue;
+            }
+            ZonedDateTime zonedEnd = start.plus(duration);
+            if (zonedEnd.toInstant().isAfter(deadline)) {
+                return null;
+            }
+            // Внутри кандидата сменилось смещение: местный конец сдвигается
+            long localEnd = toSeconds(zonedEnd.toLocalDateTime());
+            if (localEnd == end || next == size || localEnd < starts[next]) {
+                return start;
+            }
+            cursor = alignAfter(ends[next], slotSeconds);
+        }
+    }
+
+    /**
+     * @return false, если визиты не отсортированы по началу
+     */
+    private static boolean toSeconds(List<? extends VisitInterval> visits, long[] starts, long[] ends) {
+        boolean sorted = true;
+        for (int i = 0; i < starts.length; i++) {
+            VisitInterval visit = visits.get(i);
+            starts[i] = toSeconds(visit.getStartDateTime());
+            ends[i] = toSeconds(visit.getEndDateTime());
+            if (i > 0 && starts[i] < starts[i - 1]) {
+                sorted = false;
+            }
+        }
+        return sorted;
+    }
+
+    private static long toSeconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static long alignUp(long seconds, long slotSeconds) {
+        return -Math.floorDiv(-seconds, slotSeconds) * slotSeconds;
+    }
+
+    private static long alignAfter(long seconds, long slotSeconds) {
+        return (Math.floorDiv(seconds, slotSeconds) + 1) * slotSeconds;
+    }
+
+    private LocalDateTime archiveHorizon() {
+        VisitTrackingProperties.Archive archive = properties.getArchive();
+        return archive.isEnabled() ? LocalDateTime.now().minus(archive.getHorizon()) : null;
+    }
+
+    private static Instant parseInstant(String text) {
+        try {
+            return ZonedDateTime.parse(text).toInstant();
+        } catch (DateTimeException e) {
+            throw new DateTimeNotValidException("Invalid date format", HttpStatus.BAD_REQUEST.value());
+        }
+    }
+
+    private record DoctorSchedule(Integer doctorId, String timezone, ZoneId zone, LocalDateTime from,
+                                  List<VisitInterval> visits) {
+    }
+
+    private record Candidate(Integer doctorId, String timezone, ZonedDateTime start, ZonedDateTime end) {
+    }
+
+    /**
+     * Делит врачей пополам, пока в части больше threshold врачей.
+     */
+    private static final class SearchTask extends RecursiveTask<List<Candidate>> {
+
+        private final DoctorSchedule[] schedules;
+
+        private final int from;
+
+        private final int to;
+
+        private final Instant deadline;
+
+        private final Duration duration;
+
+        private final long slotSeconds;
+
+        private final int threshold;
+
+        private SearchTask(DoctorSchedule[] schedules, int from, int to, Instant deadline, Duration duration,
+                           long slotSeconds, int threshold) {
+            this.schedules = schedules;
+            this.from = from;
+            this.to = to;
+            this.deadline = deadline;
+            this.duration = duration;
+            this.slotSeconds = slotSeconds;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected List<Candidate> compute() {
+            if (to - from <= threshold) {
+                List<Candidate> candidates = new ArrayList<>();
+                for (int i = from; i < to; i++) {
+                    DoctorSchedule schedule = schedules[i];
+                    ZonedDateTime start = findEarliest(schedule.visits(), schedule.zone(), schedule.from(),
+                            deadline, duration, slotSeconds);
+                    if (start != null) {
+                        candidates.add(new Candidate(schedule.doctorId(), schedule.timezone(), start,
+                                start.plus(duration)));
+                    }
+                }
+                return candidates;
+            }
+            int middle = (from + to) >>> 1;
+            SearchTask left = new SearchTask(schedules, from, middle, deadline, duration, slotSeconds, threshold);
+            left.fork();
+            List<Candidate> candidates = new SearchTask(schedules, middle, to, deadline, duration, slotSeconds,
+                    threshold).compute();
+            candidates.addAll(left.join());
+            return candidates;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.entity.Visit;
+import com.example.visittracking.exception.custom.RequestNotValidException;
+import org.springframework.http.HttpStatus;
+
+import java.io.*;
+import java.util.Base64;
+
+/**
+ * Позиция последнего визита страницы для постраничного вывода по ключу
+ * (lastName, firstName, patientId, visitId).
+ *
+ * @author Pavel Zhurenkov
+ */
+public record VisitCursor(String lastName, String firstName, Integer patientId, Integer visitId) {
+
+    private static final byte VERSION = 1;
+
+    public static VisitCursor of(Visit visit) {
+        return new VisitCursor(visit.getPatient().getLastName(), visit.getPatient().getFirstName(),
+                visit.getPatient().getId(), visit.getId());
+    }
+
+    /**
+     * @return позиция курсора или {@code null} для первой страницы
+     */
+    public static VisitCursor decode(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(token);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            if (in.readByte() != VERSION) {
+                throw new IOException("Unsupported cursor version");
+            }
+            VisitCursor cursor = new VisitCursor(in.readUTF(), in.readUTF(), in.readInt(), in.readInt());
+            if (in.available() > 0) {
+                throw new IOException("Unexpected cursor data");
+            }
+            return cursor;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new RequestNotValidException("Invalid cursor", HttpStatus.BAD_REQUEST.value());
+        }
+    }
+
+    public String encode() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(VERSION);
+            out.writeUTF(nullToEmpty(lastName));
+            out.writeUTF(nullToEmpty(firstName));
+            out.writeInt(patientId);
+            out.writeInt(visitId);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
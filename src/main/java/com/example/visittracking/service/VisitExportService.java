@@ -0,0 +1,114 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.dto.VisitExportDto;
+import com.example.visittracking.entity.Visit;
+import com.example.visittracking.repository.VisitRepository;
+import com.example.visittracking.util.DateTimeCodec;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Потоковая выгрузка визитов в формате NDJSON: по одной JSON-записи на строку.
+ * Визиты читаются курсором и не накапливаются ни в контексте персистентности, ни в памяти.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Service
+public class VisitExportService {
+
+    private final VisitRepository visitRepository;
+
+    private final PatientSearchIndex patientSearchIndex;
+
+    private final DoctorPatientCountService doctorPatientCountService;
+
+    private final EntityManager entityManager;
+
+    private final ObjectMapper objectMapper;
+
+    public VisitExportService(VisitRepository visitRepository, PatientSearchIndex patientSearchIndex,
+                              DoctorPatientCountService doctorPatientCountService,
+                              EntityManager entityManager, ObjectMapper objectMapper) {
+        this.visitRepository = visitRepository;
+        this.patientSearchIndex = patientSearchIndex;
+        this.doctorPatientCountService = doctorPatientCountService;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @return количество выгруженных визитов
+     */
+    @Transactional(readOnly = true)
+    public long exportVisits(String search, List<Integer> doctorIds, OutputStream out) {
+        VisitFilter filter = patientSearchIndex.filter(search, doctorIds);
+
+        // Количество пациентов врача запрашивается один раз за выгрузку
+        Map<Integer, Long> doctorPatientCounts = new HashMap<>();
+        long count = 0;
+        try (Stream<Visit> visits = visitRepository.streamVisitsWithFilters(
+                filter.search(), filter.doctorIds(), filter.patientIds(), filter.changedSince());
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+
+            Iterator<Visit> iterator = visits.iterator();
+            while (iterator.hasNext()) {
+                Visit visit = iterator.next();
+                writeVisit(generator, visit, doctorPatientCounts);
+                generator.writeRaw('\n');
+
+                // Прочитанные сущности больше не нужны, освобождаем контекст персистентности
+                entityManager.detach(visit);
+                entityManager.detach(visit.getPatient());
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return count;
+    }
+
+    /**
+     * Пишет строку в формате {@link VisitExportDto} напрямую в генератор, без промежуточного DTO и строк дат.
+     */
+    private void writeVisit(JsonGenerator generator, Visit visit, Map<Integer, Long> doctorPatientCounts)
+            throws IOException {
+        Integer doctorId = visit.getDoctor().getId();
+        Long totalPatients = doctorPatientCounts.computeIfAbsent(doctorId,
+                id -> doctorPatientCountService.getTotalPatients(Set.of(id)).get(id));
+
+        generator.writeStartObject();
+        generator.writeNumberField("patientId", visit.getPatient().getId());
+        generator.writeStringField("firstName", visit.getPatient().getFirstName());
+        generator.writeStringField("lastName", visit.getPatient().getLastName());
+        generator.writeFieldName("start");
+        DateTimeCodec.write(generator, visit.getStartDateTime());
+        generator.writeFieldName("end");
+        DateTimeCodec.write(generator, visit.getEndDateTime());
+        generator.writeObjectFieldStart("doctor");
+        generator.writeStringField("firstName", visit.getDoctor().getFirstName());
+        generator.writeStringField("lastName", visit.getDoctor().getLastName());
+        generator.writeFieldName("totalPatients");
+        if (totalPatients == null) {
+            generator.writeNull();
+        } else {
+            generator.writeNumber(totalPatients);
+        }
+        generator.writeEndObject();
+        generator.writeEndObject();
+    }
+}
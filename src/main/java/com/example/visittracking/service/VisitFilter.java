@@ -0,0 +1,15 @@
+package com.example.visittracking.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Фильтры выборки визитов. Если поиск сужен индексом, рядом с {@code search} передается
+ * {@code patientIds}: под LIKE проверяются только эти пациенты и пациенты, измененные
+ * начиная с {@code changedSince}, которых индекс мог еще не увидеть.
+ *
+ * @author Pavel Zhurenkov
+ */
+public record VisitFilter(String search, List<Integer> doctorIds, List<Integer> patientIds,
+                          LocalDateTime changedSince) {
+}
@@ -0,0 +1,119 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.entity.Visit;
+import com.example.visittracking.repository.VisitRepository;
+import com.example.visittracking.repository.projection.VisitInterval;
+import com.example.visittracking.util.IntervalSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Индекс занятого времени врачей в памяти. Расписание врача загружается из таблицы
+ * visits при первом обращении и дополняется визитами после коммита транзакции.
+ * Загружаются только визиты, начавшиеся не раньше {@code visittracking.visits.max-duration}
+ * до момента загрузки: прошлое расписание для новых бронирований почти не нужно, а его объем растет
+ * без ограничений.
+ * <p>
+ * Индекс неполон: в нем нет визитов других экземпляров, более ранних визитов и визитов, созданных
+ * в обход приложения. Блокировка {@link DoctorBookingLock} сериализует бронирования врача, но не
+ * наполняет индекс чужими визитами, поэтому найденное пересечение окончательно, а его отсутствие
+ * проверяется в БД.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Component
+public class VisitIntervalIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(VisitIntervalIndex.class);
+
+    private final Map<Integer, DoctorSchedule> schedules = new ConcurrentHashMap<>();
+
+    private final VisitRepository visitRepository;
+
+    private final VisitTrackingProperties.OverlapIndex properties;
+
+    private final VisitTrackingProperties.Visits visits;
+
+    public VisitIntervalIndex(VisitRepository visitRepository, VisitTrackingProperties properties) {
+        this.visitRepository = visitRepository;
+        this.properties = properties.getOverlapIndex();
+        this.visits = properties.getVisits();
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public boolean hasOverlap(Integer doctorId, LocalDateTime start, LocalDateTime end) {
+        DoctorSchedule schedule = schedules.computeIfAbsent(doctorId, id -> new DoctorSchedule());
+        if (!schedule.loaded) {
+            load(doctorId, schedule);
+        }
+        return schedule.intervals.overlaps(start, end);
+    }
+
+    /**
+     * Добавляет визит в индекс после успешного коммита текущей транзакции.
+     */
+    public void register(Visit visit) {
+        if (!isEnabled()) {
+            return;
+        }
+        Integer doctorId = visit.getDoctor().getId();
+        LocalDateTime start = visit.getStartDateTime();
+        LocalDateTime end = visit.getEndDateTime();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(doctorId, start, end);
+                }
+            });
+        } else {
+            add(doctorId, start, end);
+        }
+    }
+
+    private void add(Integer doctorId, LocalDateTime start, LocalDateTime end) {
+        // Расписание создается и для незагруженного врача: при загрузке снимок из БД
+        // объединится с визитами, закоммиченными после начала чтения
+        schedules.computeIfAbsent(doctorId, id -> new DoctorSchedule()).intervals.add(start, end);
+    }
+
+    private void load(Integer doctorId, DoctorSchedule schedule) {
+        // ReentrantLock вместо synchronized: ожидание запроса к БД не закрепляет виртуальный поток за несущим
+        schedule.loadLock.lock();
+        try {
+            if (schedule.loaded) {
+                return;
+            }
+            int count = 0;
+            LocalDateTime from = LocalDateTime.now().minus(visits.getMaxDuration());
+            for (VisitInterval interval : visitRepository.findVisitIntervalsByDoctorIdStartingFrom(doctorId, from)) {
+                schedule.intervals.add(interval.getStartDateTime(), interval.getEndDateTime());
+                count++;
+            }
+            schedule.loaded = true;
+            logger.debug("Overlap index warmed: doctorId={}, visits={}, segments={}",
+                    doctorId, count, schedule.intervals.size());
+        } finally {
+            schedule.loadLock.unlock();
+        }
+    }
+
+    private static class DoctorSchedule {
+        private final IntervalSet intervals = new IntervalSet();
+        private final ReentrantLock loadLock = new ReentrantLock();
+        private volatile boolean loaded;
+    }
+}
@@ -1,25 +1,37 @@
 package com.example.visittracking.service;
 
+import com.example.visittracking.archive.VisitPartitions;
+import com.example.visittracking.config.VisitTrackingProperties;
 import com.example.visittracking.dto.*;
-import com.example.visittracking.entity.Doctor;
-import com.example.visittracking.entity.Patient;
 import com.example.visittracking.entity.Visit;
 import com.example.visittracking.exception.custom.ConflictResourceException;
 import com.example.visittracking.exception.custom.DateTimeNotValidException;
+import com.example.visittracking.exception.custom.RequestNotValidException;
 import com.example.visittracking.exception.custom.ResourceNotFoundException;
+import com.example.visittracking.outbox.OutboxService;
 import com.example.visittracking.repository.DoctorRepository;
 import com.example.visittracking.repository.PatientRepository;
 import com.example.visittracking.repository.VisitRepository;
-import org.springframework.data.domain.Page;
+import com.example.visittracking.repository.projection.DoctorVisitInterval;
+import com.example.visittracking.repository.projection.PatientLastVisit;
+import com.example.visittracking.repository.projection.PatientName;
+import com.example.visittracking.util.DateTimeCodec;
+import com.example.visittracking.util.IntervalSet;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DateTimeException;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -29,6 +41,11 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class VisitTrackingService {
 
+    /**
+     * Минимальное значение DATETIME в MySQL: выборка без нижней границы.
+     */
+    private static final LocalDateTime NO_LOWER_BOUND = LocalDateTime.of(1000, 1, 1, 0, 0);
+
     private final PatientRepository patientRepository;
 
     private final DoctorRepository doctorRepository;
@@ -37,128 +54,484 @@ public class VisitTrackingService {
 
     private final EventGenerationService eventGenerationService;
 
+    private final VisitIntervalIndex visitIntervalIndex;
+
+    private final DoctorBookingLock doctorBookingLock;
+
+    private final ReferenceDataCache referenceDataCache;
+
+    private final DoctorPatientCountService doctorPatientCountService;
+
+    private final DoctorPatientStatsService doctorPatientStatsService;
+
+    private final PatientSearchIndex patientSearchIndex;
+
+    private final OutboxService outboxService;
+
+    private final ParallelQueryRunner parallelQueryRunner;
+
+    private final VisitTrackingProperties properties;
+
     public VisitTrackingService(PatientRepository patientRepository, DoctorRepository doctorRepository,
-                                VisitRepository visitRepository, EventGenerationService eventGenerationService) {
+                                VisitRepository visitRepository, EventGenerationService eventGenerationService,
+                                VisitIntervalIndex visitIntervalIndex,
+                                DoctorBookingLock doctorBookingLock,
+                                ReferenceDataCache referenceDataCache,
+                                DoctorPatientCountService doctorPatientCountService,
+                                DoctorPatientStatsService doctorPatientStatsService,
+                                PatientSearchIndex patientSearchIndex,
+                                OutboxService outboxService,
+                                ParallelQueryRunner parallelQueryRunner,
+                                VisitTrackingProperties properties) {
         this.patientRepository = patientRepository;
         this.doctorRepository = doctorRepository;
         this.visitRepository = visitRepository;
         this.eventGenerationService = eventGenerationService;
+        this.visitIntervalIndex = visitIntervalIndex;
+        this.doctorBookingLock = doctorBookingLock;
+        this.referenceDataCache = referenceDataCache;
+        this.doctorPatientCountService = doctorPatientCountService;
+        this.doctorPatientStatsService = doctorPatientStatsService;
+        this.patientSearchIndex = patientSearchIndex;
+        this.outboxService = outboxService;
+        this.parallelQueryRunner = parallelQueryRunner;
+        this.properties = properties;
     }
 
-    @Transactional
+    /**
+     * READ_COMMITTED: после ожидания блокировки врача проверка пересечений должна видеть
+     * визиты, закоммиченные другими транзакциями, а не снимок на момент первого чтения.
+     */
+    @Timed(value = "visittracking.visits.create", description = "Создание визита", histogram = true)
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public VisitResponse createVisit(CreateVisitRequest request) {
         // Валидация входных данных
         if (request.getPatientId() == null || request.getDoctorId() == null) {
             throw new IllegalArgumentException("Patient ID and Doctor ID are required");
         }
 
-        Patient patient = patientRepository.findById(request.getPatientId())
-                .orElseThrow(() -> new ResourceNotFoundException("Patient not found", HttpStatus.NOT_FOUND.value()));
+        if (!referenceDataCache.patientExists(request.getPatientId())) {
+            throw new ResourceNotFoundException("Patient not found", HttpStatus.NOT_FOUND.value());
+        }
 
-        Doctor doctor = doctorRepository.findById(request.getDoctorId())
+        String timezone = referenceDataCache.getDoctorTimezone(request.getDoctorId())
                 .orElseThrow(() -> new ResourceNotFoundException("Doctor not found",HttpStatus.NOT_FOUND.value()));
 
         // Парсинг дат
-        LocalDateTime startDateTime = parseDateTime(request.getStart(), doctor.getTimezone());
-        LocalDateTime endDateTime = parseDateTime(request.getEnd(), doctor.getTimezone());
+        LocalDateTime startDateTime = parseDateTime(request.getStart(), timezone);
+        LocalDateTime endDateTime = parseDateTime(request.getEnd(), timezone);
 
         if (startDateTime.isAfter(endDateTime)) {
             throw new DateTimeNotValidException("End time must be after start time", HttpStatus.BAD_REQUEST.value());
         }
+        if (VisitPartitions.exceedsMaxDuration(properties, startDateTime, endDateTime)) {
+            throw new DateTimeNotValidException("Visit must not be longer than " + maxVisitDuration(),
+                    HttpStatus.BAD_REQUEST.value());
+        }
+        if (isBeforeArchiveHorizon(startDateTime)) {
+            throw new DateTimeNotValidException("Visit must not start before the archive horizon",
+                    HttpStatus.BAD_REQUEST.value());
+        }
 
-        // Проверка пересечения времени
-        Optional<Visit> existingVisit = visitRepository.findOverlappingVisit(
-                doctor.getId(), startDateTime, endDateTime);
-
-        if (existingVisit.isPresent()) {
+        // Проверка пересечения и сохранение выполняются под блокировкой расписания врача
+        doctorBookingLock.lock(Set.of(request.getDoctorId()));
+        if (hasOverlappingVisit(request.getDoctorId(), startDateTime, endDateTime)) {
             throw new ConflictResourceException("Visit conflicts with existing visit", HttpStatus.CONFLICT.value());
         }
 
         Visit visit = new Visit();
         visit.setStartDateTime(startDateTime);
         visit.setEndDateTime(endDateTime);
-        visit.setPatient(patient);
-        visit.setDoctor(doctor);
-
-        eventGenerationService.createVisitEvent();
+        // Для внешних ключей достаточно ссылок, существование проверено выше
+        visit.setPatient(patientRepository.getReferenceById(request.getPatientId()));
+        visit.setDoctor(doctorRepository.getReferenceById(request.getDoctorId()));
 
         Visit savedVisit = visitRepository.save(visit);
+        visitIntervalIndex.register(savedVisit);
+        doctorPatientStatsService.recordVisits(List.of(savedVisit));
+        outboxService.visitsCreated(List.of(savedVisit));
+
+        // Событие публикуется только после успешного сохранения
+        eventGenerationService.createVisitEvent(List.of(savedVisit));
 
         return convertToResponse(savedVisit);
     }
 
-    public PatientVisitsResponse getPatientVisits(Pageable pageable, String search, List<Integer> doctorIds) {
-        // Получаем общее количество пациентов с учетом фильтров
-        Long totalPatients = visitRepository.countPatientsWithFilters(search, doctorIds);
+    @Timed(value = "visittracking.visits.create.batch", description = "Пакетное создание визитов", histogram = true)
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public BatchVisitResponse createVisits(List<CreateVisitRequest> requests) {
+        if (requests.size() > properties.getBatch().getMaxSize()) {
+            throw new RequestNotValidException("Batch size must not exceed " + properties.getBatch().getMaxSize(),
+                    HttpStatus.BAD_REQUEST.value());
+        }
 
-        // Получаем страницу визитов
-        Page<Visit> visitPage = visitRepository.findVisitsWithFilters(search, doctorIds, pageable);
+        // Загружаем всех пациентов и врачей пакета двумя запросами
+        Set<Integer> patientIds = new HashSet<>();
+        Set<Integer> doctorIds = new HashSet<>();
+        for (CreateVisitRequest request : requests) {
+            if (request.getPatientId() != null) {
+                patientIds.add(request.getPatientId());
+            }
+            if (request.getDoctorId() != null) {
+                doctorIds.add(request.getDoctorId());
+            }
+        }
+        Set<Integer> patients = referenceDataCache.getExistingPatients(patientIds);
+        Map<Integer, String> timezones = referenceDataCache.getDoctorTimezones(doctorIds);
+
+        BatchVisitResult[] results = new BatchVisitResult[requests.size()];
+        List<Integer> candidateIndexes = new ArrayList<>();
+        List<Visit> candidates = new ArrayList<>();
+
+        // Валидация и парсинг дат каждого визита
+        for (int i = 0; i < requests.size(); i++) {
+            CreateVisitRequest request = requests.get(i);
+            if (request.getPatientId() == null || request.getDoctorId() == null) {
+                results[i] = batchResult(i, BatchVisitStatus.INVALID, "Patient ID and Doctor ID are required");
+                continue;
+            }
+            if (!patients.contains(request.getPatientId())) {
+                results[i] = batchResult(i, BatchVisitStatus.NOT_FOUND, "Patient not found");
+                continue;
+            }
+            String timezone = timezones.get(request.getDoctorId());
+            if (timezone == null) {
+                results[i] = batchResult(i, BatchVisitStatus.NOT_FOUND, "Doctor not found");
+                continue;
+            }
 
-        // Группируем по пациентам и врачам для формирования результата
-        Map<Integer, PatientVisitDto> patientMap = new HashMap<>();
+            LocalDateTime startDateTime;
+            LocalDateTime endDateTime;
+            try {
+                startDateTime = parseDateTime(request.getStart(), timezone);
+                endDateTime = parseDateTime(request.getEnd(), timezone);
+            } catch (DateTimeException e) {
+                results[i] = batchResult(i, BatchVisitStatus.INVALID, "Invalid date format");
+                continue;
+            }
+            if (startDateTime.isAfter(endDateTime)) {
+                results[i] = batchResult(i, BatchVisitStatus.INVALID, "End time must be after start time");
+                continue;
+            }
+            if (VisitPartitions.exceedsMaxDuration(properties, startDateTime, endDateTime)) {
+                results[i] = batchResult(i, BatchVisitStatus.INVALID,
+                        "Visit must not be longer than " + maxVisitDuration());
+                continue;
+            }
+            if (isBeforeArchiveHorizon(startDateTime)) {
+                results[i] = batchResult(i, BatchVisitStatus.INVALID,
+                        "Visit must not start before the archive horizon");
+                continue;
+            }
 
-        // Собираем уникальные ID врачей
-        Set<Integer> doctorIdSet = visitPage.getContent().stream()
+            candidateIndexes.add(i);
+            candidates.add(Visit.builder()
+                    .startDateTime(startDateTime)
+                    .endDateTime(endDateTime)
+                    .patient(patientRepository.getReferenceById(request.getPatientId()))
+                    .doctor(doctorRepository.getReferenceById(request.getDoctorId()))
+                    .build());
+        }
+
+        // Проверка пересечений с БД одним запросом и внутри пакета
+        doctorBookingLock.lock(candidates.stream()
                 .map(v -> v.getDoctor().getId())
-                .collect(Collectors.toSet());
+                .collect(Collectors.toSet()));
+        Map<Integer, IntervalSet> existingIntervals = loadExistingIntervals(candidates);
+        Map<Integer, IntervalSet> batchIntervals = new HashMap<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        List<Visit> accepted = new ArrayList<>();
+
+        for (int c = 0; c < candidates.size(); c++) {
+            Visit visit = candidates.get(c);
+            int i = candidateIndexes.get(c);
+            Integer doctorId = visit.getDoctor().getId();
+
+            IntervalSet existing = existingIntervals.get(doctorId);
+            if (existing != null && existing.overlaps(visit.getStartDateTime(), visit.getEndDateTime())) {
+                results[i] = batchResult(i, BatchVisitStatus.CONFLICT, "Visit conflicts with existing visit");
+                continue;
+            }
+            IntervalSet inBatch = batchIntervals.computeIfAbsent(doctorId, id -> new IntervalSet());
+            if (inBatch.overlaps(visit.getStartDateTime(), visit.getEndDateTime())) {
+                results[i] = batchResult(i, BatchVisitStatus.CONFLICT, "Visit conflicts with another visit in batch");
+                continue;
+            }
+            inBatch.add(visit.getStartDateTime(), visit.getEndDateTime());
+            acceptedIndexes.add(i);
+            accepted.add(visit);
+        }
 
-        // Получаем информацию о врачах с количеством пациентов
-        Map<Integer, Long> doctorPatientCounts = new HashMap<>();
-        for (Integer docId : doctorIdSet) {
-            doctorPatientCounts.put(docId, visitRepository.countTotalPatientsByDoctorId(docId));
+        if (!accepted.isEmpty()) {
+            visitRepository.insertAll(accepted);
+            accepted.forEach(visitIntervalIndex::register);
+            doctorPatientStatsService.recordVisits(accepted);
+            outboxService.visitsCreated(accepted);
+            eventGenerationService.createVisitEvent(accepted);
         }
 
-        // Обрабатываем визиты
-        for (Visit visit : visitPage.getContent()) {
-            Integer patientId = visit.getPatient().getId();
+        for (int a = 0; a < accepted.size(); a++) {
+            int i = acceptedIndexes.get(a);
+            results[i] = batchResult(i, BatchVisitStatus.CREATED, null);
+            results[i].setVisit(convertToResponse(accepted.get(a)));
+        }
 
-            if (!patientMap.containsKey(patientId)) {
-                PatientVisitDto patientDto = new PatientVisitDto();
-                patientDto.setFirstName(visit.getPatient().getFirstName());
-                patientDto.setLastName(visit.getPatient().getLastName());
-                patientDto.setLastVisits(new ArrayList<>());
-                patientMap.put(patientId, patientDto);
-            }
+        BatchVisitResponse response = new BatchVisitResponse();
+        response.setResults(Arrays.asList(results));
+        response.setCreated(accepted.size());
+        response.setRejected(requests.size() - accepted.size());
+        return response;
+    }
 
-            PatientVisitDto patientDto = patientMap.get(patientId);
+    /**
+     * Без транзакции на весь метод: в режиме fan-out запросы выполняются в своих транзакциях
+     * на других потоках, и вызывающий поток не должен удерживать соединение на время ожидания.
+     * Последовательные запросы выполняются в одной транзакции только для чтения.
+     */
+    @Timed(value = "visittracking.patients.visits", description = "Страница пациентов с визитами", histogram = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public PatientVisitsResponse getPatientVisits(Pageable pageable, String search, List<Integer> doctorIds) {
+        VisitFilter filter = patientSearchIndex.filter(search, doctorIds);
+        PatientVisitsResponse response = new PatientVisitsResponse();
+        if (parallelQueryRunner.isEnabled()) {
+            // Подсчет пациентов не зависит от страницы и выполняется параллельно с ней
+            CompletableFuture<Long> totalPatients = parallelQueryRunner.supply(() -> countPatients(filter));
+            CompletableFuture<List<PatientVisitDto>> page = parallelQueryRunner.supply(() -> findPage(pageable, filter));
+            response.setData(ParallelQueryRunner.join(page));
+            response.setCount(ParallelQueryRunner.join(totalPatients));
+        } else {
+            parallelQueryRunner.inReadOnlyTransaction(() -> {
+                response.setCount(countPatients(filter));
+                response.setData(findPage(pageable, filter));
+                return response;
+            });
+        }
+        eventGenerationService.getPatientVisitsEvent();
+        return response;
+    }
 
-            LastVisitDto lastVisitDto = new LastVisitDto();
-            lastVisitDto.setStart(visit.getStartDateTime().toString());
-            lastVisitDto.setEnd(visit.getEndDateTime().toString());
+    public PatientVisitsCursorResponse getPatientVisitsByCursor(String cursor, int size, String search,
+                                                                List<Integer> doctorIds, boolean withCount) {
+        VisitCursor after = VisitCursor.decode(cursor);
+        int limit = Math.max(1, Math.min(size, properties.getCursor().getMaxSize()));
+        VisitFilter filter = patientSearchIndex.filter(search, doctorIds);
+
+        PatientVisitsCursorResponse response = new PatientVisitsCursorResponse();
+        List<Visit> visits = after == null
+                ? visitRepository.findVisitsWithFiltersAfter(filter.search(), filter.doctorIds(),
+                        filter.patientIds(), filter.changedSince(), null, null, null, null, Limit.of(limit))
+                : visitRepository.findVisitsWithFiltersAfter(filter.search(), filter.doctorIds(),
+                        filter.patientIds(), filter.changedSince(), after.lastName(), after.firstName(),
+                        after.patientId(), after.visitId(), Limit.of(limit));
+
+        // Визиты уже упорядочены запросом, повторная сортировка не нужна
+        response.setData(new ArrayList<>(groupByPatient(visits)));
+        if (visits.size() == limit) {
+            response.setNextCursor(VisitCursor.of(visits.get(visits.size() - 1)).encode());
+        }
+        if (withCount) {
+            response.setCount(countPatients(filter));
+        }
+        eventGenerationService.getPatientVisitsEvent();
+        return response;
+    }
 
-            DoctorInfoDto doctorInfo = new DoctorInfoDto();
-            doctorInfo.setFirstName(visit.getDoctor().getFirstName());
-            doctorInfo.setLastName(visit.getDoctor().getLastName());
-            doctorInfo.setTotalPatients(doctorPatientCounts.get(visit.getDoctor().getId()));
+    /**
+     * Общее количество пациентов с учетом фильтров.
+     */
+    private Long countPatients(VisitFilter filter) {
+        return visitRepository.countPatientsWithFilters(filter.search(), filter.doctorIds(), filter.patientIds(),
+                filter.changedSince());
+    }
 
-            lastVisitDto.setDoctor(doctorInfo);
-            patientDto.getLastVisits().add(lastVisitDto);
+    private List<PatientVisitDto> findPage(Pageable pageable, VisitFilter filter) {
+        if (properties.getPatients().getPaging() == VisitTrackingProperties.PagingMode.PATIENTS) {
+            return findPatientPage(pageable, filter);
         }
 
+        // Получаем страницу визитов вместе с пациентами и врачами одним запросом
+        List<Visit> visits = visitRepository.findVisitsWithFiltersFetched(
+                filter.search(), filter.doctorIds(), filter.patientIds(), filter.changedSince(), pageable);
+
+        // Группируем по пациентам и врачам для формирования результата
+        Collection<PatientVisitDto> patientVisits = groupByPatient(visits);
+
         // Сортируем по имени пациента
-        List<PatientVisitDto> result = patientMap.values().stream()
+        return patientVisits.stream()
                 .sorted(Comparator.comparing(PatientVisitDto::getLastName)
                         .thenComparing(PatientVisitDto::getFirstName))
                 .collect(Collectors.toList());
+    }
 
-        PatientVisitsResponse response = new PatientVisitsResponse();
-        response.setData(result);
-        response.setCount(totalPatients);
-        eventGenerationService.getPatientVisitsEvent();
-        return response;
+    /**
+     * Страница по пациентам: сначала страница ID пациентов в порядке фамилии и имени,
+     * затем последние визиты только этих пациентов одним запросом.
+     */
+    private List<PatientVisitDto> findPatientPage(Pageable pageable, VisitFilter filter) {
+        // Сортировка задается запросом, поля сортировки визитов к пациентам неприменимы
+        Pageable patientPage = pageable.isPaged()
+                ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize())
+                : Pageable.unpaged();
+        List<PatientName> patients = visitRepository.findPatientsWithFilters(
+                filter.search(), filter.doctorIds(), filter.patientIds(), filter.changedSince(), patientPage);
+        if (patients.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<Integer, PatientVisitDto> patientMap = new LinkedHashMap<>();
+        for (PatientName patient : patients) {
+            PatientVisitDto dto = new PatientVisitDto();
+            dto.setFirstName(patient.getFirstName());
+            dto.setLastName(patient.getLastName());
+            dto.setLastVisits(new ArrayList<>());
+            patientMap.put(patient.getId(), dto);
+        }
+
+        int lastVisits = properties.getPatients().getLastVisits();
+        LocalDateTime since = hotDataSince();
+        List<PatientLastVisit> visits = filter.doctorIds() == null
+                ? visitRepository.findLastVisitsByPatientIds(patientMap.keySet(), since, lastVisits)
+                : visitRepository.findLastVisitsByPatientIdsAndDoctorIds(
+                        patientMap.keySet(), filter.doctorIds(), since, lastVisits);
+
+        Set<Integer> doctorIdSet = visits.stream()
+                .map(PatientLastVisit::getDoctorId)
+                .collect(Collectors.toSet());
+        Map<Integer, Long> doctorPatientCounts = doctorPatientCountService.getTotalPatients(doctorIdSet);
+
+        // Пациенты уже стоят в порядке страницы, визиты раскладываются за один проход
+        for (PatientLastVisit visit : visits) {
+            LastVisitDto lastVisitDto = new LastVisitDto();
+            lastVisitDto.setStart(DateTimeCodec.format(visit.getStartDateTime()));
+            lastVisitDto.setEnd(DateTimeCodec.format(visit.getEndDateTime()));
+
+            DoctorInfoDto doctorInfo = new DoctorInfoDto();
+            doctorInfo.setFirstName(visit.getDoctorFirstName());
+            doctorInfo.setLastName(visit.getDoctorLastName());
+            doctorInfo.setTotalPatients(doctorPatientCounts.get(visit.getDoctorId()));
+
+            lastVisitDto.setDoctor(doctorInfo);
+            patientMap.get(visit.getPatientId()).getLastVisits().add(lastVisitDto);
+        }
+        return new ArrayList<>(patientMap.values());
+    }
+
+    /**
+     * Группирует визиты по пациентам, сохраняя порядок следования визитов.
+     */
+    private Collection<PatientVisitDto> groupByPatient(List<Visit> visits) {
+        // Собираем уникальные ID врачей
+        Set<Integer> doctorIdSet = visits.stream()
+                .map(v -> v.getDoctor().getId())
+                .collect(Collectors.toSet());
+
+        // Получаем количество пациентов всех врачей страницы (из кэша или одним запросом)
+        Map<Integer, Long> doctorPatientCounts = doctorPatientCountService.getTotalPatients(doctorIdSet);
+
+        Map<Integer, PatientVisitDto> patientMap = new LinkedHashMap<>();
+        for (Visit visit : visits) {
+            PatientVisitDto patientDto = patientMap.computeIfAbsent(visit.getPatient().getId(), id -> {
+                PatientVisitDto dto = new PatientVisitDto();
+                dto.setFirstName(visit.getPatient().getFirstName());
+                dto.setLastName(visit.getPatient().getLastName());
+                dto.setLastVisits(new ArrayList<>());
+                return dto;
+            });
+            patientDto.getLastVisits().add(toLastVisitDto(visit, doctorPatientCounts));
+        }
+        return patientMap.values();
+    }
+
+    private LastVisitDto toLastVisitDto(Visit visit, Map<Integer, Long> doctorPatientCounts) {
+        LastVisitDto lastVisitDto = new LastVisitDto();
+        lastVisitDto.setStart(DateTimeCodec.format(visit.getStartDateTime()));
+        lastVisitDto.setEnd(DateTimeCodec.format(visit.getEndDateTime()));
+
+        DoctorInfoDto doctorInfo = new DoctorInfoDto();
+        doctorInfo.setFirstName(visit.getDoctor().getFirstName());
+        doctorInfo.setLastName(visit.getDoctor().getLastName());
+        doctorInfo.setTotalPatients(doctorPatientCounts.get(visit.getDoctor().getId()));
+
+        lastVisitDto.setDoctor(doctorInfo);
+        return lastVisitDto;
+    }
+
+    private boolean hasOverlappingVisit(Integer doctorId, LocalDateTime startDateTime, LocalDateTime endDateTime) {
+        // Индекс знает только недавние визиты этого экземпляра: найденное пересечение окончательно.
+        // Блокировка строки врача сериализует бронирования между экземплярами, но визиты других
+        // экземпляров в индекс не попадают, поэтому отсутствие пересечения проверяется в БД
+        if (visitIntervalIndex.isEnabled() && visitIntervalIndex.hasOverlap(doctorId, startDateTime, endDateTime)) {
+            return true;
+        }
+        LocalDateTime earliestStart = VisitPartitions.earliestOverlappingStart(properties, startDateTime);
+        Optional<Visit> existingVisit = visitRepository.findOverlappingVisit(
+                doctorId, earliestStart, startDateTime, endDateTime);
+        return existingVisit.isPresent();
+    }
+
+    private Map<Integer, IntervalSet> loadExistingIntervals(List<Visit> candidates) {
+        Map<Integer, IntervalSet> intervals = new HashMap<>();
+        if (candidates.isEmpty()) {
+            return intervals;
+        }
+        Set<Integer> doctorIds = new HashSet<>();
+        LocalDateTime from = candidates.get(0).getStartDateTime();
+        LocalDateTime to = candidates.get(0).getEndDateTime();
+        for (Visit visit : candidates) {
+            doctorIds.add(visit.getDoctor().getId());
+            if (visit.getStartDateTime().isBefore(from)) {
+                from = visit.getStartDateTime();
+            }
+            if (visit.getEndDateTime().isAfter(to)) {
+                to = visit.getEndDateTime();
+            }
+        }
+        for (DoctorVisitInterval interval : visitRepository.findVisitIntervalsByDoctorIdsInRange(
+                doctorIds, VisitPartitions.earliestOverlappingStart(properties, from), from, to)) {
+            intervals.computeIfAbsent(interval.getDoctorId(), id -> new IntervalSet())
+                    .add(interval.getStartDateTime(), interval.getEndDateTime());
+        }
+        return intervals;
+    }
+
+    private Duration maxVisitDuration() {
+        return properties.getVisits().getMaxDuration();
+    }
+
+    /**
+     * Визиты старше горизонта уходят в архив, а их партиции удаляются, поэтому создавать их нельзя.
+     */
+    private boolean isBeforeArchiveHorizon(LocalDateTime startDateTime) {
+        VisitTrackingProperties.Archive archive = properties.getArchive();
+        return archive.isEnabled() && startDateTime.isBefore(LocalDateTime.now().minus(archive.getHorizon()));
+    }
+
+    /**
+     * Нижняя граница выборки последних визитов. С включенным архивом старше горизонта визитов
+     * в visits не остается, и граница отсекает старые партиции.
+     */
+    private LocalDateTime hotDataSince() {
+        VisitTrackingProperties.Archive archive = properties.getArchive();
+        return archive.isEnabled() ? LocalDateTime.now().minus(archive.getHorizon()) : NO_LOWER_BOUND;
+    }
+
+    private BatchVisitResult batchResult(int index, BatchVisitStatus status, String message) {
+        BatchVisitResult result = new BatchVisitResult();
+        result.setIndex(index);
+        result.setStatus(status);
+        result.setMessage(message);
+        return result;
     }
 
-    private LocalDateTime parseDateTime(String dateTimeStr, String timezone) {
-        ZonedDateTime zonedDateTime = ZonedDateTime.parse(dateTimeStr);
-        ZonedDateTime convertedDateTime = zonedDateTime.withZoneSameInstant(ZoneId.of(timezone));
-        return convertedDateTime.toLocalDateTime();
+    static LocalDateTime parseDateTime(String dateTimeStr, String timezone) {
+        return DateTimeCodec.parse(dateTimeStr, DateTimeCodec.zone(timezone));
     }
 
     private VisitResponse convertToResponse(Visit visit) {
         VisitResponse response = new VisitResponse();
         response.setId(visit.getId());
-        response.setStart(visit.getStartDateTime().toString());
-        response.setEnd(visit.getEndDateTime().toString());
+        response.setStart(DateTimeCodec.format(visit.getStartDateTime()));
+        response.setEnd(DateTimeCodec.format(visit.getEndDateTime()));
         response.setPatientId(visit.getPatient().getId());
         response.setDoctorId(visit.getDoctor().getId());
         return response;
@@ -0,0 +1,240 @@
+package com.example.visittracking.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.chrono.IsoChronology;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Разбор и форматирование дат визитов без промежуточных объектов форматтера.
+ * <p>
+ * Разбор принимает ISO-8601 со смещением ({@code 2025-09-20T10:00:00+03:00}, {@code 2025-09-20T10:00Z},
+ * с долями секунды или без). Остальные формы, в том числе неверные даты, передаются
+ * {@link ZonedDateTime#parse}, поэтому результат и исключения совпадают с ним.
+ * Форматирование совпадает с {@link LocalDateTime#toString()}.
+ *
+ * @author Pavel Zhurenkov
+ */
+public final class DateTimeCodec {
+
+    private static final Map<String, ZoneId> ZONES = new ConcurrentHashMap<>();
+
+    /**
+     * Максимальная длина {@code yyyy-MM-ddTHH:mm:ss.nnnnnnnnn}.
+     */
+    private static final int MAX_LENGTH = 29;
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[MAX_LENGTH]);
+
+    private DateTimeCodec() {
+    }
+
+    /**
+     * Часовой пояс по идентификатору. Идентификаторы врачей повторяются, поэтому разобранные зоны кэшируются.
+     */
+    public static ZoneId zone(String timezone) {
+        ZoneId zone = ZONES.get(timezone);
+        if (zone == null) {
+            // Неверный идентификатор выбрасывает исключение и не попадает в кэш
+            zone = ZONES.computeIfAbsent(timezone, ZoneId::of);
+        }
+        return zone;
+    }
+
+    /**
+     * Переводит момент времени со смещением в локальное время зоны.
+     */
+    public static LocalDateTime parse(String text, ZoneId zone) {
+        LocalDateTime result = parseIsoOffset(text, zone);
+        if (result != null) {
+            return result;
+        }
+        return ZonedDateTime.parse(text).withZoneSameInstant(zone).toLocalDateTime();
+    }
+
+    public static String format(LocalDateTime dateTime) {
+        char[] buffer = BUFFER.get();
+        int length = format(dateTime, buffer);
+        return length < 0 ? dateTime.toString() : new String(buffer, 0, length);
+    }
+
+    /**
+     * Пишет дату строкой JSON из буфера потока без создания {@link String}.
+     */
+    public static void write(JsonGenerator generator, LocalDateTime dateTime) throws IOException {
+        char[] buffer = BUFFER.get();
+        int length = format(dateTime, buffer);
+        if (length < 0) {
+            generator.writeString(dateTime.toString());
+        } else {
+            generator.writeString(buffer, 0, length);
+        }
+    }
+
+    /**
+     * @return длина записи или -1 для годов вне 1000–9999, которые {@code toString} пишет иначе
+     */
+    private static int format(LocalDateTime dateTime, char[] buffer) {
+        int year = dateTime.getYear();
+        if (year < 1000 || year > 9999) {
+            return -1;
+        }
+        write4(buffer, 0, year);
+        buffer[4] = '-';
+        write2(buffer, 5, dateTime.getMonthValue());
+        buffer[7] = '-';
+        write2(buffer, 8, dateTime.getDayOfMonth());
+        buffer[10] = 'T';
+        write2(buffer, 11, dateTime.getHour());
+        buffer[13] = ':';
+        write2(buffer, 14, dateTime.getMinute());
+
+        int second = dateTime.getSecond();
+        int nano = dateTime.getNano();
+        if (second == 0 && nano == 0) {
+            return 16;
+        }
+        buffer[16] = ':';
+        write2(buffer, 17, second);
+        if (nano == 0) {
+            return 19;
+        }
+        buffer[19] = '.';
+        // Как в LocalTime.toString: миллисекунды, микросекунды или наносекунды
+        if (nano % 1_000_000 == 0) {
+            writeDigits(buffer, 20, nano / 1_000_000, 3);
+            return 23;
+        }
+        if (nano % 1000 == 0) {
+            writeDigits(buffer, 20, nano / 1000, 6);
+            return 26;
+        }
+        writeDigits(buffer, 20, nano, 9);
+        return 29;
+    }
+
+    /**
+     * Разбор {@code yyyy-MM-ddTHH:mm[:ss[.n]](Z|±HH:MM)}.
+     *
+     * @return null, если строка в другой форме или значения вне допустимых границ
+     */
+    private static LocalDateTime parseIsoOffset(String text, ZoneId zone) {
+        int length = text.length();
+        if (length < 17 || text.charAt(4) != '-' || text.charAt(7) != '-' || text.charAt(10) != 'T'
+                || text.charAt(13) != ':') {
+            return null;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 2);
+        int day = digits(text, 8, 2);
+        int hour = digits(text, 11, 2);
+        int minute = digits(text, 14, 2);
+        if (year < 0 || month < 1 || month > 12 || day < 1 || hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return null;
+        }
+
+        int position = 16;
+        int second = 0;
+        int nano = 0;
+        if (position + 3 <= length && text.charAt(position) == ':') {
+            second = digits(text, position + 1, 2);
+            if (second < 0 || second > 59) {
+                return null;
+            }
+            position += 3;
+            if (position < length && text.charAt(position) == '.') {
+                position++;
+                int fractionDigits = 0;
+                while (position < length && isDigit(text.charAt(position))) {
+                    if (++fractionDigits > 9) {
+                        return null;
+                    }
+                    nano = nano * 10 + (text.charAt(position) - '0');
+                    position++;
+                }
+                if (fractionDigits == 0) {
+                    return null;
+                }
+                for (int i = fractionDigits; i < 9; i++) {
+                    nano *= 10;
+                }
+            }
+        }
+
+        int offsetSeconds = parseOffset(text, position);
+        if (offsetSeconds == Integer.MIN_VALUE || day > Month.of(month).length(IsoChronology.INSTANCE.isLeapYear(year))) {
+            return null;
+        }
+
+        long epochDay = LocalDate.of(year, month, day).toEpochDay();
+        long epochSecond = epochDay * 86_400 + hour * 3600L + minute * 60L + second - offsetSeconds;
+        ZoneOffset targetOffset = zone instanceof ZoneOffset fixed
+                ? fixed
+                : zone.getRules().getOffset(Instant.ofEpochSecond(epochSecond));
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, targetOffset);
+    }
+
+    /**
+     * @return смещение в секундах или {@link Integer#MIN_VALUE}, если после времени не {@code Z} и не {@code ±HH:MM}
+     */
+    private static int parseOffset(String text, int position) {
+        int length = text.length();
+        if (position == length - 1 && text.charAt(position) == 'Z') {
+            return 0;
+        }
+        if (position != length - 6 || text.charAt(position + 3) != ':') {
+            return Integer.MIN_VALUE;
+        }
+        char sign = text.charAt(position);
+        int hours = digits(text, position + 1, 2);
+        int minutes = digits(text, position + 4, 2);
+        if ((sign != '+' && sign != '-') || hours < 0 || hours > 18 || minutes < 0 || minutes > 59
+                || (hours == 18 && minutes > 0)) {
+            return Integer.MIN_VALUE;
+        }
+        int seconds = hours * 3600 + minutes * 60;
+        return sign == '-' ? -seconds : seconds;
+    }
+
+    private static int digits(String text, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = text.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static void write2(char[] buffer, int at, int value) {
+        buffer[at] = (char) ('0' + value / 10);
+        buffer[at + 1] = (char) ('0' + value % 10);
+    }
+
+    private static void write4(char[] buffer, int at, int value) {
+        write2(buffer, at, value / 100);
+        write2(buffer, at + 2, value % 100);
+    }
+
+    private static void writeDigits(char[] buffer, int at, int value, int count) {
+        for (int i = at + count - 1; i >= at; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+}
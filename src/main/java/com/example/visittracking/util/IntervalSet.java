@@ -0,0 +1,52 @@
+package com.example.visittracking.util;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Множество закрытых интервалов [start, end], хранимое в виде объединения
+ * непересекающихся отрезков. Проверка пересечения выполняется за O(log n).
+ *
+ * @author Pavel Zhurenkov
+ */
+public class IntervalSet {
+
+    private final NavigableMap<LocalDateTime, LocalDateTime> intervals = new TreeMap<>();
+
+    public synchronized void add(LocalDateTime start, LocalDateTime end) {
+        LocalDateTime mergedStart = start;
+        LocalDateTime mergedEnd = end;
+
+        // Поглощаем предыдущий отрезок, если он касается нового
+        Map.Entry<LocalDateTime, LocalDateTime> floor = intervals.floorEntry(start);
+        if (floor != null && !floor.getValue().isBefore(start)) {
+            mergedStart = floor.getKey();
+            if (floor.getValue().isAfter(mergedEnd)) {
+                mergedEnd = floor.getValue();
+            }
+        }
+
+        // Поглощаем все последующие отрезки, начинающиеся внутри нового
+        Map.Entry<LocalDateTime, LocalDateTime> next = intervals.ceilingEntry(mergedStart);
+        while (next != null && !next.getKey().isAfter(mergedEnd)) {
+            if (next.getValue().isAfter(mergedEnd)) {
+                mergedEnd = next.getValue();
+            }
+            intervals.remove(next.getKey());
+            next = intervals.higherEntry(next.getKey());
+        }
+
+        intervals.put(mergedStart, mergedEnd);
+    }
+
+    public synchronized boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        Map.Entry<LocalDateTime, LocalDateTime> floor = intervals.floorEntry(end);
+        return floor != null && !floor.getValue().isBefore(start);
+    }
+
+    public synchronized int size() {
+        return intervals.size();
+    }
+}
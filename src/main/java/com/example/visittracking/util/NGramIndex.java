@@ -0,0 +1,149 @@
+package com.example.visittracking.util;
+
+import java.text.Normalizer;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Индекс подстрок по n-граммам длиной от 1 до 3 символов. Поиск без учета регистра
+ * и диакритики находит все идентификаторы, у которых хотя бы одно из значений
+ * содержит строку запроса, аналогично {@code LIKE '%query%'}.
+ *
+ * @author Pavel Zhurenkov
+ */
+public class NGramIndex {
+
+    private static final int MAX_GRAM = 3;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private final Map<String, BitSet> postings = new HashMap<>();
+
+    private final Map<Integer, String[]> values = new HashMap<>();
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(int id, String... rawValues) {
+        String[] normalized = Arrays.stream(rawValues)
+                .filter(Objects::nonNull)
+                .map(NGramIndex::normalize)
+                .toArray(String[]::new);
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+            values.put(id, normalized);
+            for (String gram : grams(normalized)) {
+                postings.computeIfAbsent(gram, g -> new BitSet()).set(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public BitSet search(String query) {
+        String normalized = normalize(query);
+        lock.readLock().lock();
+        try {
+            if (normalized.isEmpty()) {
+                BitSet all = new BitSet();
+                values.keySet().forEach(all::set);
+                return all;
+            }
+            if (normalized.length() <= MAX_GRAM) {
+                BitSet exact = postings.get(normalized);
+                return exact == null ? new BitSet() : (BitSet) exact.clone();
+            }
+
+            // Пересекаем списки триграмм и проверяем кандидатов полным сравнением
+            BitSet candidates = null;
+            for (int i = 0; i + MAX_GRAM <= normalized.length(); i++) {
+                BitSet posting = postings.get(normalized.substring(i, i + MAX_GRAM));
+                if (posting == null) {
+                    return new BitSet();
+                }
+                if (candidates == null) {
+                    candidates = (BitSet) posting.clone();
+                } else {
+                    candidates.and(posting);
+                }
+                if (candidates.isEmpty()) {
+                    return candidates;
+                }
+            }
+            for (int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+                if (!containsInAny(values.get(id), normalized)) {
+                    candidates.clear(id);
+                }
+            }
+            return candidates;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return values.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static String normalize(String value) {
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    private void removeInternal(int id) {
+        String[] previous = values.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String gram : grams(previous)) {
+            BitSet posting = postings.get(gram);
+            if (posting != null) {
+                posting.clear(id);
+                if (posting.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    private static Set<String> grams(String[] normalizedValues) {
+        Set<String> grams = new HashSet<>();
+        for (String value : normalizedValues) {
+            for (int length = 1; length <= MAX_GRAM; length++) {
+                for (int i = 0; i + length <= value.length(); i++) {
+                    grams.add(value.substring(i, i + length));
+                }
+            }
+        }
+        return grams;
+    }
+
+    private static boolean containsInAny(String[] candidates, String query) {
+        if (candidates == null) {
+            return false;
+        }
+        for (String candidate : candidates) {
+            if (candidate.contains(query)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
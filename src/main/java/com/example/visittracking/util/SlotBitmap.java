@@ -0,0 +1,95 @@
+package com.example.visittracking.util;
+
+import java.util.Arrays;
+
+/**
+ * Занятость фиксированного числа слотов, по биту на слот. Установленный бит — слот занят.
+ * Не потокобезопасен: общие экземпляры не изменяются, изменения делаются на копии.
+ *
+ * @author Pavel Zhurenkov
+ */
+public final class SlotBitmap {
+
+    private final long[] words;
+
+    private final int size;
+
+    public SlotBitmap(int size) {
+        this(new long[(size + 63) >>> 6], size);
+    }
+
+    private SlotBitmap(long[] words, int size) {
+        this.words = words;
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public SlotBitmap copy() {
+        return new SlotBitmap(words.clone(), size);
+    }
+
+    /**
+     * Отмечает занятыми слоты с {@code from} по {@code to} включительно; границы вне битмапа обрезаются.
+     */
+    public void set(int from, int to) {
+        int first = Math.max(from, 0);
+        int last = Math.min(to, size - 1);
+        if (first > last) {
+            return;
+        }
+        int firstWord = first >>> 6;
+        int lastWord = last >>> 6;
+        long firstMask = -1L << first;
+        long lastMask = -1L >>> (63 - (last & 63));
+        if (firstWord == lastWord) {
+            words[firstWord] |= firstMask & lastMask;
+            return;
+        }
+        words[firstWord] |= firstMask;
+        Arrays.fill(words, firstWord + 1, lastWord, -1L);
+        words[lastWord] |= lastMask;
+    }
+
+    public boolean get(int slot) {
+        return (words[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    /**
+     * @return первый свободный слот начиная с {@code from} или {@link #size()}, если свободных нет
+     */
+    public int nextClear(int from) {
+        if (from >= size) {
+            return size;
+        }
+        int index = from >>> 6;
+        long word = ~words[index] & (-1L << from);
+        while (word == 0) {
+            if (++index == words.length) {
+                return size;
+            }
+            word = ~words[index];
+        }
+        return Math.min((index << 6) + Long.numberOfTrailingZeros(word), size);
+    }
+
+    /**
+     * @return первый занятый слот начиная с {@code from} или {@link #size()}, если занятых нет
+     */
+    public int nextSet(int from) {
+        if (from >= size) {
+            return size;
+        }
+        int index = from >>> 6;
+        long word = words[index] & (-1L << from);
+        while (word == 0) {
+            if (++index == words.length) {
+                return size;
+            }
+            word = words[index];
+        }
+        return Math.min((index << 6) + Long.numberOfTrailingZeros(word), size);
+    }
+}
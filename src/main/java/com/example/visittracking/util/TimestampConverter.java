@@ -9,24 +9,30 @@ import java.time.format.DateTimeFormatter;
  * @author Pavel Zhurenkov
  */
 public class TimestampConverter {
-    public static String convertTimestampToTime(long timestamp) {
-        Instant instant = Instant.ofEpochMilli(timestamp);
-        LocalDateTime dateTime = LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
 
-        return dateTime.format(DateTimeFormatter.ofPattern("HH:mm:ss"));
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("HH:mm:ss");
+
+    public static String convertTimestampToTime(long timestamp) {
+        return toLocalDateTime(timestamp).format(TIME);
     }
 
     // Более подробное преобразование
     public static String getDetailedTimeInfo(long timestamp) {
-        Instant instant = Instant.ofEpochMilli(timestamp);
-        LocalDateTime dateTime = LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
-
-        return String.format(
-                "Time: %02d:%02d:%02d | Date: %s",
-                dateTime.getHour(),
-                dateTime.getMinute(),
-                dateTime.getSecond(),
-                dateTime.toLocalDate().toString()
-        );
+        LocalDateTime dateTime = toLocalDateTime(timestamp);
+
+        // Вызывается на каждое действие пользователя, поэтому без String.format и разбора шаблона
+        StringBuilder builder = new StringBuilder(34).append("Time: ");
+        appendTwoDigits(builder, dateTime.getHour()).append(':');
+        appendTwoDigits(builder, dateTime.getMinute()).append(':');
+        appendTwoDigits(builder, dateTime.getSecond());
+        return builder.append(" | Date: ").append(dateTime.toLocalDate()).toString();
+    }
+
+    private static LocalDateTime toLocalDateTime(long timestamp) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp), ZoneId.systemDefault());
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder builder, int value) {
+        return builder.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
     }
 }
@@ -0,0 +1,51 @@
+-- Схема, которую до появления миграций создавал ddl-auto
+CREATE TABLE IF NOT EXISTS patients (
+    id         INT AUTO_INCREMENT PRIMARY KEY,
+    first_name VARCHAR(255),
+    last_name  VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS doctors (
+    id         INT AUTO_INCREMENT PRIMARY KEY,
+    first_name VARCHAR(255),
+    last_name  VARCHAR(255),
+    time_zone  VARCHAR(255)
+);
+
+CREATE TABLE IF NOT EXISTS visits (
+    id              INT AUTO_INCREMENT PRIMARY KEY,
+    start_date_time DATETIME(6),
+    end_date_time   DATETIME(6),
+    patient_id      INT,
+    doctor_id       INT,
+    CONSTRAINT fk_visits_patient FOREIGN KEY (patient_id) REFERENCES patients (id),
+    CONSTRAINT fk_visits_doctor FOREIGN KEY (doctor_id) REFERENCES doctors (id)
+);
+
+CREATE TABLE IF NOT EXISTS doctor_patients (
+    doctor_id             INT NOT NULL,
+    patient_id            INT NOT NULL,
+    first_visit_date_time DATETIME(6),
+    PRIMARY KEY (doctor_id, patient_id)
+);
+
+CREATE TABLE IF NOT EXISTS doctor_patient_stats (
+    doctor_id      INT PRIMARY KEY,
+    total_patients BIGINT
+);
+
+CREATE TABLE IF NOT EXISTS audit_log (
+    id          BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_type  VARCHAR(100),
+    description VARCHAR(255),
+    occurred_at DATETIME(6)
+);
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id           BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_type   VARCHAR(100),
+    payload      LONGTEXT,
+    created_at   DATETIME(6),
+    published_at DATETIME(6),
+    INDEX idx_outbox_events_published_at (published_at)
+);
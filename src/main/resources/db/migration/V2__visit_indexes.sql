@@ -0,0 +1,8 @@
+-- Проверка пересечений и интервалы врача: равенство по doctor_id и диапазон по времени
+CREATE INDEX idx_visits_doctor_start_end ON visits (doctor_id, start_date_time, end_date_time);
+
+-- Последние визиты пациента без сортировки в памяти
+CREATE INDEX idx_visits_patient_start ON visits (patient_id, start_date_time);
+
+-- Страницы пациентов в порядке фамилии и имени
+CREATE INDEX idx_patients_last_first ON patients (last_name, first_name);
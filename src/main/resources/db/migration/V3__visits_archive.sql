@@ -0,0 +1,12 @@
+-- Холодная таблица для визитов старше visittracking.archive.horizon.
+-- Строки только дописываются и читаются редко, поэтому хранятся сжатыми.
+CREATE TABLE IF NOT EXISTS visits_archive (
+    id              INT PRIMARY KEY,
+    start_date_time DATETIME(6) NOT NULL,
+    end_date_time   DATETIME(6),
+    patient_id      INT,
+    doctor_id       INT,
+    archived_at     DATETIME(6) NOT NULL,
+    INDEX idx_visits_archive_patient_start (patient_id, start_date_time),
+    INDEX idx_visits_archive_doctor_start (doctor_id, start_date_time)
+) ROW_FORMAT = COMPRESSED;
@@ -0,0 +1,5 @@
+-- Неудачные попытки публикации события. После visittracking.outbox.max-attempts событие
+-- больше не выбирается ретранслятором и остается в таблице для разбора.
+ALTER TABLE outbox_events
+    ADD COLUMN attempts   INT NOT NULL DEFAULT 0,
+    ADD COLUMN last_error VARCHAR(1000);
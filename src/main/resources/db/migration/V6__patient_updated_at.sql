@@ -0,0 +1,7 @@
+-- Время последнего изменения пациента. По нему индекс поиска пациентов догружает добавленных
+-- и переименованных пациентов, а запросы визитов проверяют через LIKE пациентов, измененных после
+-- загрузки индекса
+ALTER TABLE patients
+    ADD COLUMN updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6);
+
+CREATE INDEX idx_patients_updated_at ON patients (updated_at);
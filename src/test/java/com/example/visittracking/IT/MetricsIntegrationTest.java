@@ -0,0 +1,66 @@
+package com.example.visittracking.IT;
+
+import com.example.visittracking.dto.CreateVisitRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+class MetricsIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void prometheus_ExposesTimersErrorCountersAndPoolGauges() {
+        // Пересекается с визитом тестовых данных (p1, d1) 2025-09-20 10:00-11:00 America/New_York
+        CreateVisitRequest conflicting = request(1, "2025-09-20T10:00:00-04:00", "2025-09-20T10:30:00-04:00");
+        assertThat(restTemplate.postForEntity(url("/api/visits"), conflicting, String.class).getStatusCode())
+                .isEqualTo(HttpStatus.CONFLICT);
+        CreateVisitRequest unknownDoctor = request(999, "2025-09-20T10:00:00Z", "2025-09-20T10:30:00Z");
+        assertThat(restTemplate.postForEntity(url("/api/visits"), unknownDoctor, String.class).getStatusCode())
+                .isEqualTo(HttpStatus.NOT_FOUND);
+        restTemplate.getForEntity(url("/api/patients?page=0&size=10"), String.class);
+
+        ResponseEntity<String> response = restTemplate.getForEntity(url("/actuator/prometheus"), String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody())
+                .contains("visittracking_visits_create_seconds_bucket")
+                .contains("visittracking_patients_visits_seconds_bucket")
+                .contains("spring_data_repository_invocations_seconds_bucket")
+                .containsPattern("visittracking_errors_total\\{.*source=\"api\",type=\"conflict\"} 1\\.0")
+                .containsPattern("visittracking_errors_total\\{.*source=\"api\",type=\"not_found\"} 1\\.0")
+                .contains("hikaricp_connections_active")
+                .contains("cache_gets_total{application=\"visittracking\",cache=\"doctorTimezones\"");
+    }
+
+    private CreateVisitRequest request(int doctorId, String start, String end) {
+        CreateVisitRequest request = new CreateVisitRequest();
+        request.setPatientId(1);
+        request.setDoctorId(doctorId);
+        request.setStart(start);
+        request.setEnd(end);
+        return request;
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+}
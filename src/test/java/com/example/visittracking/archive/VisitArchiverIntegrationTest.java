@@ -0,0 +1,61 @@
+package com.example.visittracking.archive;
+
+import com.example.visittracking.TestBase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+class VisitArchiverIntegrationTest extends TestBase {
+
+    private static final LocalDateTime OLD_VISIT = LocalDateTime.of(2020, 3, 2, 9, 0);
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2021, 1, 1, 0, 0);
+
+    @Autowired
+    private VisitArchiver visitArchiver;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM visits WHERE start_date_time < ?", Timestamp.valueOf(CUTOFF));
+        jdbcTemplate.update("DELETE FROM visits_archive");
+    }
+
+    @Test
+    void archiveBatch_MovesVisitsBeforeCutoff() {
+        insertVisit(OLD_VISIT, 1, 1);
+        insertVisit(OLD_VISIT.plusDays(1), 2, 2);
+        long hotBefore = countVisits();
+
+        int moved = visitArchiver.archiveBatch(CUTOFF);
+
+        assertThat(moved).isEqualTo(2);
+        assertThat(countVisits()).isEqualTo(hotBefore - 2);
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT start_date_time FROM visits_archive ORDER BY start_date_time", Timestamp.class))
+                .extracting(Timestamp::toLocalDateTime)
+                .containsExactly(OLD_VISIT, OLD_VISIT.plusDays(1));
+        // Визиты тестовых данных моложе горизонта и остаются на месте
+        assertThat(visitArchiver.archiveBatch(CUTOFF)).isZero();
+    }
+
+    private void insertVisit(LocalDateTime start, int patientId, int doctorId) {
+        jdbcTemplate.update("INSERT INTO visits (start_date_time, end_date_time, patient_id, doctor_id) VALUES (?, ?, ?, ?)",
+                Timestamp.valueOf(start), Timestamp.valueOf(start.plusMinutes(30)), patientId, doctorId);
+    }
+
+    private long countVisits() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM visits", Long.class);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.visittracking.archive;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+class VisitPartitionMaintenanceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private final VisitTrackingProperties properties = new VisitTrackingProperties();
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void maintain_PartitionedVisits_PublishesOrphanCount() {
+        properties.getPartitioning().setEnabled(true);
+        YearMonth last = YearMonth.now().plusMonths(properties.getPartitioning().getMonthsAhead());
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class)))
+                .thenReturn(List.of(VisitPartitions.name(last), VisitPartitions.FUTURE));
+        when(jdbcTemplate.queryForObject(contains("LEFT JOIN patients"), eq(Long.class))).thenReturn(2L);
+
+        new VisitPartitionMaintenance(jdbcTemplate, properties, meterRegistry).maintain();
+
+        assertThat(meterRegistry.get("visittracking.visits.orphaned").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void constructor_PartitioningDisabled_RegistersNoGauge() {
+        new VisitPartitionMaintenance(jdbcTemplate, properties, meterRegistry);
+
+        assertThat(meterRegistry.find("visittracking.visits.orphaned").gauge()).isNull();
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.visittracking.archive;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+class VisitPartitionsTest {
+
+    @Test
+    void earliestOverlappingStart_AppliedOnlyWithPartitioning() {
+        VisitTrackingProperties properties = new VisitTrackingProperties();
+        LocalDateTime start = LocalDateTime.of(2025, 9, 20, 10, 0);
+
+        assertThat(VisitPartitions.earliestOverlappingStart(properties, start)).isNull();
+
+        properties.getPartitioning().setEnabled(true);
+        assertThat(VisitPartitions.earliestOverlappingStart(properties, start))
+                .isEqualTo(LocalDateTime.of(2025, 9, 19, 10, 0));
+    }
+
+    @Test
+    void exceedsMaxDuration_CheckedOnlyWithPartitioning() {
+        VisitTrackingProperties properties = new VisitTrackingProperties();
+        LocalDateTime start = LocalDateTime.of(2025, 9, 20, 10, 0);
+
+        assertThat(VisitPartitions.exceedsMaxDuration(properties, start, start.plusDays(2))).isFalse();
+
+        properties.getPartitioning().setEnabled(true);
+        assertThat(VisitPartitions.exceedsMaxDuration(properties, start, start.plusDays(2))).isTrue();
+        assertThat(VisitPartitions.exceedsMaxDuration(properties, start, start.plusDays(1))).isFalse();
+    }
+
+    @Test
+    void nameAndMonth_RoundTrip() {
+        assertThat(VisitPartitions.name(YearMonth.of(2025, 9))).isEqualTo("p202509");
+        assertThat(VisitPartitions.month("p202509")).isEqualTo(YearMonth.of(2025, 9));
+    }
+
+    @Test
+    void month_ReturnsNullForOtherPartitions() {
+        assertThat(VisitPartitions.month(VisitPartitions.FUTURE)).isNull();
+        assertThat(VisitPartitions.month("p202513")).isNull();
+        assertThat(VisitPartitions.month("p2025")).isNull();
+        assertThat(VisitPartitions.month(null)).isNull();
+    }
+
+    @Test
+    void monthsAfter_CrossesYearBoundary() {
+        assertThat(VisitPartitions.monthsAfter(YearMonth.of(2025, 11), YearMonth.of(2026, 2)))
+                .containsExactly(YearMonth.of(2025, 12), YearMonth.of(2026, 1), YearMonth.of(2026, 2));
+        assertThat(VisitPartitions.monthsAfter(YearMonth.of(2026, 2), YearMonth.of(2026, 2))).isEmpty();
+    }
+
+    @Test
+    void partitionBy_EndsWithFuturePartition() {
+        assertThat(VisitPartitions.partitionBy(YearMonth.of(2025, 11), YearMonth.of(2025, 12)))
+                .isEqualTo("PARTITION BY RANGE COLUMNS (start_date_time) (" +
+                        "PARTITION p202511 VALUES LESS THAN ('2025-12-01 00:00:00'), " +
+                        "PARTITION p202512 VALUES LESS THAN ('2026-01-01 00:00:00'), " +
+                        "PARTITION p_future VALUES LESS THAN (MAXVALUE))");
+    }
+
+    @Test
+    void reorganizeFuture_SplitsFuturePartition() {
+        assertThat(VisitPartitions.reorganizeFuture(List.of(YearMonth.of(2026, 1))))
+                .isEqualTo("ALTER TABLE visits REORGANIZE PARTITION p_future INTO (" +
+                        "PARTITION p202601 VALUES LESS THAN ('2026-02-01 00:00:00'), " +
+                        "PARTITION p_future VALUES LESS THAN (MAXVALUE))");
+    }
+}
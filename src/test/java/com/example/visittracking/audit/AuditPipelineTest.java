@@ -0,0 +1,127 @@
+package com.example.visittracking.audit;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.dto.AuditStatsDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+class AuditPipelineTest {
+
+    private final List<List<AuditRecord>> batches = new CopyOnWriteArrayList<>();
+
+    private AuditPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        if (pipeline != null) {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    void publish_WritesFullBatches() throws Exception {
+        CountDownLatch written = new CountDownLatch(2);
+        pipeline = new AuditPipeline(records -> {
+            batches.add(new ArrayList<>(records));
+            written.countDown();
+        }, properties(16, 2, Duration.ofMinutes(1)));
+        pipeline.start();
+
+        for (int i = 0; i < 4; i++) {
+            assertThat(pipeline.publish(record(i))).isTrue();
+        }
+
+        assertThat(written.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(batches).allSatisfy(batch -> assertThat(batch).hasSize(2));
+    }
+
+    @Test
+    void publish_FlushesPartialBatchAfterInterval() throws Exception {
+        CountDownLatch written = new CountDownLatch(1);
+        pipeline = new AuditPipeline(records -> {
+            batches.add(new ArrayList<>(records));
+            written.countDown();
+        }, properties(16, 100, Duration.ofMillis(20)));
+        pipeline.start();
+
+        pipeline.publish(record(1));
+
+        assertThat(written.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(batches.get(0)).extracting(AuditRecord::description).containsExactly("event-1");
+    }
+
+    @Test
+    void publish_DropsEventsWhenQueueIsFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        pipeline = new AuditPipeline(records -> release.await(), properties(2, 1, Duration.ofMillis(1)));
+        pipeline.start();
+
+        int accepted = 0;
+        for (int i = 0; i < 10; i++) {
+            if (pipeline.publish(record(i))) {
+                accepted++;
+            }
+        }
+        release.countDown();
+
+        AuditStatsDto stats = pipeline.getStats();
+        assertThat(stats.getDropped()).isEqualTo(10 - accepted).isPositive();
+        assertThat(stats.getPublished()).isEqualTo(accepted);
+    }
+
+    @Test
+    void stop_FlushesQueuedEvents() {
+        pipeline = new AuditPipeline(records -> batches.add(new ArrayList<>(records)),
+                properties(16, 100, Duration.ofMinutes(1)));
+        pipeline.start();
+        pipeline.publish(record(1));
+        pipeline.publish(record(2));
+
+        pipeline.stop();
+
+        assertThat(batches).flatExtracting(batch -> batch).hasSize(2);
+        assertThat(pipeline.getStats().getWritten()).isEqualTo(2);
+        assertThat(pipeline.publish(record(3))).isFalse();
+    }
+
+    @Test
+    void sinkFailure_IsCountedAndWriterKeepsRunning() throws Exception {
+        CountDownLatch attempts = new CountDownLatch(2);
+        pipeline = new AuditPipeline(records -> {
+            attempts.countDown();
+            throw new IllegalStateException("sink is down");
+        }, properties(16, 1, Duration.ofMillis(1)));
+        pipeline.start();
+
+        pipeline.publish(record(1));
+        pipeline.publish(record(2));
+
+        assertThat(attempts.await(5, TimeUnit.SECONDS)).isTrue();
+        pipeline.stop();
+        assertThat(pipeline.getStats().getFailed()).isEqualTo(2);
+    }
+
+    private static VisitTrackingProperties properties(int capacity, int batchSize, Duration flushInterval) {
+        VisitTrackingProperties properties = new VisitTrackingProperties();
+        properties.getAudit().setCapacity(capacity);
+        properties.getAudit().setBatchSize(batchSize);
+        properties.getAudit().setFlushInterval(flushInterval);
+        return properties;
+    }
+
+    private static AuditRecord record(int i) {
+        return new AuditRecord("UserActionEvent", "event-" + i, System.currentTimeMillis());
+    }
+}
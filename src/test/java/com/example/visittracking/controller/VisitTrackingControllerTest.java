@@ -117,6 +117,48 @@ class VisitTrackingControllerTest {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void createVisits_ShouldReturnBatchResults() throws Exception {
+        // Given
+        BatchVisitResult result = new BatchVisitResult();
+        result.setIndex(0);
+        result.setStatus(BatchVisitStatus.CREATED);
+        result.setVisit(visitResponse);
+
+        BatchVisitResponse batchResponse = new BatchVisitResponse();
+        batchResponse.setResults(of(result));
+        batchResponse.setCreated(1);
+
+        CreateVisitsBatchRequest batchRequest = new CreateVisitsBatchRequest();
+        batchRequest.setVisits(of(createVisitRequest));
+
+        when(visitTrackingService.createVisits(any(List.class))).thenReturn(batchResponse);
+
+        // When & Then
+        mockMvc.perform(post("/api/visits/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.results[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.results[0].visit.id").value(1L));
+
+        verify(visitTrackingService, times(1)).createVisits(any(List.class));
+    }
+
+    @Test
+    void createVisits_WhenEmptyBatch_ShouldReturnBadRequest() throws Exception {
+        // Given
+        CreateVisitsBatchRequest batchRequest = new CreateVisitsBatchRequest();
+        batchRequest.setVisits(List.of());
+
+        // When & Then
+        mockMvc.perform(post("/api/visits/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequest)))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getPatientVisits_ShouldReturnPageOfVisits() throws Exception {
         // Given
@@ -187,4 +229,25 @@ class VisitTrackingControllerTest {
 
         verify(visitTrackingService, times(1)).getPatientVisits(any(Pageable.class), isNull(), isNull());
     }
+
+    @Test
+    void getPatientVisitsByCursor_ShouldReturnNextCursor() throws Exception {
+        // Given
+        PatientVisitsCursorResponse cursorResponse = new PatientVisitsCursorResponse();
+        cursorResponse.setData(patientVisitsResponse.getData());
+        cursorResponse.setNextCursor("next");
+
+        when(visitTrackingService.getPatientVisitsByCursor(eq(""), eq(10), isNull(), isNull(), eq(false)))
+                .thenReturn(cursorResponse);
+
+        // When & Then
+        mockMvc.perform(get("/api/patients")
+                        .param("cursor", "")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.nextCursor").value("next"))
+                .andExpect(jsonPath("$.data[0].lastName").value("Smith"));
+
+        verify(visitTrackingService, never()).getPatientVisits(any(Pageable.class), any(), any());
+    }
 }
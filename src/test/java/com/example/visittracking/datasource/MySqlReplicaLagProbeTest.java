@@ -0,0 +1,67 @@
+package com.example.visittracking.datasource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+class MySqlReplicaLagProbeTest {
+
+    private final DataSource replica = mock(DataSource.class);
+
+    private final ResultSet status = mock(ResultSet.class);
+
+    private final MySqlReplicaLagProbe probe = new MySqlReplicaLagProbe();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        Connection connection = mock(Connection.class);
+        Statement statement = mock(Statement.class);
+        when(replica.getConnection()).thenReturn(connection);
+        when(connection.createStatement()).thenReturn(statement);
+        when(statement.executeQuery("SHOW REPLICA STATUS")).thenReturn(status);
+    }
+
+    @Test
+    void lag_ReturnsSecondsBehindSource() throws SQLException {
+        when(status.next()).thenReturn(true);
+        when(status.getLong("Seconds_Behind_Source")).thenReturn(3L);
+
+        assertThat(probe.lag(replica)).isEqualTo(Duration.ofSeconds(3));
+    }
+
+    @Test
+    void lag_StoppedReplication_ReturnsNull() throws SQLException {
+        when(status.next()).thenReturn(true);
+        when(status.wasNull()).thenReturn(true);
+
+        assertThat(probe.lag(replica)).isNull();
+    }
+
+    @Test
+    void lag_ServerWithoutReplication_ReturnsNull() throws SQLException {
+        when(status.next()).thenReturn(false);
+
+        assertThat(probe.lag(replica)).isNull();
+    }
+
+    @Test
+    void serverUrl_DropsDatabaseAndKeepsParameters() {
+        assertThat(MySqlReplicaLagProbe.serverUrl("jdbc:mysql://mysql-replica:3306/appdb?useSSL=false"))
+                .isEqualTo("jdbc:mysql://mysql-replica:3306/?useSSL=false");
+        assertThat(MySqlReplicaLagProbe.serverUrl("jdbc:mysql://localhost:3308"))
+                .isEqualTo("jdbc:mysql://localhost:3308");
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.visittracking.datasource;
+
+import com.example.visittracking.dto.ReplicaStatusDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+class ReplicaRouterTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+
+    private final Connection firstConnection = mock(Connection.class);
+
+    private final Connection secondConnection = mock(Connection.class);
+
+    private final DataSource primary = mock(DataSource.class);
+
+    private final DataSource first = mock(DataSource.class);
+
+    private final DataSource second = mock(DataSource.class);
+
+    private final Map<DataSource, Duration> lags = new HashMap<>();
+
+    private ReplicaRouter router;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(first.getConnection()).thenReturn(firstConnection);
+        when(second.getConnection()).thenReturn(secondConnection);
+        lags.put(first, Duration.ZERO);
+        lags.put(second, Duration.ZERO);
+        router = new ReplicaRouter(primary,
+                List.of(new ReplicaRouter.Replica("first", first), new ReplicaRouter.Replica("second", second)),
+                lags::get,
+                Duration.ofSeconds(5));
+    }
+
+    @Test
+    void getConnection_AlternatesHealthyReplicas() throws SQLException {
+        assertThat(List.of(router.getConnection(), router.getConnection(), router.getConnection()))
+                .containsExactly(firstConnection, secondConnection, firstConnection);
+        verify(primary, never()).getConnection();
+    }
+
+    @Test
+    void checkHealth_ExcludesLaggingAndStoppedReplicas() throws SQLException {
+        lags.put(first, Duration.ofSeconds(30));
+        router.checkHealth();
+
+        assertThat(router.getConnection()).isSameAs(secondConnection);
+        assertThat(router.getConnection()).isSameAs(secondConnection);
+
+        lags.put(second, null);
+        router.checkHealth();
+
+        assertThat(router.getConnection()).isSameAs(primaryConnection);
+        assertThat(router.getPrimaryFallbacks()).isEqualTo(1);
+        assertThat(router.getStats())
+                .extracting(stats -> stats.getName() + ":" + stats.isHealthy() + ":" + stats.getLagMillis())
+                .containsExactly("first:false:30000", "second:false:-1");
+    }
+
+    @Test
+    void checkHealth_ReturnsRecoveredReplica() throws SQLException {
+        lags.put(first, null);
+        router.checkHealth();
+        assertThat(router.getConnection()).isSameAs(secondConnection);
+
+        lags.put(first, Duration.ofSeconds(1));
+        router.checkHealth();
+
+        assertThat(List.of(router.getConnection(), router.getConnection()))
+                .containsExactlyInAnyOrder(firstConnection, secondConnection);
+    }
+
+    @Test
+    void checkHealth_ProbesMonitorDataSource() {
+        DataSource monitor = mock(DataSource.class);
+        lags.put(monitor, Duration.ZERO);
+        // Пул реплики проверку не проходит: у пользователя приложения нет REPLICATION CLIENT
+        lags.put(first, null);
+        router = new ReplicaRouter(primary, List.of(new ReplicaRouter.Replica("first", first, monitor)),
+                lags::get, Duration.ofSeconds(5));
+
+        router.checkHealth();
+
+        assertThat(router.getStats()).allMatch(ReplicaStatusDto::isHealthy);
+    }
+
+    @Test
+    void getConnection_UnavailableReplicaFallsThroughToNext() throws SQLException {
+        when(first.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        assertThat(router.getConnection()).isSameAs(secondConnection);
+        assertThat(router.getConnection()).isSameAs(secondConnection);
+        assertThat(router.getStats().get(0).getLastError()).isEqualTo("Connection refused");
+    }
+
+    @Test
+    void getConnection_AllReplicasUnavailable_UsesPrimary() throws SQLException {
+        when(first.getConnection()).thenThrow(new SQLException("Connection refused"));
+        when(second.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        assertThat(router.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void getConnectionWithCredentials_RoutesLikeDefaultCredentials() throws SQLException {
+        Connection reportConnection = mock(Connection.class);
+        when(first.getConnection("report", "secret")).thenThrow(new SQLException("Access denied"));
+        when(second.getConnection("report", "secret")).thenReturn(reportConnection);
+
+        assertThat(router.getConnection("report", "secret")).isSameAs(reportConnection);
+        assertThat(router.getStats().get(0).getLastError()).isEqualTo("Access denied");
+        verify(primary, never()).getConnection("report", "secret");
+    }
+
+    @Test
+    void getConnectionWithCredentials_UnsupportedByPool_KeepsReplicaHealthy() throws SQLException {
+        when(first.getConnection("report", "secret")).thenThrow(new SQLFeatureNotSupportedException());
+
+        assertThatThrownBy(() -> router.getConnection("report", "secret"))
+                .isInstanceOf(SQLFeatureNotSupportedException.class);
+        assertThat(router.getStats()).allMatch(ReplicaStatusDto::isHealthy);
+    }
+
+    @Test
+    void lazyProxy_RoutesReadOnlyConnectionsToReplicas() throws SQLException {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(router);
+        // Без явных значений прокси один раз берет соединение основной БД, чтобы их узнать
+        dataSource.setDefaultAutoCommit(true);
+        dataSource.setDefaultTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setReadOnly(true);
+            connection.createStatement();
+        }
+        verify(first).getConnection();
+        verify(primary, never()).getConnection();
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.createStatement();
+        }
+        verify(primary).getConnection();
+        verify(second, never()).getConnection();
+    }
+}
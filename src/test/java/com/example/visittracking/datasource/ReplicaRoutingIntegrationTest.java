@@ -0,0 +1,96 @@
+package com.example.visittracking.datasource;
+
+import com.example.visittracking.TestBase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.MySQLContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.utility.MountableFile;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Чтение с настоящей реплики MySQL: основная БД и реплика с репликацией по GTID, как в docker-compose.
+ * Пользователь проверки создается скриптом {@code mysql/init/01-monitor-user.sql} на основной БД
+ * и приходит на реплику репликацией.
+ *
+ * @author Pavel Zhurenkov
+ */
+class ReplicaRoutingIntegrationTest extends TestBase {
+
+    private static final Network NETWORK = Network.newNetwork();
+
+    private static final MySQLContainer<?> PRIMARY = new MySQLContainer<>("mysql:8.0")
+            .withNetwork(NETWORK)
+            .withNetworkAliases("mysql")
+            .withDatabaseName("visittracking")
+            .withUsername("testuser")
+            .withPassword("testpassword")
+            .withCommand("--server-id=1", "--gtid-mode=ON", "--enforce-gtid-consistency=ON")
+            .withCopyFileToContainer(MountableFile.forHostPath("mysql/init/01-monitor-user.sql"),
+                    "/docker-entrypoint-initdb.d/01-monitor-user.sql");
+
+    private static final MySQLContainer<?> REPLICA = new MySQLContainer<>("mysql:8.0")
+            .withNetwork(NETWORK)
+            .withDatabaseName("visittracking")
+            .withUsername("root")
+            .withPassword("testpassword")
+            .withCommand("--server-id=2", "--gtid-mode=ON", "--enforce-gtid-consistency=ON")
+            .withCopyFileToContainer(MountableFile.forClasspathResource("replica/01-replication.sql"),
+                    "/docker-entrypoint-initdb.d/01-replication.sql");
+
+    @Autowired
+    private ReplicaRouter replicaRouter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) {
+        PRIMARY.start();
+        REPLICA.start();
+        registry.add("spring.datasource.url", PRIMARY::getJdbcUrl);
+        registry.add("spring.datasource.driver-class-name", () -> "com.mysql.cj.jdbc.Driver");
+        registry.add("visittracking.replica.enabled", () -> "true");
+        // Пользователь приложения testuser приходит на реплику репликацией
+        registry.add("visittracking.replica.datasources[0].url", REPLICA::getJdbcUrl);
+        registry.add("visittracking.replica.monitor-username", () -> "monitor");
+        registry.add("visittracking.replica.monitor-password", () -> "monitorpassword");
+    }
+
+    @Test
+    void readOnlyTransaction_ReadsFromHealthyReplica() throws InterruptedException {
+        ReplicaRouter.Replica replica = replicaRouter.getReplicas().get(0);
+        // Реплика догоняет миграции и тестовые данные основной БД
+        for (int attempt = 0; attempt < 50 && !checkHealth(replica); attempt++) {
+            Thread.sleep(200);
+        }
+        assertThat(replicaRouter.isHealthy(replica)).as(replica.lastError()).isTrue();
+        long fallbacks = replicaRouter.getPrimaryFallbacks();
+
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        Integer replicaServerId = readOnly.execute(status -> serverId());
+
+        assertThat(replicaServerId).isEqualTo(2);
+        assertThat(serverId()).isEqualTo(1);
+        assertThat(replicaRouter.getPrimaryFallbacks()).isEqualTo(fallbacks);
+    }
+
+    private boolean checkHealth(ReplicaRouter.Replica replica) {
+        replicaRouter.checkHealth();
+        return replicaRouter.isHealthy(replica);
+    }
+
+    private Integer serverId() {
+        return jdbcTemplate.queryForObject("SELECT @@server_id", Integer.class);
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.visittracking.datasource;
+
+import com.example.visittracking.config.ReplicaRoutingConfig;
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.entity.Doctor;
+import com.example.visittracking.repository.DoctorRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Маршрутизация JPA-транзакций через контекст Spring: основная БД и реплика — отдельные БД H2,
+ * в которых у врача 1 разная фамилия.
+ *
+ * @author Pavel Zhurenkov
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.sql.init.mode=never",
+        "spring.jpa.hibernate.ddl-auto=none"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ReplicaRoutingJpaTest {
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private ReplicaRouter replicaRouter;
+
+    @Autowired
+    private DoctorReader doctorReader;
+
+    @Test
+    void readOnlyTransaction_ReadsFromReplica() {
+        assertThat(doctorReader.readOnly(1)).isEqualTo("Replica");
+        assertThat(replicaRouter.getPrimaryFallbacks()).isZero();
+    }
+
+    @Test
+    void readWriteTransaction_ReadsFromPrimary() {
+        assertThat(doctorReader.readWrite(1)).isEqualTo("Primary");
+    }
+
+    @Test
+    void repositoryRead_UsesRepositoryReadOnlyTransaction() {
+        // Методы чтения SimpleJpaRepository объявлены @Transactional(readOnly = true)
+        assertThat(doctorRepository.findById(1)).map(Doctor::getLastName).contains("Replica");
+    }
+
+    @TestConfiguration
+    @EnableConfigurationProperties(VisitTrackingProperties.class)
+    static class Config {
+
+        @Bean(destroyMethod = "close")
+        ReplicaRouter replicaRouter() {
+            DataSource primary = database("primary", "Primary");
+            DataSource replica = database("replica", "Replica");
+            return new ReplicaRouter(primary, List.of(new ReplicaRouter.Replica("replica", replica)),
+                    dataSource -> Duration.ZERO, Duration.ofSeconds(5));
+        }
+
+        @Bean
+        @Primary
+        DataSource dataSource(ReplicaRouter replicaRouter) {
+            return new ReplicaRoutingConfig().dataSource(replicaRouter);
+        }
+
+        @Bean
+        DoctorReader doctorReader(DoctorRepository doctorRepository) {
+            return new DoctorReader(doctorRepository);
+        }
+
+        private static DataSource database(String name, String lastName) {
+            DataSource dataSource = new DriverManagerDataSource(
+                    "jdbc:h2:mem:" + name + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.execute("CREATE TABLE doctors (id INT AUTO_INCREMENT PRIMARY KEY, " +
+                    "first_name VARCHAR(255), last_name VARCHAR(255), time_zone VARCHAR(255))");
+            jdbcTemplate.update("INSERT INTO doctors (id, first_name, last_name, time_zone) " +
+                    "VALUES (1, 'John', ?, 'UTC')", lastName);
+            return dataSource;
+        }
+    }
+
+    static class DoctorReader {
+
+        private final DoctorRepository doctorRepository;
+
+        DoctorReader(DoctorRepository doctorRepository) {
+            this.doctorRepository = doctorRepository;
+        }
+
+        @Transactional(readOnly = true)
+        public String readOnly(Integer id) {
+            return doctorRepository.findById(id).orElseThrow().getLastName();
+        }
+
+        @Transactional
+        public String readWrite(Integer id) {
+            return doctorRepository.findById(id).orElseThrow().getLastName();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.visittracking.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Много одновременных клиентов, каждый держит запрос открытым и после ответа делает паузу
+ * перед следующим. Параметры задаются системными свойствами {@code load.*}.
+ *
+ * @author Pavel Zhurenkov
+ */
+final class LoadHarness {
+
+    static final int CLIENTS = Integer.getInteger("load.clients", 1000);
+
+    static final int REQUESTS_PER_CLIENT = Integer.getInteger("load.requestsPerClient", 10);
+
+    static final long THINK_TIME_MILLIS = Long.getLong("load.thinkTimeMillis", 50);
+
+    private LoadHarness() {
+    }
+
+    /**
+     * Выполняет GET {@code uri} всеми клиентами. Ответ считается ошибкой, если статус не 200
+     * или тело ответа не прочитано полностью.
+     */
+    static Result run(URI uri) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(Duration.ofSeconds(60))
+                .GET()
+                .build();
+
+        AtomicInteger errors = new AtomicInteger();
+        long[] latencies = new long[CLIENTS * REQUESTS_PER_CLIENT];
+        AtomicInteger completed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newCachedThreadPool();
+        List<Future<?>> futures = new ArrayList<>(CLIENTS);
+        for (int c = 0; c < CLIENTS; c++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int r = 0; r < REQUESTS_PER_CLIENT; r++) {
+                    long begin = System.nanoTime();
+                    try {
+                        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                        if (response.statusCode() != 200) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    latencies[completed.getAndIncrement()] = System.nanoTime() - begin;
+                    Thread.sleep(THINK_TIME_MILLIS);
+                }
+                return null;
+            }));
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.MINUTES);
+        }
+        double seconds = (System.nanoTime() - began) / 1e9;
+        executor.shutdown();
+
+        long[] sorted = Arrays.copyOf(latencies, completed.get());
+        Arrays.sort(sorted);
+        return new Result(sorted.length, errors.get(), Math.round(sorted.length / seconds),
+                percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99));
+    }
+
+    private static long percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, index)]);
+    }
+
+    record Result(int requests, int errors, long throughput, long p50Millis, long p99Millis) {
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.visittracking.load;
+
+import com.example.visittracking.TestBase;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Нагрузочный тест GET /api/patients: много одновременных клиентов, каждый держит запрос
+ * открытым и после ответа делает паузу перед следующим. Исключен из обычной сборки:
+ * <pre>
+ * mvn test -Dsurefire.excludedGroups= -Dgroups=load -Dspring.profiles.include=virtual-threads
+ * </pre>
+ *
+ * @author Pavel Zhurenkov
+ */
+@Tag("load")
+class PatientVisitsLoadTest extends TestBase {
+
+    private static final Logger logger = LoggerFactory.getLogger(PatientVisitsLoadTest.class);
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    @Test
+    void getPatientVisits_UnderConcurrentClients() throws Exception {
+        LoadHarness.Result result = LoadHarness.run(
+                URI.create("http://localhost:" + port + "/api/patients?page=1&size=20"));
+
+        logger.info("Load test: clients={}, requests={}, errors={}, throughput={} req/s, p50={} ms, p99={} ms, " +
+                        "virtualThreads={}",
+                LoadHarness.CLIENTS, result.requests(), result.errors(), result.throughput(),
+                result.p50Millis(), result.p99Millis(), virtualThreads);
+
+        assertThat(result.errors()).isZero();
+    }
+}
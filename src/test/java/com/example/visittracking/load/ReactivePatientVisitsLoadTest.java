@@ -0,0 +1,70 @@
+package com.example.visittracking.load;
+
+import com.example.visittracking.TestBase;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MySQLContainer;
+
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Сравнение GET /api/patients и GET /api/reactive/patients под одинаковой нагрузкой.
+ * Чтению через R2DBC нужен адрес БД, поэтому контейнер MySQL запускается явно и общий для JDBC и R2DBC.
+ * Исключен из обычной сборки:
+ * <pre>
+ * mvn test -Dsurefire.excludedGroups= -Dgroups=load -Dtest=ReactivePatientVisitsLoadTest
+ * </pre>
+ *
+ * @author Pavel Zhurenkov
+ */
+@Tag("load")
+class ReactivePatientVisitsLoadTest extends TestBase {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReactivePatientVisitsLoadTest.class);
+
+    private static final MySQLContainer<?> MYSQL = new MySQLContainer<>("mysql:8.0")
+            .withDatabaseName("visittracking")
+            .withUsername("testuser")
+            .withPassword("testpassword");
+
+    @LocalServerPort
+    private int port;
+
+    @DynamicPropertySource
+    static void databaseProperties(DynamicPropertyRegistry registry) {
+        MYSQL.start();
+        registry.add("spring.datasource.url", MYSQL::getJdbcUrl);
+        registry.add("spring.datasource.driver-class-name", () -> "com.mysql.cj.jdbc.Driver");
+        registry.add("visittracking.reactive.enabled", () -> "true");
+        registry.add("visittracking.reactive.url", () -> "r2dbc:mysql://" + MYSQL.getHost() + ":"
+                + MYSQL.getMappedPort(MySQLContainer.MYSQL_PORT) + "/visittracking");
+    }
+
+    @Test
+    void getPatientVisits_MvcAndReactiveUnderConcurrentClients() throws Exception {
+        LoadHarness.Result mvc = LoadHarness.run(
+                URI.create("http://localhost:" + port + "/api/patients?page=1&size=20"));
+        LoadHarness.Result reactive = LoadHarness.run(
+                URI.create("http://localhost:" + port + "/api/reactive/patients?page=1&size=20"));
+
+        log("mvc", mvc);
+        log("reactive", reactive);
+
+        assertThat(mvc.errors()).isZero();
+        assertThat(reactive.errors()).isZero();
+    }
+
+    private static void log(String path, LoadHarness.Result result) {
+        logger.info("Load test: path={}, clients={}, requests={}, errors={}, throughput={} req/s, p50={} ms, " +
+                        "p99={} ms",
+                path, LoadHarness.CLIENTS, result.requests(), result.errors(), result.throughput(),
+                result.p50Millis(), result.p99Millis());
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.visittracking.migration.partitioning;
+
+import org.flywaydb.core.api.FlywayException;
+import org.junit.jupiter.api.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+class V4__Partition_visits_by_monthTest {
+
+    private static final long HOUR_MICROS = 3_600_000_000L;
+
+    private final Statement statement = mock(Statement.class);
+
+    private final ResultSet resultSet = mock(ResultSet.class);
+
+    @Test
+    void checkMaxDuration_LongerVisitExists_FailsMigration() throws SQLException {
+        longestVisit(25 * HOUR_MICROS, false);
+
+        assertThatThrownBy(() -> V4__Partition_visits_by_month.checkMaxDuration(statement, Duration.ofHours(24)))
+                .isInstanceOf(FlywayException.class)
+                .hasMessageContaining("max-duration=PT24H")
+                .hasMessageContaining("longest PT25H");
+    }
+
+    @Test
+    void checkMaxDuration_VisitsWithinLimit_Passes() throws SQLException {
+        longestVisit(24 * HOUR_MICROS, false);
+
+        assertThatCode(() -> V4__Partition_visits_by_month.checkMaxDuration(statement, Duration.ofHours(24)))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void checkMaxDuration_EmptyTable_Passes() throws SQLException {
+        longestVisit(0, true);
+
+        assertThatCode(() -> V4__Partition_visits_by_month.checkMaxDuration(statement, Duration.ofHours(24)))
+                .doesNotThrowAnyException();
+    }
+
+    private void longestVisit(long micros, boolean isNull) throws SQLException {
+        when(statement.executeQuery(anyString())).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong(1)).thenReturn(micros);
+        when(resultSet.wasNull()).thenReturn(isNull);
+    }
+}
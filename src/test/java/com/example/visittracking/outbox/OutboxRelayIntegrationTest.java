@@ -0,0 +1,112 @@
+package com.example.visittracking.outbox;
+
+import com.example.visittracking.TestBase;
+import com.example.visittracking.audit.AuditPipeline;
+import com.example.visittracking.entity.OutboxEvent;
+import com.example.visittracking.entity.Visit;
+import com.example.visittracking.repository.DoctorRepository;
+import com.example.visittracking.repository.OutboxEventRepository;
+import com.example.visittracking.repository.PatientRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+class OutboxRelayIntegrationTest extends TestBase {
+
+    @Autowired
+    private OutboxService outboxService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private AuditPipeline auditPipeline;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    void relay_PublishesCommittedEventsOnce() {
+        // Визит не сохраняется, чтобы не менять данные других тестов: в outbox пишется только событие
+        transactionTemplate.executeWithoutResult(status -> {
+            Visit visit = new Visit(1000, LocalDateTime.of(2025, 12, 1, 10, 0), LocalDateTime.of(2025, 12, 1, 10, 30),
+                    patientRepository.findById(1).orElseThrow(), doctorRepository.findById(1).orElseThrow());
+            outboxService.visitsCreated(List.of(visit));
+        });
+        long publishedBefore = auditPipeline.getStats().getPublished();
+
+        assertThat(outboxRelay.relay()).isEqualTo(1);
+        assertThat(outboxRelay.relay()).isZero();
+
+        List<OutboxEvent> events = outboxEventRepository.findAll();
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getPublishedAt()).isNotNull();
+        assertThat(events.get(0).getPayload()).contains("\"visitId\":1000");
+        // Слушатель аудита получил событие в транзакции ретранслятора
+        assertThat(auditPipeline.getStats().getPublished()).isEqualTo(publishedBefore + 1);
+    }
+
+    @Test
+    void relay_SkipsRolledBackEvents() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Visit visit = new Visit(1001, LocalDateTime.of(2025, 12, 2, 10, 0), LocalDateTime.of(2025, 12, 2, 10, 30),
+                    patientRepository.findById(2).orElseThrow(), doctorRepository.findById(2).orElseThrow());
+            outboxService.visitsCreated(List.of(visit));
+            status.setRollbackOnly();
+        });
+
+        assertThat(outboxRelay.relay()).isZero();
+        assertThat(outboxEventRepository.count()).isZero();
+    }
+
+    @Test
+    void relay_KeepsUnreadableEventUnpublishedUntilMaxAttempts() {
+        OutboxEvent broken = outboxEventRepository.save(OutboxEvent.builder()
+                .eventType(VisitsCreatedMessage.EVENT_TYPE)
+                .payload("{not json")
+                .createdAt(LocalDateTime.now())
+                .build());
+
+        for (int attempt = 0; attempt < 5; attempt++) {
+            assertThat(outboxRelay.relay()).isZero();
+        }
+        // Исчерпавшее попытки событие больше не выбирается, но остается в таблице
+        assertThat(outboxRelay.relay()).isZero();
+
+        OutboxEvent event = outboxEventRepository.findById(broken.getId()).orElseThrow();
+        assertThat(event.getPublishedAt()).isNull();
+        assertThat(event.getAttempts()).isEqualTo(5);
+        assertThat(event.getLastError()).startsWith("Unreadable outbox payload");
+    }
+
+    @Test
+    void visitsCreated_RequiresTransaction() {
+        assertThatThrownBy(() -> outboxService.visitsCreated(List.of()))
+                .isInstanceOf(IllegalTransactionStateException.class);
+    }
+}
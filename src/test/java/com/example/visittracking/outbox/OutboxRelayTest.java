@@ -0,0 +1,96 @@
+package com.example.visittracking.outbox;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.entity.OutboxEvent;
+import com.example.visittracking.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+class OutboxRelayTest {
+
+    private static final String PAYLOAD = "{\"visits\":[{\"visitId\":7,\"patientId\":1,\"doctorId\":2," +
+            "\"start\":\"2025-12-01T10:00:00\",\"end\":\"2025-12-01T10:30:00\"}]}";
+
+    private final OutboxEventRepository outboxEventRepository = mock(OutboxEventRepository.class);
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+    private final VisitTrackingProperties properties = new VisitTrackingProperties();
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        relay = new OutboxRelay(outboxEventRepository, eventPublisher, new ObjectMapper().findAndRegisterModules(),
+                transactionTemplate, properties);
+    }
+
+    @Test
+    void relay_UnreadableAndUnknownEvents_StayUnpublished() {
+        when(outboxEventRepository.lockUnpublished(100, 5)).thenReturn(List.of(
+                event(1L, VisitsCreatedMessage.EVENT_TYPE, "{not json"),
+                event(2L, "Unknown", PAYLOAD),
+                event(3L, VisitsCreatedMessage.EVENT_TYPE, PAYLOAD)));
+
+        assertThat(relay.relay()).isEqualTo(1);
+
+        verify(outboxEventRepository).recordFailure(eq(1L), startsWith("Unreadable outbox payload"));
+        verify(outboxEventRepository).recordFailure(2L, "Unknown outbox event type: Unknown");
+        verify(outboxEventRepository).markPublished(eq(List.of(3L)), any());
+        verify(eventPublisher).publishEvent(any(VisitsCreatedMessage.class));
+    }
+
+    @Test
+    void relay_ListenerFailure_KeepsEventForRetry() {
+        when(outboxEventRepository.lockUnpublished(100, 5)).thenReturn(List.of(
+                event(1L, VisitsCreatedMessage.EVENT_TYPE, PAYLOAD)));
+        doThrow(new IllegalStateException("audit is down")).when(eventPublisher).publishEvent(any(Object.class));
+
+        assertThat(relay.relay()).isZero();
+
+        verify(outboxEventRepository).recordFailure(1L, "audit is down");
+        verify(outboxEventRepository, never()).markPublished(anyCollection(), any());
+    }
+
+    @Test
+    void poll_StopsAfterBatchWithFailures() {
+        properties.getOutbox().setBatchSize(2);
+        when(outboxEventRepository.lockUnpublished(2, 5)).thenReturn(List.of(
+                event(1L, VisitsCreatedMessage.EVENT_TYPE, PAYLOAD),
+                event(2L, "Unknown", PAYLOAD)));
+
+        relay.poll();
+
+        verify(outboxEventRepository).lockUnpublished(2, 5);
+        verify(outboxEventRepository, never()).recordFailure(eq(1L), any());
+        verify(outboxEventRepository).recordFailure(eq(2L), any());
+    }
+
+    private static OutboxEvent event(Long id, String type, String payload) {
+        return OutboxEvent.builder().id(id).eventType(type).payload(payload).build();
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.visittracking.repository;
+
+import com.example.visittracking.TestBase;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+
+@Transactional
+class DoctorPatientStatsRepositoryTest extends TestBase {
+
+    @Autowired
+    private DoctorPatientStatsRepository statsRepository;
+
+    @Test
+    void insertDoctorPatientIfAbsent_ReturnsZeroForKnownPatient() {
+        LocalDateTime firstVisit = LocalDateTime.of(2025, 11, 1, 9, 0);
+
+        assertThat(statsRepository.insertDoctorPatientIfAbsent(1, 2, firstVisit)).isEqualTo(1);
+        assertThat(statsRepository.insertDoctorPatientIfAbsent(1, 2, firstVisit.plusDays(1))).isZero();
+    }
+
+    @Test
+    void incrementTotalPatients_CreatesAndUpdatesCounter() {
+        statsRepository.incrementTotalPatients(2, 1);
+        statsRepository.incrementTotalPatients(2, 2);
+
+        assertThat(statsRepository.findById(2)).get()
+                .extracting(stats -> stats.getTotalPatients())
+                .isEqualTo(3L);
+    }
+
+    @Test
+    void rebuildTotalPatients_CountsPatientsFromVisits() {
+        statsRepository.backfillDoctorPatients(1, 3);
+        statsRepository.rebuildTotalPatients(1, 3);
+
+        assertThat(statsRepository.findAll())
+                .extracting(stats -> stats.getDoctorId() + ":" + stats.getTotalPatients())
+                .containsExactlyInAnyOrder("1:1", "2:1", "3:1");
+    }
+
+    @Test
+    void rebuildTotalPatients_TouchesOnlyDoctorRange() {
+        statsRepository.backfillDoctorPatients(2, 3);
+        statsRepository.rebuildTotalPatients(2, 3);
+
+        assertThat(statsRepository.findAll())
+                .extracting(stats -> stats.getDoctorId() + ":" + stats.getTotalPatients())
+                .containsExactlyInAnyOrder("2:1", "3:1");
+    }
+}
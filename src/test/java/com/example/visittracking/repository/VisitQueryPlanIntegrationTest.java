@@ -0,0 +1,113 @@
+package com.example.visittracking.repository;
+
+import com.example.visittracking.TestBase;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Планы горячих запросов используют составные индексы. На трех строках тестовых данных оптимизатор
+ * выбрал бы полный просмотр, поэтому таблицы заполняются объемом, при котором индекс выгоден.
+ *
+ * @author Pavel Zhurenkov
+ */
+class VisitQueryPlanIntegrationTest extends TestBase {
+
+    private static final LocalDateTime SEED_START = LocalDateTime.of(2036, 1, 1, 8, 0);
+
+    private static final int PATIENTS = 300;
+
+    private static final int VISITS_PER_PATIENT = 10;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    void seed() {
+        List<Object[]> patients = new ArrayList<>();
+        for (int i = 0; i < PATIENTS; i++) {
+            patients.add(new Object[]{"First" + i, "Plan" + (i % 50)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO patients (first_name, last_name) VALUES (?, ?)", patients);
+        List<Integer> patientIds = jdbcTemplate.queryForList(
+                "SELECT id FROM patients WHERE last_name LIKE 'Plan%'", Integer.class);
+
+        List<Object[]> visits = new ArrayList<>();
+        int slot = 0;
+        for (Integer patientId : patientIds) {
+            for (int v = 0; v < VISITS_PER_PATIENT; v++, slot++) {
+                LocalDateTime start = SEED_START.plusHours(slot);
+                visits.add(new Object[]{Timestamp.valueOf(start), Timestamp.valueOf(start.plusMinutes(30)),
+                        patientId, 1 + slot % 3});
+            }
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO visits (start_date_time, end_date_time, patient_id, doctor_id) VALUES (?, ?, ?, ?)", visits);
+        jdbcTemplate.execute("ANALYZE TABLE visits, patients");
+    }
+
+    @AfterAll
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM visits WHERE start_date_time >= ?", Timestamp.valueOf(SEED_START));
+        jdbcTemplate.update("DELETE FROM patients WHERE last_name LIKE 'Plan%'");
+    }
+
+    @Test
+    void findOverlappingVisit_UsesDoctorTimeIndex() {
+        Map<String, Object> plan = explain(
+                "SELECT v.id FROM visits v WHERE v.doctor_id = ? AND v.start_date_time >= ? " +
+                        "AND v.start_date_time <= ? AND v.end_date_time >= ?",
+                1, Timestamp.valueOf(SEED_START.minusHours(20)), Timestamp.valueOf(SEED_START.plusHours(5)),
+                Timestamp.valueOf(SEED_START.plusHours(4)));
+
+        assertThat(plan.get("key")).isEqualTo("idx_visits_doctor_start_end");
+        assertThat(plan.get("type")).isEqualTo("range");
+    }
+
+    @Test
+    void findVisitIntervalsByDoctorIdsInRange_UsesDoctorTimeIndex() {
+        Map<String, Object> plan = explain(
+                "SELECT v.doctor_id, v.start_date_time, v.end_date_time FROM visits v " +
+                        "WHERE v.doctor_id IN (?, ?) AND v.start_date_time >= ? " +
+                        "AND v.start_date_time <= ? AND v.end_date_time >= ?",
+                1, 2, Timestamp.valueOf(SEED_START.minusHours(24)), Timestamp.valueOf(SEED_START.plusHours(10)),
+                Timestamp.valueOf(SEED_START));
+
+        assertThat(plan.get("key")).isEqualTo("idx_visits_doctor_start_end");
+    }
+
+    @Test
+    void findVisitsByPatientId_UsesPatientTimeIndexWithoutSort() {
+        Integer patientId = jdbcTemplate.queryForObject(
+                "SELECT MIN(id) FROM patients WHERE last_name LIKE 'Plan%'", Integer.class);
+        Map<String, Object> plan = explain(
+                "SELECT v.id FROM visits v WHERE v.patient_id = ? ORDER BY v.start_date_time DESC", patientId);
+
+        assertThat(plan.get("key")).isEqualTo("idx_visits_patient_start");
+        assertThat(String.valueOf(plan.get("Extra"))).doesNotContain("filesort");
+    }
+
+    @Test
+    void findPatientsWithFilters_ReadsPatientsInNameOrder() {
+        Map<String, Object> plan = explain(
+                "SELECT p.id, p.first_name, p.last_name FROM patients p " +
+                        "ORDER BY p.last_name, p.first_name, p.id LIMIT 20");
+
+        assertThat(plan.get("key")).isEqualTo("idx_patients_last_first");
+        assertThat(String.valueOf(plan.get("Extra"))).doesNotContain("filesort");
+    }
+
+    private Map<String, Object> explain(String sql, Object... args) {
+        return jdbcTemplate.queryForList("EXPLAIN " + sql, args).get(0);
+    }
+}
@@ -4,6 +4,10 @@ import com.example.visittracking.TestBase;
 import com.example.visittracking.entity.Doctor;
 import com.example.visittracking.entity.Patient;
 import com.example.visittracking.entity.Visit;
+import com.example.visittracking.repository.projection.DoctorPatientCount;
+import com.example.visittracking.repository.projection.PatientLastVisit;
+import com.example.visittracking.repository.projection.PatientName;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -12,12 +16,14 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 /**
  * @author Pavel Zhurenkov
@@ -26,6 +32,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 @Transactional
 class VisitRepositoryIntegrationTest extends TestBase{
 
+    private static final Duration MAX_DURATION = Duration.ofHours(24);
+
+    private static final LocalDateTime NO_LOWER_BOUND = LocalDateTime.of(2000, 1, 1, 0, 0);
+
     @Autowired
     private VisitRepository visitRepository;
 
@@ -55,14 +65,14 @@ class VisitRepositoryIntegrationTest extends TestBase{
     @Test
     void findOverlappingVisit_NoOverlap() {
         // Проверяем на отсутствие пересечений
-        Optional<Visit> result = visitRepository.findOverlappingVisit(
+        Optional<Visit> result = findOverlappingVisit(
                 doctor1.getId(),
                 LocalDateTime.of(2025, 9, 21, 11, 0), // После visit1
                 LocalDateTime.of(2025, 9, 21, 12, 30)
         );
         assertThat(result).isEmpty();
 
-        result = visitRepository.findOverlappingVisit(
+        result = findOverlappingVisit(
                 doctor1.getId(),
                 LocalDateTime.of(2025, 9, 19, 9, 0), // До visit1
                 LocalDateTime.of(2025, 9, 19, 9, 30)
@@ -73,7 +83,7 @@ class VisitRepositoryIntegrationTest extends TestBase{
     @Test
     void findOverlappingVisit_PartialOverlap_StartBeforeExistingEnd() {
         // Новый визит: 10:45 - 11:45 (частичное пересечение в конце)
-        Optional<Visit> result = visitRepository.findOverlappingVisit(
+        Optional<Visit> result = findOverlappingVisit(
                 doctor1.getId(),
                 LocalDateTime.of(2025, 9, 20, 10, 45),
                 LocalDateTime.of(2025, 9, 20, 11, 45)
@@ -84,7 +94,7 @@ class VisitRepositoryIntegrationTest extends TestBase{
     @Test
     void findOverlappingVisit_PartialOverlap_EndAfterExistingStart() {
         // Новый визит: 9:45 - 10:15 (частичное пересечение в начале)
-        Optional<Visit> result = visitRepository.findOverlappingVisit(
+        Optional<Visit> result = findOverlappingVisit(
                 doctor1.getId(),
                 LocalDateTime.of(2025, 9, 20, 9, 45),
                 LocalDateTime.of(2025, 9, 20, 10, 15)
@@ -95,7 +105,7 @@ class VisitRepositoryIntegrationTest extends TestBase{
     @Test
     void findOverlappingVisit_FullOverlap_NewVisitInsideExisting() {
         // Новый визит: 10:15 - 10:45 (полностью внутри)
-        Optional<Visit> result = visitRepository.findOverlappingVisit(
+        Optional<Visit> result = findOverlappingVisit(
                 doctor1.getId(),
                 LocalDateTime.of(2025, 9, 20, 10, 15),
                 LocalDateTime.of(2025, 9, 20, 10, 45)
@@ -106,7 +116,7 @@ class VisitRepositoryIntegrationTest extends TestBase{
     @Test
     void findOverlappingVisit_ExactOverlap() {
         // Новый визит: 10:00 - 10:30 (точно такой же)
-        Optional<Visit> result = visitRepository.findOverlappingVisit(
+        Optional<Visit> result = findOverlappingVisit(
                 doctor1.getId(),
                 LocalDateTime.of(2025, 9, 20, 10, 0),
                 LocalDateTime.of(2025, 9, 20, 11, 0)
@@ -114,6 +124,30 @@ class VisitRepositoryIntegrationTest extends TestBase{
         assertThat(result).isPresent();
     }
 
+    @Test
+    void findOverlappingVisit_IgnoresVisitsStartedBeforeEarliestStart() {
+        // visit1 10:00 - 11:00 пересекается, но начался раньше нижней границы
+        Optional<Visit> result = visitRepository.findOverlappingVisit(
+                doctor1.getId(),
+                LocalDateTime.of(2025, 9, 20, 10, 30),
+                LocalDateTime.of(2025, 9, 20, 10, 45),
+                LocalDateTime.of(2025, 9, 20, 11, 15)
+        );
+        assertThat(result).isEmpty();
+    }
+
+    @Test
+    void findOverlappingVisit_WithoutEarliestStart_ChecksAllVisits() {
+        // Без партиционирования нижняя граница не передается
+        Optional<Visit> result = visitRepository.findOverlappingVisit(
+                doctor1.getId(),
+                null,
+                LocalDateTime.of(2025, 9, 20, 10, 45),
+                LocalDateTime.of(2025, 9, 20, 11, 15)
+        );
+        assertThat(result).isPresent();
+    }
+
     @Test
     void findPatientsByDoctorIds_ReturnsCorrectPatients() {
         // Визиты для doctor1
@@ -182,6 +216,22 @@ class VisitRepositoryIntegrationTest extends TestBase{
         assertThat(count).isEqualTo(1); // Только Bob Johnson
     }
 
+    @Test
+    void countPatientsWithFilters_WithPatientIds() {
+        Long count = visitRepository.countPatientsWithFilters(null, null, List.of(patient1.getId(), patient2.getId()),
+                null);
+        assertThat(count).isEqualTo(2);
+    }
+
+    @Test
+    void countPatientsWithFilters_PatientChangedSinceIndex_MatchedByLike() {
+        // Устаревший индекс вернул пациента 1, который под LIKE не подходит; Bob Johnson и Charlie Brown
+        // изменены после загрузки индекса и находятся по LIKE
+        Long count = visitRepository.countPatientsWithFilters("o", null, List.of(patient1.getId()),
+                LocalDateTime.of(2000, 1, 1, 0, 0));
+        assertThat(count).isEqualTo(2);
+    }
+
     @Test
     void findVisitsByPatientId_ReturnsCorrectVisitsOrderedByTime() {
         // добавляем второй visit
@@ -228,4 +278,79 @@ class VisitRepositoryIntegrationTest extends TestBase{
         Long countDoctor2 = visitRepository.countTotalPatientsByDoctorId(doctor2.getId());
         assertThat(countDoctor2).isEqualTo(2);
     }
+
+    @Test
+    void findVisitsWithFiltersFetched_ReturnsInitializedPatientsAndDoctors() {
+        Pageable pageable = PageRequest.of(0, 10);
+        List<Visit> visits = visitRepository.findVisitsWithFiltersFetched(null, null, null, null, pageable);
+
+        assertThat(visits).hasSize(3);
+        assertThat(visits).allSatisfy(visit -> {
+            assertThat(Hibernate.isInitialized(visit.getPatient())).isTrue();
+            assertThat(Hibernate.isInitialized(visit.getDoctor())).isTrue();
+        });
+        assertThat(visits).extracting(v -> v.getPatient().getLastName())
+                .containsExactly("Brown", "Johnson", "Smith");
+    }
+
+    @Test
+    void countTotalPatientsByDoctorIds_ReturnsCountPerDoctor() {
+        visitRepository.save(new Visit(null, LocalDateTime.of(2025, 11, 1, 9, 0),
+                LocalDateTime.of(2025, 11, 1, 9, 30), patient2, doctor1));
+
+        List<DoctorPatientCount> counts = visitRepository.countTotalPatientsByDoctorIds(
+                List.of(doctor1.getId(), doctor2.getId()));
+
+        assertThat(counts).extracting(DoctorPatientCount::getDoctorId, DoctorPatientCount::getTotalPatients)
+                .containsExactlyInAnyOrder(tuple(doctor1.getId(), 2L), tuple(doctor2.getId(), 1L));
+    }
+
+    @Test
+    void findPatientsWithFilters_PagesDistinctPatientsInNameOrder() {
+        visitRepository.save(new Visit(null, LocalDateTime.of(2025, 11, 1, 9, 0),
+                LocalDateTime.of(2025, 11, 1, 9, 30), patient1, doctor2));
+
+        List<PatientName> firstPage = visitRepository.findPatientsWithFilters(null, null, null, null,
+                PageRequest.of(0, 2));
+        List<PatientName> withDoctor = visitRepository.findPatientsWithFilters(
+                null, List.of(doctor2.getId()), null, null, PageRequest.of(0, 10));
+
+        assertThat(firstPage).extracting(PatientName::getLastName).containsExactly("Brown", "Johnson");
+        assertThat(withDoctor).extracting(PatientName::getId).containsExactly(patient2.getId(), patient1.getId());
+    }
+
+    @Test
+    void findLastVisitsByPatientIds_ReturnsNewestVisitsPerPatient() {
+        visitRepository.save(new Visit(null, LocalDateTime.of(2025, 11, 1, 9, 0),
+                LocalDateTime.of(2025, 11, 1, 9, 30), patient1, doctor2));
+        visitRepository.save(new Visit(null, LocalDateTime.of(2025, 12, 1, 9, 0),
+                LocalDateTime.of(2025, 12, 1, 9, 30), patient1, doctor1));
+        visitRepository.flush();
+
+        List<PatientLastVisit> visits = visitRepository.findLastVisitsByPatientIds(
+                List.of(patient1.getId(), patient2.getId()), NO_LOWER_BOUND, 2);
+        List<PatientLastVisit> byDoctor = visitRepository.findLastVisitsByPatientIdsAndDoctorIds(
+                List.of(patient1.getId()), List.of(doctor2.getId()), NO_LOWER_BOUND, 2);
+
+        assertThat(visits).extracting(PatientLastVisit::getPatientId, PatientLastVisit::getStartDateTime)
+                .containsExactly(
+                        tuple(patient1.getId(), LocalDateTime.of(2025, 12, 1, 9, 0)),
+                        tuple(patient1.getId(), LocalDateTime.of(2025, 11, 1, 9, 0)),
+                        tuple(patient2.getId(), LocalDateTime.of(2025, 10, 25, 15, 0)));
+        assertThat(visits.get(0).getDoctorLastName()).isEqualTo(doctor1.getLastName());
+        assertThat(byDoctor).extracting(PatientLastVisit::getDoctorId).containsExactly(doctor2.getId());
+    }
+
+    @Test
+    void findLastVisitsByPatientIds_SkipsVisitsBeforeSince() {
+        List<PatientLastVisit> visits = visitRepository.findLastVisitsByPatientIds(
+                List.of(patient1.getId(), patient2.getId()), LocalDateTime.of(2025, 10, 1, 0, 0), 10);
+
+        assertThat(visits).extracting(PatientLastVisit::getPatientId)
+                .containsExactly(patient2.getId());
+    }
+
+    private Optional<Visit> findOverlappingVisit(Integer doctorId, LocalDateTime start, LocalDateTime end) {
+        return visitRepository.findOverlappingVisit(doctorId, start.minus(MAX_DURATION), start, end);
+    }
 }
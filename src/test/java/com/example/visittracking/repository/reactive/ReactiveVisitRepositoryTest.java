@@ -0,0 +1,123 @@
+package com.example.visittracking.repository.reactive;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Запросы R2DBC на H2 в режиме MySQL, без контейнера.
+ *
+ * @author Pavel Zhurenkov
+ */
+class ReactiveVisitRepositoryTest {
+
+    /**
+     * Граница изменений, после которой пациенты не менялись.
+     */
+    private static final LocalDateTime NOT_CHANGED = LocalDateTime.of(2100, 1, 1, 0, 0);
+
+    private DatabaseClient databaseClient;
+
+    private ReactiveVisitRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        databaseClient = createDatabase();
+        repository = new ReactiveVisitRepository(databaseClient);
+        // Второй визит Alice Smith к другому врачу
+        databaseClient.sql("INSERT INTO visits (start_date_time, end_date_time, patient_id, doctor_id) " +
+                        "VALUES ('2025-09-21 10:00:00', '2025-09-21 11:00:00', 1, 2)")
+                .then()
+                .block();
+    }
+
+    @AfterEach
+    void tearDown() {
+        databaseClient.sql("DROP ALL OBJECTS").then().block();
+    }
+
+    @Test
+    void findVisitsWithFilters_OrdersVisitsByPatient() {
+        StepVerifier.create(repository.findVisitsWithFilters(null, null, null, null, Pageable.unpaged()))
+                .assertNext(visit -> {
+                    assertThat(visit.patientLastName()).isEqualTo("Brown");
+                    assertThat(visit.doctorLastName()).isEqualTo("Jn");
+                    assertThat(visit.startDateTime()).isEqualTo(LocalDateTime.of(2025, 5, 3, 11, 0));
+                    assertThat(visit.endDateTime()).isEqualTo(LocalDateTime.of(2025, 5, 3, 12, 0));
+                })
+                .assertNext(visit -> assertThat(visit.patientLastName()).isEqualTo("Johnson"))
+                .assertNext(visit -> assertThat(visit).extracting(VisitRow::patientId, VisitRow::doctorId)
+                        .containsExactly(1, 1))
+                .assertNext(visit -> assertThat(visit).extracting(VisitRow::patientId, VisitRow::doctorId)
+                        .containsExactly(1, 2))
+                .verifyComplete();
+    }
+
+    @Test
+    void findVisitsWithFilters_AppliesSearchAndDoctorFilters() {
+        StepVerifier.create(repository.findVisitsWithFilters("Smi", List.of(2, 3), null, null, Pageable.unpaged()))
+                .assertNext(visit -> assertThat(visit).extracting(VisitRow::patientFirstName, VisitRow::doctorId)
+                        .containsExactly("Alice", 2))
+                .verifyComplete();
+    }
+
+    @Test
+    void findVisitsWithFilters_AppliesPatientIdsAndPage() {
+        StepVerifier.create(repository.findVisitsWithFilters(null, null, List.of(1, 2), NOT_CHANGED,
+                        PageRequest.of(1, 2)))
+                .assertNext(visit -> assertThat(visit).extracting(VisitRow::patientId, VisitRow::doctorId)
+                        .containsExactly(1, 2))
+                .verifyComplete();
+    }
+
+    @Test
+    void findVisitsWithFilters_PatientChangedAfterIndex_MatchedByLike() {
+        // Устаревший индекс вернул Alice Smith, которая под LIKE не подходит; Charlie Brown изменен
+        // после загрузки индекса и находится по LIKE
+        StepVerifier.create(repository.findVisitsWithFilters("Brown", null, List.of(1),
+                        LocalDateTime.of(2000, 1, 1, 0, 0), Pageable.unpaged()))
+                .assertNext(visit -> assertThat(visit.patientId()).isEqualTo(3))
+                .verifyComplete();
+    }
+
+    @Test
+    void countPatientsWithFilters_CountsDistinctPatients() {
+        StepVerifier.create(repository.countPatientsWithFilters(null, null, null, null))
+                .expectNext(3L)
+                .verifyComplete();
+        StepVerifier.create(repository.countPatientsWithFilters("o", List.of(1, 2), null, null))
+                .expectNext(1L)
+                .verifyComplete();
+        StepVerifier.create(repository.countPatientsWithFilters(null, null, List.of(2, 3), NOT_CHANGED))
+                .expectNext(2L)
+                .verifyComplete();
+    }
+
+    /**
+     * Отдельная БД H2 в памяти со схемой и данными тестов.
+     */
+    static DatabaseClient createDatabase() {
+        ConnectionFactory connectionFactory = ConnectionFactories.get(
+                "r2dbc:h2:mem:///" + UUID.randomUUID() + "?options=MODE=MySQL;DB_CLOSE_DELAY=-1");
+        new ResourceDatabasePopulator(
+                new ClassPathResource("r2dbc/schema-h2.sql"),
+                new ClassPathResource("test-data.sql"))
+                .populate(connectionFactory)
+                .block();
+        return DatabaseClient.create(connectionFactory);
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.TestBase;
+import com.example.visittracking.dto.CreateVisitRequest;
+import com.example.visittracking.dto.DoctorAvailabilityResponse;
+import com.example.visittracking.dto.FreeSlotDto;
+import com.example.visittracking.exception.custom.DateTimeNotValidException;
+import com.example.visittracking.exception.custom.ResourceNotFoundException;
+import com.example.visittracking.repository.OutboxEventRepository;
+import com.example.visittracking.repository.VisitRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+class DoctorAvailabilityServiceIntegrationTest extends TestBase {
+
+    @Autowired
+    private DoctorAvailabilityService doctorAvailabilityService;
+
+    @Autowired
+    private VisitTrackingService visitTrackingService;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @AfterEach
+    void tearDown() {
+        visitRepository.deleteAll(visitRepository.findAll().stream()
+                .filter(v -> v.getStartDateTime().getYear() == 2031)
+                .toList());
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    void getAvailability_VisitAndTouchingSlotsAreBusy() {
+        DoctorAvailabilityResponse response = doctorAvailabilityService.getAvailability(1, "2025-09-20");
+
+        assertThat(response.getTimezone()).isEqualTo("America/New_York");
+        assertThat(response.getSlotMinutes()).isEqualTo(5);
+        assertThat(response.getFreeSlots())
+                .extracting(FreeSlotDto::getStart, FreeSlotDto::getEnd)
+                .containsExactly(
+                        tuple("2025-09-20T00:00-04:00", "2025-09-20T09:55-04:00"),
+                        tuple("2025-09-20T11:05-04:00", "2025-09-21T00:00-04:00"));
+    }
+
+    @Test
+    void getAvailability_SkipsNonexistentTimeOnDstGap() {
+        DoctorAvailabilityResponse response = doctorAvailabilityService.getAvailability(1, "2026-03-08");
+
+        assertThat(response.getFreeSlots())
+                .extracting(FreeSlotDto::getStart, FreeSlotDto::getEnd)
+                .containsExactly(
+                        tuple("2026-03-08T00:00-05:00", "2026-03-08T03:00-04:00"),
+                        tuple("2026-03-08T03:00-04:00", "2026-03-09T00:00-04:00"));
+    }
+
+    @Test
+    void getAvailability_CreatedVisitUpdatesCachedDay() {
+        assertThat(doctorAvailabilityService.getAvailability(2, "2031-06-12").getFreeSlots()).hasSize(1);
+
+        CreateVisitRequest request = new CreateVisitRequest();
+        request.setStart("2031-06-12T10:00:00+01:00");
+        request.setEnd("2031-06-12T10:30:00+01:00");
+        request.setPatientId(1);
+        request.setDoctorId(2);
+        visitTrackingService.createVisit(request);
+        long misses = doctorAvailabilityService.getStats().getMissCount();
+
+        assertThat(doctorAvailabilityService.getAvailability(2, "2031-06-12").getFreeSlots())
+                .extracting(FreeSlotDto::getStart, FreeSlotDto::getEnd)
+                .containsExactly(
+                        tuple("2031-06-12T00:00+01:00", "2031-06-12T09:55+01:00"),
+                        tuple("2031-06-12T10:35+01:00", "2031-06-13T00:00+01:00"));
+        assertThat(doctorAvailabilityService.getStats().getMissCount()).isEqualTo(misses);
+    }
+
+    @Test
+    void getAvailability_UnknownDoctor_ThrowsNotFound() {
+        assertThatThrownBy(() -> doctorAvailabilityService.getAvailability(999, "2025-09-20"))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void getAvailability_InvalidDate_ThrowsBadRequest() {
+        assertThatThrownBy(() -> doctorAvailabilityService.getAvailability(1, "20.09.2025"))
+                .isInstanceOf(DateTimeNotValidException.class);
+    }
+}
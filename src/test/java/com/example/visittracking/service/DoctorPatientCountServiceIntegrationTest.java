@@ -0,0 +1,65 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.TestBase;
+import com.example.visittracking.dto.CacheStatsDto;
+import com.example.visittracking.entity.Visit;
+import com.example.visittracking.repository.DoctorRepository;
+import com.example.visittracking.repository.PatientRepository;
+import com.example.visittracking.repository.VisitRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+
+@Transactional
+class DoctorPatientCountServiceIntegrationTest extends TestBase {
+
+    @Autowired
+    private DoctorPatientCountService doctorPatientCountService;
+
+    @Autowired
+    private EventGenerationService eventGenerationService;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Test
+    void getTotalPatients_ServesRepeatedRequestsFromCache() {
+        doctorPatientCountService.getTotalPatients(Set.of(3));
+        CacheStatsDto before = doctorPatientCountService.getStats();
+
+        Map<Integer, Long> counts = doctorPatientCountService.getTotalPatients(Set.of(3));
+
+        CacheStatsDto after = doctorPatientCountService.getStats();
+        assertThat(counts).containsEntry(3, 1L);
+        assertThat(after.getHitCount()).isEqualTo(before.getHitCount() + 1);
+        assertThat(after.getMissCount()).isEqualTo(before.getMissCount());
+    }
+
+    @Test
+    void getTotalPatients_ReloadsCountAfterVisitCreatedEvent() {
+        assertThat(doctorPatientCountService.getTotalPatients(Set.of(3))).containsEntry(3, 1L);
+
+        visitRepository.save(new Visit(null, LocalDateTime.of(2025, 11, 1, 9, 0),
+                LocalDateTime.of(2025, 11, 1, 9, 30),
+                patientRepository.findById(1).get(), doctorRepository.findById(3).get()));
+        eventGenerationService.createVisitEvent(Set.of(3));
+
+        assertThat(doctorPatientCountService.getTotalPatients(Set.of(3))).containsEntry(3, 2L);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.TestBase;
+import com.example.visittracking.dto.CreateVisitRequest;
+import com.example.visittracking.dto.DoctorStatsBackfillDto;
+import com.example.visittracking.repository.DoctorPatientStatsRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Количество пациентов врача из таблицы doctor_patient_stats.
+ *
+ * @author Pavel Zhurenkov
+ */
+@Transactional
+@TestPropertySource(properties = "visittracking.doctor-stats.source=table")
+class DoctorPatientStatsServiceIntegrationTest extends TestBase {
+
+    @Autowired
+    private DoctorPatientStatsService doctorPatientStatsService;
+
+    @Autowired
+    private DoctorPatientStatsRepository statsRepository;
+
+    @Autowired
+    private VisitTrackingService visitTrackingService;
+
+    @Test
+    void createVisit_CountsEachNewPatientOnce() {
+        doctorPatientStatsService.backfill();
+        assertThat(doctorPatientStatsService.getTotalPatients(Set.of(3))).containsEntry(3, 1L);
+
+        // Пациент 1 впервые у врача 3, пациент 3 уже был у него
+        visitTrackingService.createVisit(request(1, 3, "2031-06-12T10:00:00Z", "2031-06-12T10:30:00Z"));
+        visitTrackingService.createVisit(request(1, 3, "2031-06-13T10:00:00Z", "2031-06-13T10:30:00Z"));
+        visitTrackingService.createVisit(request(3, 3, "2031-06-14T10:00:00Z", "2031-06-14T10:30:00Z"));
+
+        assertThat(doctorPatientStatsService.getTotalPatients(Set.of(3))).containsEntry(3, 2L);
+    }
+
+    @Test
+    void backfill_RebuildsCountersFromVisits() {
+        DoctorStatsBackfillDto result = doctorPatientStatsService.backfill();
+
+        assertThat(result.getDoctors()).isEqualTo(3);
+        assertThat(statsRepository.findAll())
+                .extracting(stats -> stats.getDoctorId() + ":" + stats.getTotalPatients())
+                .containsExactlyInAnyOrder("1:1", "2:1", "3:1");
+        // Повторное заполнение не добавляет пар
+        assertThat(doctorPatientStatsService.backfill().getNewPairs()).isZero();
+    }
+
+    private static CreateVisitRequest request(int patientId, int doctorId, String start, String end) {
+        CreateVisitRequest request = new CreateVisitRequest();
+        request.setPatientId(patientId);
+        request.setDoctorId(doctorId);
+        request.setStart(start);
+        request.setEnd(end);
+        return request;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.dto.DoctorStatsBackfillDto;
+import com.example.visittracking.entity.Doctor;
+import com.example.visittracking.entity.Patient;
+import com.example.visittracking.entity.Visit;
+import com.example.visittracking.exception.custom.RequestNotValidException;
+import com.example.visittracking.repository.DoctorPatientStatsRepository;
+import com.example.visittracking.repository.DoctorRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+class DoctorPatientStatsServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2025, 11, 1, 9, 0);
+
+    private final DoctorPatientStatsRepository statsRepository = mock(DoctorPatientStatsRepository.class);
+
+    private final DoctorRepository doctorRepository = mock(DoctorRepository.class);
+
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+    private final VisitTrackingProperties properties = new VisitTrackingProperties();
+
+    private DoctorPatientStatsService service;
+
+    @BeforeEach
+    void setUp() {
+        properties.getDoctorStats().setSource(VisitTrackingProperties.DoctorStatsSource.TABLE);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        service = new DoctorPatientStatsService(statsRepository, doctorRepository, transactionTemplate,
+                properties);
+    }
+
+    @Test
+    void recordVisits_UpdatesPairsAndCountersInDoctorOrder() {
+        when(statsRepository.insertDoctorPatientIfAbsent(eq(2), eq(1), any())).thenReturn(1);
+        when(statsRepository.insertDoctorPatientIfAbsent(eq(2), eq(5), any())).thenReturn(1);
+        when(statsRepository.insertDoctorPatientIfAbsent(eq(7), eq(3), any())).thenReturn(0);
+        when(statsRepository.insertDoctorPatientIfAbsent(eq(3), eq(3), any())).thenReturn(1);
+
+        service.recordVisits(List.of(
+                visit(7, 3, START),
+                visit(2, 5, START),
+                visit(3, 3, START),
+                visit(2, 1, START.plusDays(1)),
+                visit(2, 1, START)));
+
+        InOrder order = inOrder(statsRepository);
+        // Для повторной пары запоминается самый ранний визит
+        order.verify(statsRepository).insertDoctorPatientIfAbsent(2, 1, START);
+        order.verify(statsRepository).insertDoctorPatientIfAbsent(2, 5, START);
+        order.verify(statsRepository).insertDoctorPatientIfAbsent(3, 3, START);
+        order.verify(statsRepository).insertDoctorPatientIfAbsent(7, 3, START);
+        order.verify(statsRepository).incrementTotalPatients(2, 2L);
+        order.verify(statsRepository).incrementTotalPatients(3, 1L);
+        verify(statsRepository, never()).incrementTotalPatients(eq(7), anyLong());
+    }
+
+    @Test
+    void recordVisits_QuerySource_DoesNothing() {
+        properties.getDoctorStats().setSource(VisitTrackingProperties.DoctorStatsSource.QUERY);
+
+        service.recordVisits(List.of(visit(1, 1, START)));
+
+        verifyNoInteractions(statsRepository);
+    }
+
+    @Test
+    void backfill_ProcessesDoctorsInBatches() {
+        properties.getDoctorStats().setBackfillBatchSize(2);
+        when(doctorRepository.findIdsAfter(0, Limit.of(2))).thenReturn(List.of(1, 4));
+        when(doctorRepository.findIdsAfter(4, Limit.of(2))).thenReturn(List.of(9));
+        when(statsRepository.backfillDoctorPatients(anyInt(), anyInt())).thenReturn(3);
+
+        DoctorStatsBackfillDto result = service.backfill();
+
+        assertThat(result.getDoctors()).isEqualTo(3);
+        assertThat(result.getNewPairs()).isEqualTo(6);
+        InOrder order = inOrder(doctorRepository, statsRepository);
+        order.verify(doctorRepository).lockByIds(List.of(1, 4));
+        order.verify(statsRepository).backfillDoctorPatients(1, 4);
+        order.verify(statsRepository).rebuildTotalPatients(1, 4);
+        order.verify(doctorRepository).lockByIds(List.of(9));
+        order.verify(statsRepository).backfillDoctorPatients(9, 9);
+        order.verify(statsRepository).rebuildTotalPatients(9, 9);
+    }
+
+    @Test
+    void backfill_QuerySource_ThrowsBadRequest() {
+        properties.getDoctorStats().setSource(VisitTrackingProperties.DoctorStatsSource.QUERY);
+
+        assertThatThrownBy(() -> service.backfill()).isInstanceOf(RequestNotValidException.class);
+        verifyNoInteractions(statsRepository);
+    }
+
+    private static Visit visit(int doctorId, int patientId, LocalDateTime start) {
+        Doctor doctor = new Doctor();
+        doctor.setId(doctorId);
+        Patient patient = new Patient();
+        patient.setId(patientId);
+        return new Visit(null, start, start.plusMinutes(30), patient, doctor);
+    }
+}
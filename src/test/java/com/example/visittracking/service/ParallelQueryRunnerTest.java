@@ -0,0 +1,149 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.exception.custom.RequestNotValidException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+class ParallelQueryRunnerTest {
+
+    private final RecordingTransactionManager transactionManager = new RecordingTransactionManager();
+
+    private ParallelQueryRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        VisitTrackingProperties properties = new VisitTrackingProperties();
+        properties.getFanOut().setEnabled(true);
+        properties.getFanOut().setPoolSize(2);
+        properties.getFanOut().setQueueCapacity(1);
+        runner = new ParallelQueryRunner(transactionManager, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        runner.destroy();
+    }
+
+    @Test
+    void supply_RunsEachQueryInOwnReadOnlyTransaction() {
+        CompletableFuture<String> first = runner.supply(this::describeTransaction);
+        CompletableFuture<String> second = runner.supply(this::describeTransaction);
+
+        assertThat(ParallelQueryRunner.join(first)).startsWith("query-").endsWith("readOnly=true");
+        assertThat(ParallelQueryRunner.join(second)).startsWith("query-").endsWith("readOnly=true");
+        assertThat(transactionManager.begins.get()).isEqualTo(2);
+    }
+
+    @Test
+    void supply_QueriesOverlapInTime() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+
+        CompletableFuture<Boolean> first = runner.supply(() -> awaitOther(bothStarted));
+        CompletableFuture<Boolean> second = runner.supply(() -> awaitOther(bothStarted));
+
+        assertThat(ParallelQueryRunner.join(first)).isTrue();
+        assertThat(ParallelQueryRunner.join(second)).isTrue();
+    }
+
+    @Test
+    void supply_RunsInCallerWhenQueueIsFull() {
+        CountDownLatch release = new CountDownLatch(1);
+        // Два потока пула заняты, третья задача занимает очередь
+        runner.supply(() -> awaitRelease(release));
+        runner.supply(() -> awaitRelease(release));
+        runner.supply(() -> awaitRelease(release));
+
+        CompletableFuture<String> overflow = runner.supply(() -> Thread.currentThread().getName());
+        release.countDown();
+
+        assertThat(ParallelQueryRunner.join(overflow)).isEqualTo(Thread.currentThread().getName());
+    }
+
+    @Test
+    void inReadOnlyTransaction_RunsQueriesInCallerInOneTransaction() {
+        String result = runner.inReadOnlyTransaction(() -> describeTransaction() + "," + describeTransaction());
+
+        String caller = Thread.currentThread().getName() + " readOnly=true";
+        assertThat(result).isEqualTo(caller + "," + caller);
+        assertThat(transactionManager.begins.get()).isEqualTo(1);
+    }
+
+    @Test
+    void join_RethrowsQueryException() {
+        CompletableFuture<Object> failed = runner.supply(() -> {
+            throw new RequestNotValidException("Invalid cursor", 400);
+        });
+
+        assertThatThrownBy(() -> ParallelQueryRunner.join(failed))
+                .isInstanceOf(RequestNotValidException.class)
+                .hasMessage("Invalid cursor");
+        assertThat(transactionManager.rollbacks.get()).isEqualTo(1);
+    }
+
+    private String describeTransaction() {
+        return Thread.currentThread().getName() + " readOnly="
+                + TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+    }
+
+    private static boolean awaitOther(CountDownLatch bothStarted) {
+        bothStarted.countDown();
+        try {
+            return bothStarted.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static Object awaitRelease(CountDownLatch release) {
+        try {
+            release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private static class RecordingTransactionManager extends AbstractPlatformTransactionManager {
+
+        private final AtomicInteger begins = new AtomicInteger();
+
+        private final AtomicInteger rollbacks = new AtomicInteger();
+
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+            begins.incrementAndGet();
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+            rollbacks.incrementAndGet();
+        }
+    }
+}
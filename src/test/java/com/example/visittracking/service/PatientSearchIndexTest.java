@@ -0,0 +1,126 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.repository.PatientRepository;
+import com.example.visittracking.repository.projection.PatientNameVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+class PatientSearchIndexTest {
+
+    private static final LocalDateTime LOADED_AT = LocalDateTime.of(2025, 11, 1, 9, 0);
+
+    private final PatientRepository patientRepository = mock(PatientRepository.class);
+
+    private final VisitTrackingProperties properties = new VisitTrackingProperties();
+
+    private final List<PatientNameVersion> patients = new ArrayList<>();
+
+    private PatientSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        properties.getPatientSearch().setEnabled(true);
+        patients.add(name(1, "Alice", "Smith", LOADED_AT.minusDays(1)));
+        patients.add(name(2, "Bob", "Johnson", LOADED_AT));
+        when(patientRepository.findAllNames()).thenAnswer(invocation -> List.copyOf(patients));
+        when(patientRepository.findNamesChangedSince(any())).thenAnswer(invocation -> patients.stream()
+                .filter(patient -> !patient.getUpdatedAt().isBefore(invocation.getArgument(0)))
+                .toList());
+        index = new PatientSearchIndex(patientRepository, properties);
+        index.warm();
+    }
+
+    @Test
+    void filter_NoIndexHits_UsesLike() {
+        VisitFilter filter = index.filter("Brown", List.of(3));
+
+        assertThat(filter.search()).isEqualTo("Brown");
+        assertThat(filter.doctorIds()).containsExactly(3);
+        assertThat(filter.patientIds()).isNull();
+        assertThat(filter.changedSince()).isNull();
+    }
+
+    @Test
+    void filter_IndexHits_KeepsLikeAndNarrowsToIdsAndChangedPatients() {
+        VisitFilter filter = index.filter("smi", null);
+
+        assertThat(filter.search()).isEqualTo("smi");
+        assertThat(filter.patientIds()).containsExactly(1);
+        // Запас на транзакции, зафиксированные после загрузки индекса
+        assertThat(filter.changedSince()).isEqualTo(LOADED_AT.minusMinutes(1));
+    }
+
+    @Test
+    void refresh_LoadsPatientsAddedOutsideApplication() {
+        patients.add(name(3, "Charlie", "Brown", LOADED_AT.plusMinutes(5)));
+
+        index.refresh();
+
+        assertThat(index.resolve("brown")).contains(List.of(3));
+        assertThat(index.filter("brown", null).changedSince()).isEqualTo(LOADED_AT.plusMinutes(4));
+        verify(patientRepository).findNamesChangedSince(LOADED_AT.minusMinutes(1));
+        verify(patientRepository, times(1)).findAllNames();
+    }
+
+    @Test
+    void refresh_AppliesRenamesOutsideApplication() {
+        patients.set(1, name(2, "Bob", "Brown", LOADED_AT.plusMinutes(5)));
+
+        index.refresh();
+
+        assertThat(index.resolve("johnson")).isEmpty();
+        assertThat(index.resolve("brown")).contains(List.of(2));
+        verify(patientRepository, times(1)).findAllNames();
+    }
+
+    @Test
+    void refresh_RebuildsAfterRebuildInterval() {
+        properties.getPatientSearch().setRebuildInterval(Duration.ZERO);
+        patients.remove(0);
+
+        index.refresh();
+
+        assertThat(index.resolve("smith")).isEmpty();
+        verify(patientRepository, times(2)).findAllNames();
+    }
+
+    private static PatientNameVersion name(Integer id, String firstName, String lastName, LocalDateTime updatedAt) {
+        return new PatientNameVersion() {
+            @Override
+            public Integer getId() {
+                return id;
+            }
+
+            @Override
+            public String getFirstName() {
+                return firstName;
+            }
+
+            @Override
+            public String getLastName() {
+                return lastName;
+            }
+
+            @Override
+            public LocalDateTime getUpdatedAt() {
+                return updatedAt;
+            }
+        };
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.dto.LastVisitDto;
+import com.example.visittracking.dto.PatientVisitDto;
+import com.example.visittracking.repository.reactive.ReactiveVisitRepository;
+import com.example.visittracking.repository.reactive.VisitRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+class ReactivePatientVisitServiceTest {
+
+    private final ReactiveVisitRepository reactiveVisitRepository = mock(ReactiveVisitRepository.class);
+
+    private final PatientSearchIndex patientSearchIndex = mock(PatientSearchIndex.class);
+
+    private final DoctorPatientCountService doctorPatientCountService = mock(DoctorPatientCountService.class);
+
+    private final EventGenerationService eventGenerationService = mock(EventGenerationService.class);
+
+    private final VisitTrackingProperties properties = new VisitTrackingProperties();
+
+    private ReactivePatientVisitService service;
+
+    @BeforeEach
+    void setUp() {
+        when(patientSearchIndex.filter(any(), any())).thenAnswer(invocation ->
+                new VisitFilter(invocation.getArgument(0), invocation.getArgument(1), null, null));
+        when(doctorPatientCountService.getTotalPatients(any())).thenReturn(Map.of(1, 10L, 2, 20L, 3, 30L));
+        service = new ReactivePatientVisitService(reactiveVisitRepository, patientSearchIndex,
+                doctorPatientCountService, eventGenerationService, properties);
+    }
+
+    @Test
+    void getPatientVisits_GroupsAdjacentVisitsByPatient() {
+        when(reactiveVisitRepository.findVisitsWithFilters(isNull(), isNull(), isNull(), isNull(), any()))
+                .thenReturn(Flux.just(
+                        row(3, 3, "Charlie", "Brown", 3),
+                        row(1, 1, "Alice", "Smith", 1),
+                        row(4, 1, "Alice", "Smith", 2)));
+
+        StepVerifier.create(service.getPatientVisits(Pageable.unpaged(), null, null))
+                .assertNext(patient -> {
+                    assertThat(patient.getLastName()).isEqualTo("Brown");
+                    assertThat(patient.getLastVisits()).singleElement()
+                            .extracting(LastVisitDto::getStart, LastVisitDto::getEnd)
+                            .containsExactly("2025-09-20T09:00", "2025-09-20T09:30");
+                })
+                .assertNext(patient -> assertThat(patient.getLastVisits())
+                        .extracting(visit -> visit.getDoctor().getLastName(),
+                                visit -> visit.getDoctor().getTotalPatients())
+                        .containsExactly(tuple("Doctor1", 10L), tuple("Doctor2", 20L)))
+                .verifyComplete();
+        verify(eventGenerationService).getPatientVisitsEvent();
+    }
+
+    @Test
+    void getPatientVisits_ResolvesDoctorCountsOncePerBatch() {
+        properties.getReactive().setBatchSize(2);
+        when(reactiveVisitRepository.findVisitsWithFilters(any(), anyList(), any(), any(), any()))
+                .thenReturn(Flux.just(
+                        row(1, 1, "A", "A", 1),
+                        row(2, 2, "B", "B", 1),
+                        row(3, 3, "C", "C", 2)));
+
+        StepVerifier.create(service.getPatientVisits(Pageable.unpaged(), null, List.of(1, 2)))
+                .expectNextCount(3)
+                .verifyComplete();
+        verify(doctorPatientCountService).getTotalPatients(Set.of(1));
+        verify(doctorPatientCountService).getTotalPatients(Set.of(2));
+        verify(doctorPatientCountService, times(2)).getTotalPatients(any());
+    }
+
+    @Test
+    void getPatientVisits_IndexedFilter_KeepsSearch() {
+        LocalDateTime changedSince = LocalDateTime.of(2025, 9, 1, 0, 0);
+        when(patientSearchIndex.filter(eq("smi"), any()))
+                .thenReturn(new VisitFilter("smi", null, List.of(1), changedSince));
+        when(reactiveVisitRepository.findVisitsWithFilters(any(), any(), any(), any(), any()))
+                .thenReturn(Flux.empty());
+        when(reactiveVisitRepository.countPatientsWithFilters(any(), any(), any(), any())).thenReturn(Mono.just(0L));
+
+        StepVerifier.create(service.getPatientVisits(Pageable.unpaged(), "smi", null))
+                .verifyComplete();
+        StepVerifier.create(service.countPatients("smi", null))
+                .expectNext(0L)
+                .verifyComplete();
+        // Индекс может отставать, поэтому LIKE выполняется вместе со списком ID
+        verify(reactiveVisitRepository).findVisitsWithFilters("smi", null, List.of(1), changedSince,
+                Pageable.unpaged());
+        verify(reactiveVisitRepository).countPatientsWithFilters("smi", null, List.of(1), changedSince);
+    }
+
+    @Test
+    void getPatientVisits_RequestsRowsOnDemand() {
+        properties.getReactive().setBatchSize(1);
+        Flux<VisitRow> rows = Flux.range(1, 1000).map(id -> row(id, id, "First" + id, "Last" + id, 1));
+        AtomicInteger emitted = new AtomicInteger();
+        when(reactiveVisitRepository.findVisitsWithFilters(any(), any(), any(), any(), any()))
+                .thenReturn(rows.doOnNext(row -> emitted.incrementAndGet()));
+
+        Flux<PatientVisitDto> patients = service.getPatientVisits(Pageable.unpaged(), null, null);
+
+        StepVerifier.create(patients, 1)
+                .expectNextCount(1)
+                .thenCancel()
+                .verify();
+        // Строки читаются порциями по запросу, а не все сразу
+        assertThat(emitted.get()).isLessThan(1000);
+    }
+
+    private static VisitRow row(int visitId, int patientId, String firstName, String lastName, int doctorId) {
+        LocalDateTime start = LocalDateTime.of(2025, 9, 20, 9, 0);
+        return new VisitRow(visitId, patientId, firstName, lastName, start, start.plusMinutes(30),
+                doctorId, "Dr. " + doctorId, "Doctor" + doctorId);
+    }
+}
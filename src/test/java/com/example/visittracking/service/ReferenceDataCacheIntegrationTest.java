@@ -0,0 +1,77 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.TestBase;
+import com.example.visittracking.entity.Doctor;
+import com.example.visittracking.entity.Patient;
+import com.example.visittracking.repository.DoctorRepository;
+import com.example.visittracking.repository.PatientRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+class ReferenceDataCacheIntegrationTest extends TestBase {
+
+    @Autowired
+    private ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void getDoctorTimezone_RepeatedLookupServedFromCache() {
+        referenceDataCache.getDoctorTimezone(2);
+        long hits = referenceDataCache.getDoctorStats().getHitCount();
+
+        assertThat(referenceDataCache.getDoctorTimezone(2)).contains("Europe/London");
+        assertThat(referenceDataCache.getDoctorTimezones(Set.of(2, 999))).containsOnlyKeys(2);
+        assertThat(referenceDataCache.getDoctorStats().getHitCount()).isEqualTo(hits + 2);
+    }
+
+    @Test
+    void getDoctorTimezone_DoctorUpdate_EvictsEntry() {
+        assertThat(referenceDataCache.getDoctorTimezone(3)).contains("Europe/Moscow");
+
+        updateTimezone(3, "Asia/Tokyo");
+        try {
+            assertThat(referenceDataCache.getDoctorTimezone(3)).contains("Asia/Tokyo");
+        } finally {
+            updateTimezone(3, "Europe/Moscow");
+        }
+    }
+
+    @Test
+    void patientExists_MissingPatientNotCached() {
+        assertThat(referenceDataCache.patientExists(1)).isTrue();
+        assertThat(referenceDataCache.patientExists(999)).isFalse();
+
+        Integer id = transactionTemplate.execute(status -> patientRepository.save(
+                Patient.builder().firstName("Cache").lastName("Probe").build()).getId());
+        try {
+            assertThat(referenceDataCache.patientExists(id)).isTrue();
+            assertThat(referenceDataCache.getExistingPatients(Set.of(1, id, 999))).containsOnly(1, id);
+        } finally {
+            patientRepository.deleteById(id);
+        }
+        assertThat(referenceDataCache.patientExists(id)).isFalse();
+    }
+
+    private void updateTimezone(Integer doctorId, String timezone) {
+        transactionTemplate.executeWithoutResult(status -> {
+            Doctor doctor = doctorRepository.findById(doctorId).orElseThrow();
+            doctor.setTimezone(timezone);
+        });
+    }
+}
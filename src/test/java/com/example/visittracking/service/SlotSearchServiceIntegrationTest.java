@@ -0,0 +1,40 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.TestBase;
+import com.example.visittracking.dto.SlotCandidateDto;
+import com.example.visittracking.dto.SlotSearchRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+class SlotSearchServiceIntegrationTest extends TestBase {
+
+    @Autowired
+    private SlotSearchService slotSearchService;
+
+    @Test
+    void findEarliestSlots_SkipsBookedDoctorTime() {
+        SlotSearchRequest request = new SlotSearchRequest();
+        request.setDoctorIds(List.of(1, 2, 3));
+        request.setFrom("2025-09-20T13:45:00Z");
+        request.setTo("2025-09-20T20:00:00Z");
+        request.setDurationMinutes(30);
+
+        List<SlotCandidateDto> slots = slotSearchService.findEarliestSlots(request).getSlots();
+
+        // Визит врача 1 с 10:00 до 11:00 по Нью-Йорку: первое время после него — 11:05
+        assertThat(slots)
+                .extracting(SlotCandidateDto::getDoctorId, SlotCandidateDto::getTimezone, SlotCandidateDto::getStart)
+                .containsExactly(
+                        tuple(2, "Europe/London", "2025-09-20T14:45+01:00"),
+                        tuple(3, "Europe/Moscow", "2025-09-20T16:45+03:00"),
+                        tuple(1, "America/New_York", "2025-09-20T11:05-04:00"));
+    }
+}
@@ -0,0 +1,201 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.dto.SlotCandidateDto;
+import com.example.visittracking.dto.SlotSearchRequest;
+import com.example.visittracking.exception.custom.DateTimeNotValidException;
+import com.example.visittracking.exception.custom.ResourceNotFoundException;
+import com.example.visittracking.repository.VisitRepository;
+import com.example.visittracking.repository.projection.DoctorVisitInterval;
+import com.example.visittracking.repository.projection.VisitInterval;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+class SlotSearchServiceTest {
+
+    private static final ZoneId NEW_YORK = ZoneId.of("America/New_York");
+
+    private static final long FIVE_MINUTES = 300;
+
+    private final VisitRepository visitRepository = mock(VisitRepository.class);
+
+    private final ReferenceDataCache referenceDataCache = mock(ReferenceDataCache.class);
+
+    private final VisitTrackingProperties properties = new VisitTrackingProperties();
+
+    private final Map<Integer, String> timezones = new HashMap<>();
+
+    private final List<DoctorVisitInterval> visits = new ArrayList<>();
+
+    private SlotSearchService service;
+
+    @BeforeEach
+    void setUp() {
+        when(referenceDataCache.getDoctorTimezones(any())).thenAnswer(invocation -> {
+            Map<Integer, String> found = new HashMap<>();
+            for (Integer id : invocation.<Set<Integer>>getArgument(0)) {
+                if (timezones.containsKey(id)) {
+                    found.put(id, timezones.get(id));
+                }
+            }
+            return found;
+        });
+        when(visitRepository.findVisitIntervalsByDoctorIdsInRange(any(), any(), any(), any())).thenReturn(visits);
+        service = new SlotSearchService(visitRepository, referenceDataCache, properties);
+    }
+
+    @Test
+    void findEarliest_SkipsVisitsAndTouchingSlots() {
+        List<VisitInterval> schedule = new ArrayList<>(List.of(
+                interval(0, LocalDateTime.of(2025, 9, 20, 10, 30), LocalDateTime.of(2025, 9, 20, 11, 0)),
+                interval(0, LocalDateTime.of(2025, 9, 20, 9, 0), LocalDateTime.of(2025, 9, 20, 10, 0))));
+
+        Object start = SlotSearchService.findEarliest(schedule, NEW_YORK, LocalDateTime.of(2025, 9, 20, 9, 10),
+                Instant.parse("2025-09-20T23:00:00Z"), Duration.ofMinutes(25), FIVE_MINUTES);
+
+        // 10:05–10:30 касается визита с 10:30, первое подходящее начало — 11:05
+        assertThat(start).hasToString("2025-09-20T11:05-04:00[America/New_York]");
+    }
+
+    @Test
+    void findEarliest_ReturnsNullWhenWindowTooShort() {
+        List<VisitInterval> schedule = new ArrayList<>(List.of(
+                interval(0, LocalDateTime.of(2025, 9, 20, 9, 0), LocalDateTime.of(2025, 9, 20, 10, 0))));
+
+        assertThat(SlotSearchService.findEarliest(schedule, NEW_YORK, LocalDateTime.of(2025, 9, 20, 9, 0),
+                Instant.parse("2025-09-20T14:30:00Z"), Duration.ofMinutes(30), FIVE_MINUTES)).isNull();
+    }
+
+    @Test
+    void findEarliest_SkipsNonexistentTimeOnDstGap() {
+        Object start = SlotSearchService.findEarliest(new ArrayList<>(), NEW_YORK,
+                LocalDateTime.of(2026, 3, 8, 2, 10), Instant.parse("2026-03-09T00:00:00Z"),
+                Duration.ofMinutes(30), FIVE_MINUTES);
+
+        assertThat(start).hasToString("2026-03-08T03:10-04:00[America/New_York]");
+    }
+
+    @Test
+    void findEarliest_ChecksLocalEndShiftedByDstGap() {
+        List<VisitInterval> schedule = new ArrayList<>(List.of(
+                interval(0, LocalDateTime.of(2026, 3, 8, 3, 0), LocalDateTime.of(2026, 3, 8, 3, 30))));
+
+        // Час с 01:30 заканчивается в 03:30 по местному времени и пересекается с визитом
+        Object start = SlotSearchService.findEarliest(schedule, NEW_YORK, LocalDateTime.of(2026, 3, 8, 1, 30),
+                Instant.parse("2026-03-09T00:00:00Z"), Duration.ofMinutes(60), FIVE_MINUTES);
+
+        assertThat(start).hasToString("2026-03-08T03:35-04:00[America/New_York]");
+    }
+
+    @Test
+    void findEarliestSlots_OrdersDoctorsByInstantAcrossTimezones() {
+        timezones.put(1, "America/New_York");
+        timezones.put(2, "Europe/London");
+        timezones.put(3, "Europe/Moscow");
+        visits.add(interval(1, LocalDateTime.of(2025, 9, 20, 9, 0), LocalDateTime.of(2025, 9, 20, 11, 0)));
+        visits.add(interval(2, LocalDateTime.of(2025, 9, 20, 14, 0), LocalDateTime.of(2025, 9, 20, 15, 0)));
+
+        List<SlotCandidateDto> slots = service.findEarliestSlots(
+                request(List.of(1, 2, 3), "2025-09-20T13:00:00Z", "2025-09-20T20:00:00Z", 60, 2)).getSlots();
+
+        assertThat(slots)
+                .extracting(SlotCandidateDto::getDoctorId, SlotCandidateDto::getStart, SlotCandidateDto::getEnd)
+                .containsExactly(
+                        tuple(3, "2025-09-20T16:00+03:00", "2025-09-20T17:00+03:00"),
+                        tuple(2, "2025-09-20T15:05+01:00", "2025-09-20T16:05+01:00"));
+        verify(visitRepository, times(1)).findVisitIntervalsByDoctorIdsInRange(any(), any(), any(), any());
+    }
+
+    @Test
+    void findEarliestSlots_ParallelSearchMatchesSequential() {
+        List<Integer> doctorIds = new ArrayList<>();
+        for (int id = 1; id <= 500; id++) {
+            doctorIds.add(id);
+            timezones.put(id, id % 2 == 0 ? "Europe/London" : "Asia/Tokyo");
+            LocalDateTime start = LocalDateTime.of(2025, 9, 22, 8, 0);
+            // Промежутки между визитами короче 30 минут: свободное время начинается после последнего визита
+            for (int i = 0; i < id % 40; i++) {
+                visits.add(interval(id, start.plusMinutes(45L * i), start.plusMinutes(45L * i + 30)));
+            }
+        }
+        SlotSearchRequest request = request(doctorIds, "2025-09-21T00:00:00Z", "2025-09-28T00:00:00Z", 30, 100);
+
+        properties.getSlotSearch().setParallelThreshold(Integer.MAX_VALUE);
+        List<SlotCandidateDto> sequential = service.findEarliestSlots(request).getSlots();
+        properties.getSlotSearch().setParallelThreshold(8);
+        List<SlotCandidateDto> parallel = service.findEarliestSlots(request).getSlots();
+
+        assertThat(parallel).hasSize(100).isEqualTo(sequential);
+    }
+
+    @Test
+    void findEarliestSlots_UnknownDoctor_ThrowsNotFound() {
+        timezones.put(1, "America/New_York");
+
+        assertThatThrownBy(() -> service.findEarliestSlots(
+                request(List.of(1, 999), "2025-09-20T13:00:00Z", "2025-09-20T20:00:00Z", 30, null)))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    void findEarliestSlots_WindowLongerThanLimit_ThrowsBadRequest() {
+        timezones.put(1, "America/New_York");
+
+        assertThatThrownBy(() -> service.findEarliestSlots(
+                request(List.of(1), "2025-09-01T00:00:00Z", "2025-12-01T00:00:00Z", 30, null)))
+                .isInstanceOf(DateTimeNotValidException.class)
+                .hasMessage("Search window must not be longer than PT744H");
+    }
+
+    private static SlotSearchRequest request(List<Integer> doctorIds, String from, String to, int durationMinutes,
+                                             Integer limit) {
+        SlotSearchRequest request = new SlotSearchRequest();
+        request.setDoctorIds(doctorIds);
+        request.setFrom(from);
+        request.setTo(to);
+        request.setDurationMinutes(durationMinutes);
+        request.setLimit(limit);
+        return request;
+    }
+
+    private static DoctorVisitInterval interval(Integer doctorId, LocalDateTime start, LocalDateTime end) {
+        return new DoctorVisitInterval() {
+            @Override
+            public Integer getDoctorId() {
+                return doctorId;
+            }
+
+            @Override
+            public LocalDateTime getStartDateTime() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEndDateTime() {
+                return end;
+            }
+        };
+    }
+}
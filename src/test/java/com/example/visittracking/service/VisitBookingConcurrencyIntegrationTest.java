@@ -0,0 +1,154 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.TestBase;
+import com.example.visittracking.dto.BatchVisitResponse;
+import com.example.visittracking.dto.CreateVisitRequest;
+import com.example.visittracking.entity.Visit;
+import com.example.visittracking.exception.custom.ConflictResourceException;
+import com.example.visittracking.repository.OutboxEventRepository;
+import com.example.visittracking.repository.VisitRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Параллельное бронирование пересекающихся интервалов одного врача не должно приводить
+ * к двойной записи.
+ *
+ * @author Pavel Zhurenkov
+ */
+class VisitBookingConcurrencyIntegrationTest extends TestBase {
+
+    private static final int THREADS = 32;
+
+    private static final int ATTEMPTS_PER_THREAD = 10;
+
+    private static final LocalDateTime WINDOW_START = LocalDateTime.of(2031, 3, 10, 9, 0);
+
+    private static final ZoneId DOCTOR_ZONE = ZoneId.of("Europe/Moscow");
+
+    @Autowired
+    private VisitTrackingService visitTrackingService;
+
+    @Autowired
+    private VisitRepository visitRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @AfterEach
+    void tearDown() {
+        visitRepository.deleteAll(bookedVisits());
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    void createVisit_ConcurrentOverlappingBookings_NoDoubleBooking() throws Exception {
+        List<Integer> created = runConcurrently(random -> {
+            try {
+                visitTrackingService.createVisit(randomRequest(random));
+                return 1;
+            } catch (ConflictResourceException e) {
+                return 0;
+            }
+        });
+
+        assertThat(created.stream().mapToInt(Integer::intValue).sum()).isPositive();
+        assertNoOverlaps();
+    }
+
+    @Test
+    void createVisits_ConcurrentOverlappingBatches_NoDoubleBooking() throws Exception {
+        List<Integer> created = runConcurrently(random -> {
+            List<CreateVisitRequest> batch = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                batch.add(randomRequest(random));
+            }
+            BatchVisitResponse response = visitTrackingService.createVisits(batch);
+            return response.getCreated();
+        });
+
+        assertThat(created.stream().mapToInt(Integer::intValue).sum()).isPositive();
+        assertNoOverlaps();
+    }
+
+    private List<Integer> runConcurrently(Attempt attempt) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                Random random = new Random(t);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    int created = 0;
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        created += attempt.run(random);
+                    }
+                    return created;
+                }));
+            }
+            start.countDown();
+            List<Integer> results = new ArrayList<>();
+            for (Future<Integer> future : futures) {
+                results.add(future.get(2, TimeUnit.MINUTES));
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void assertNoOverlaps() {
+        List<Visit> visits = bookedVisits();
+        visits.sort(Comparator.comparing(Visit::getStartDateTime));
+        for (int i = 1; i < visits.size(); i++) {
+            // Интервалы, касающиеся границами, тоже считаются пересекающимися
+            assertThat(visits.get(i).getStartDateTime()).isAfter(visits.get(i - 1).getEndDateTime());
+        }
+    }
+
+    private List<Visit> bookedVisits() {
+        return new ArrayList<>(visitRepository.findAll().stream()
+                .filter(v -> v.getDoctor().getId() == 3 && v.getStartDateTime().getYear() == 2031)
+                .toList());
+    }
+
+    /**
+     * Визит на 30 минут в двухчасовом окне с шагом 10 минут: большинство попыток пересекаются.
+     */
+    private static CreateVisitRequest randomRequest(Random random) {
+        LocalDateTime start = WINDOW_START.plusMinutes(10L * random.nextInt(12));
+        CreateVisitRequest request = new CreateVisitRequest();
+        request.setPatientId(1 + random.nextInt(3));
+        request.setDoctorId(3);
+        request.setStart(toUtc(start));
+        request.setEnd(toUtc(start.plusMinutes(30)));
+        return request;
+    }
+
+    private static String toUtc(LocalDateTime local) {
+        return local.atZone(DOCTOR_ZONE).withZoneSameInstant(ZoneOffset.UTC).format(DateTimeFormatter.ISO_INSTANT);
+    }
+
+    @FunctionalInterface
+    private interface Attempt {
+        int run(Random random);
+    }
+}
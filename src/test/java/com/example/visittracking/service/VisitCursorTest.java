@@ -0,0 +1,35 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.exception.custom.RequestNotValidException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+class VisitCursorTest {
+
+    @Test
+    void encode_DecodesToSamePosition() {
+        VisitCursor cursor = new VisitCursor("Иванов-Smith", "Alice", 12, 345);
+
+        assertThat(VisitCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void decode_ReturnsNullForFirstPage() {
+        assertThat(VisitCursor.decode("")).isNull();
+        assertThat(VisitCursor.decode(null)).isNull();
+    }
+
+    @Test
+    void decode_ThrowsForMalformedToken() {
+        assertThatThrownBy(() -> VisitCursor.decode("not a cursor"))
+                .isInstanceOf(RequestNotValidException.class)
+                .hasMessage("Invalid cursor");
+        assertThatThrownBy(() -> VisitCursor.decode("AQ"))
+                .isInstanceOf(RequestNotValidException.class);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.TestBase;
+import com.example.visittracking.dto.VisitExportDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+@Transactional
+class VisitExportServiceIntegrationTest extends TestBase {
+
+    @Autowired
+    private VisitExportService visitExportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void exportVisits_WritesOneLinePerVisitInPatientOrder() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = visitExportService.exportVisits(null, null, out);
+
+        List<VisitExportDto> lines = readLines(out);
+        assertThat(count).isEqualTo(3);
+        assertThat(lines).extracting(VisitExportDto::getLastName).containsExactly("Brown", "Johnson", "Smith");
+        assertThat(lines.get(2).getStart()).isEqualTo("2025-09-20T10:00");
+        assertThat(lines.get(2).getDoctor().getTotalPatients()).isEqualTo(1L);
+    }
+
+    @Test
+    void exportVisits_AppliesFilters() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long count = visitExportService.exportVisits("John", List.of(2), out);
+
+        assertThat(count).isEqualTo(1);
+        assertThat(readLines(out)).extracting(VisitExportDto::getPatientId).containsExactly(2);
+    }
+
+    private List<VisitExportDto> readLines(ByteArrayOutputStream out) throws Exception {
+        List<VisitExportDto> result = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                result.add(objectMapper.readValue(line, VisitExportDto.class));
+            }
+        }
+        return result;
+    }
+}
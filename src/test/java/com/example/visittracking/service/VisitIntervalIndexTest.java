@@ -0,0 +1,84 @@
+package com.example.visittracking.service;
+
+import com.example.visittracking.config.VisitTrackingProperties;
+import com.example.visittracking.entity.Doctor;
+import com.example.visittracking.entity.Visit;
+import com.example.visittracking.repository.VisitRepository;
+import com.example.visittracking.repository.projection.VisitInterval;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+class VisitIntervalIndexTest {
+
+    private final VisitRepository visitRepository = mock(VisitRepository.class);
+
+    private final VisitTrackingProperties properties = new VisitTrackingProperties();
+
+    private final VisitIntervalIndex index = new VisitIntervalIndex(visitRepository, properties);
+
+    @Test
+    void hasOverlap_LoadsOnlyVisitsWithinMaxDuration() {
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        when(visitRepository.findVisitIntervalsByDoctorIdStartingFrom(eq(1), any()))
+                .thenReturn(List.of(interval(start, start.plusHours(1))));
+
+        LocalDateTime before = LocalDateTime.now();
+        assertThat(index.hasOverlap(1, start.plusMinutes(30), start.plusHours(2))).isTrue();
+        assertThat(index.hasOverlap(1, start.plusHours(2), start.plusHours(3))).isFalse();
+
+        ArgumentCaptor<LocalDateTime> from = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(visitRepository, times(1)).findVisitIntervalsByDoctorIdStartingFrom(eq(1), from.capture());
+        assertThat(from.getValue()).isBetween(before.minus(properties.getVisits().getMaxDuration()),
+                LocalDateTime.now().minus(properties.getVisits().getMaxDuration()));
+    }
+
+    @Test
+    void register_OutsideTransaction_AddsVisitToLoadedSchedule() {
+        properties.getOverlapIndex().setEnabled(true);
+        LocalDateTime start = LocalDateTime.now().plusDays(1).withNano(0);
+        when(visitRepository.findVisitIntervalsByDoctorIdStartingFrom(eq(1), any())).thenReturn(List.of());
+
+        assertThat(index.hasOverlap(1, start, start.plusHours(1))).isFalse();
+        index.register(visit(1, start, start.plusHours(1)));
+
+        assertThat(index.hasOverlap(1, start.plusMinutes(30), start.plusHours(2))).isTrue();
+    }
+
+    private static Visit visit(Integer doctorId, LocalDateTime start, LocalDateTime end) {
+        Doctor doctor = new Doctor();
+        doctor.setId(doctorId);
+        Visit visit = new Visit();
+        visit.setDoctor(doctor);
+        visit.setStartDateTime(start);
+        visit.setEndDateTime(end);
+        return visit;
+    }
+
+    private static VisitInterval interval(LocalDateTime start, LocalDateTime end) {
+        return new VisitInterval() {
+            @Override
+            public LocalDateTime getStartDateTime() {
+                return start;
+            }
+
+            @Override
+            public LocalDateTime getEndDateTime() {
+                return end;
+            }
+        };
+    }
+}
@@ -136,6 +136,17 @@ public class VisitTrackingServiceIntegrationTest extends TestBase {
                 .hasMessage("End time must be after start time");
     }
 
+    @Test
+    void createVisit_WithoutPartitioning_AcceptsVisitLongerThanMaxDuration() {
+        CreateVisitRequest request = new CreateVisitRequest();
+        request.setPatientId(patient1.getId());
+        request.setDoctorId(doctor1.getId());
+        request.setStart("2023-10-26T10:00:00Z");
+        request.setEnd("2023-10-27T10:30:00Z");
+
+        assertThat(visitTrackingService.createVisit(request).getId()).isNotNull();
+    }
+
     @Test
     void createVisit_ThrowsException_WhenVisitConflicts() {
         // Создаем первый визит
@@ -260,6 +271,61 @@ public class VisitTrackingServiceIntegrationTest extends TestBase {
         assertThat(response.getData().get(0).getLastVisits().get(0).getDoctor().getLastName()).isEqualTo("Doe");
     }
 
+    @Test
+    void createVisits_ReturnsResultForEachVisit() {
+        LocalDateTime start = LocalDateTime.of(2023, 11, 5, 10, 0, 0);
+        LocalDateTime end = LocalDateTime.of(2023, 11, 5, 10, 30, 0);
+
+        CreateVisitRequest created = createRequest(patient1.getId(), doctor1.getId(), start, end);
+        CreateVisitRequest conflictInBatch = createRequest(patient2.getId(), doctor1.getId(),
+                start.plusMinutes(15), end.plusMinutes(15));
+        CreateVisitRequest conflictWithExisting = createRequest(patient2.getId(), doctor1.getId(),
+                LocalDateTime.of(2025, 9, 20, 10, 15), LocalDateTime.of(2025, 9, 20, 10, 45));
+        CreateVisitRequest otherDoctor = createRequest(patient2.getId(), doctor2.getId(), start, end);
+        CreateVisitRequest notFound = createRequest(patient1.getId(), doctor1.getId(), start, end);
+        notFound.setPatientId(999);
+
+        BatchVisitResponse response = visitTrackingService.createVisits(
+                List.of(created, conflictInBatch, conflictWithExisting, otherDoctor, notFound));
+
+        assertThat(response.getCreated()).isEqualTo(2);
+        assertThat(response.getRejected()).isEqualTo(3);
+        assertThat(response.getResults()).extracting(BatchVisitResult::getStatus)
+                .containsExactly(BatchVisitStatus.CREATED, BatchVisitStatus.CONFLICT, BatchVisitStatus.CONFLICT,
+                        BatchVisitStatus.CREATED, BatchVisitStatus.NOT_FOUND);
+
+        Visit savedVisit = visitRepository.findById(response.getResults().get(0).getVisit().getId()).orElseThrow();
+        assertThat(savedVisit.getStartDateTime()).isEqualTo(start);
+        assertThat(savedVisit.getEndDateTime()).isEqualTo(end);
+    }
+
+    @Test
+    void getPatientVisitsByCursor_PagesThroughAllVisits() {
+        visitTrackingService.createVisit(createRequest(patient1.getId(), doctor2.getId(),
+                LocalDateTime.of(2023, 10, 21, 14, 0, 0), LocalDateTime.of(2023, 10, 21, 14, 45, 0)));
+
+        PatientVisitsCursorResponse first = visitTrackingService.getPatientVisitsByCursor("", 2, null, null, true);
+
+        assertThat(first.getCount()).isEqualTo(3);
+        assertThat(first.getData()).extracting(PatientVisitDto::getLastName).containsExactly("Brown", "Johnson");
+        assertThat(first.getNextCursor()).isNotNull();
+
+        PatientVisitsCursorResponse second = visitTrackingService.getPatientVisitsByCursor(
+                first.getNextCursor(), 2, null, null, false);
+
+        assertThat(second.getCount()).isNull();
+        assertThat(second.getData()).hasSize(1);
+        assertThat(second.getData().get(0).getLastName()).isEqualTo("Smith");
+        assertThat(second.getData().get(0).getLastVisits()).hasSize(2);
+        assertThat(second.getNextCursor()).isNotNull();
+
+        PatientVisitsCursorResponse last = visitTrackingService.getPatientVisitsByCursor(
+                second.getNextCursor(), 2, null, null, false);
+
+        assertThat(last.getData()).isEmpty();
+        assertThat(last.getNextCursor()).isNull();
+    }
+
     // Вспомогательный метод для создания запросов
     private CreateVisitRequest createRequest(Integer patientId, Integer doctorId, LocalDateTime start, LocalDateTime end) {
         CreateVisitRequest request = new CreateVisitRequest();
@@ -0,0 +1,109 @@
+package com.example.visittracking.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+class DateTimeCodecTest {
+
+    private static final String[] ZONES = {"America/New_York", "Europe/London", "Europe/Moscow", "Australia/Lord_Howe",
+            "UTC", "+05:30"};
+
+    @Test
+    void parse_MatchesZonedDateTimeParse() {
+        String[] inputs = {
+                "2025-09-20T10:00:00+03:00",
+                "2025-09-20T10:00:00Z",
+                "2025-09-20T10:00Z",
+                "2025-03-30T01:30:00Z",
+                "2025-11-02T05:30:00.5-04:00",
+                "2024-02-29T23:59:59.123456789+14:00",
+                "2025-12-31T23:00:00-18:00",
+                "2025-09-20T10:00:00+03:00[Europe/Moscow]",
+                "2025-09-20T10:00:00+03:00:30",
+                "2025-09-20T10:00:00.Z",
+        };
+        for (String input : inputs) {
+            for (String zone : ZONES) {
+                assertThat(DateTimeCodec.parse(input, DateTimeCodec.zone(zone)))
+                        .as("%s in %s", input, zone)
+                        .isEqualTo(ZonedDateTime.parse(input).withZoneSameInstant(ZoneId.of(zone)).toLocalDateTime());
+            }
+        }
+    }
+
+    @Test
+    void parse_RandomInstants_MatchesZonedDateTimeParse() {
+        Random random = new Random(11);
+        for (int i = 0; i < 10_000; i++) {
+            LocalDateTime local = LocalDateTime.of(1970 + random.nextInt(100), 1 + random.nextInt(12),
+                    1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60),
+                    random.nextBoolean() ? 0 : random.nextInt(1_000_000_000));
+            ZoneOffset offset = ZoneOffset.ofTotalSeconds(60 * (random.nextInt(26 * 60 + 1) - 12 * 60));
+            String input = local.atOffset(offset).format(DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+            ZoneId zone = DateTimeCodec.zone(ZONES[random.nextInt(ZONES.length)]);
+
+            assertThat(DateTimeCodec.parse(input, zone))
+                    .as(input)
+                    .isEqualTo(ZonedDateTime.parse(input).withZoneSameInstant(zone).toLocalDateTime());
+        }
+    }
+
+    @Test
+    void parse_InvalidInput_ThrowsLikeZonedDateTimeParse() {
+        ZoneId zone = DateTimeCodec.zone("UTC");
+        for (String input : new String[]{"2025-02-30T10:00:00Z", "2025-09-20T24:00:00Z", "2025-09-20 10:00:00Z",
+                "2025-09-20T10:00:00", "2025-09-20T10:00:0Z", "not a date"}) {
+            assertThatThrownBy(() -> DateTimeCodec.parse(input, zone))
+                    .as(input)
+                    .isInstanceOf(DateTimeParseException.class);
+        }
+    }
+
+    @Test
+    void format_MatchesLocalDateTimeToString() {
+        Random random = new Random(5);
+        int[] nanos = {0, 1, 1_000, 1_000_000, 120_000_000, 123_456_000, 123_456_789};
+        for (int i = 0; i < 10_000; i++) {
+            LocalDateTime dateTime = LocalDateTime.of(random.nextInt(12_000) - 1000, 1 + random.nextInt(12),
+                    1 + random.nextInt(28), random.nextInt(24), random.nextInt(60),
+                    random.nextBoolean() ? 0 : random.nextInt(60), nanos[random.nextInt(nanos.length)]);
+
+            assertThat(DateTimeCodec.format(dateTime)).isEqualTo(dateTime.toString());
+        }
+    }
+
+    @Test
+    void write_WritesJsonString() throws Exception {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator generator = new JsonFactory().createGenerator(out)) {
+            generator.writeStartArray();
+            DateTimeCodec.write(generator, LocalDateTime.of(2025, 9, 20, 10, 0));
+            DateTimeCodec.write(generator, LocalDateTime.of(2025, 9, 20, 10, 0, 5, 250_000_000));
+            generator.writeEndArray();
+        }
+
+        assertThat(out.toString()).isEqualTo("[\"2025-09-20T10:00\",\"2025-09-20T10:00:05.250\"]");
+    }
+
+    @Test
+    void zone_InvalidId_NotCached() {
+        assertThatThrownBy(() -> DateTimeCodec.zone("Mars/Olympus")).isInstanceOf(java.time.DateTimeException.class);
+        assertThat(DateTimeCodec.zone("Europe/Moscow")).isSameAs(DateTimeCodec.zone("Europe/Moscow"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.visittracking.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+class IntervalSetTest {
+
+    private IntervalSet intervalSet;
+
+    @BeforeEach
+    void setUp() {
+        intervalSet = new IntervalSet();
+        intervalSet.add(at(10, 0), at(11, 0));
+    }
+
+    @Test
+    void overlaps_NoOverlap() {
+        assertThat(intervalSet.overlaps(at(11, 1), at(12, 30))).isFalse();
+        assertThat(intervalSet.overlaps(at(9, 0), at(9, 59))).isFalse();
+    }
+
+    @Test
+    void overlaps_PartialOverlap() {
+        assertThat(intervalSet.overlaps(at(10, 45), at(11, 45))).isTrue();
+        assertThat(intervalSet.overlaps(at(9, 45), at(10, 15))).isTrue();
+    }
+
+    @Test
+    void overlaps_FullOverlap() {
+        assertThat(intervalSet.overlaps(at(10, 15), at(10, 45))).isTrue();
+        assertThat(intervalSet.overlaps(at(9, 0), at(12, 0))).isTrue();
+    }
+
+    @Test
+    void overlaps_TouchingBoundsAreConflicts() {
+        // Совпадает с семантикой BETWEEN в VisitRepository.findOverlappingVisit
+        assertThat(intervalSet.overlaps(at(11, 0), at(11, 30))).isTrue();
+        assertThat(intervalSet.overlaps(at(9, 30), at(10, 0))).isTrue();
+    }
+
+    @Test
+    void add_MergesOverlappingIntervals() {
+        intervalSet.add(at(12, 0), at(13, 0));
+        intervalSet.add(at(14, 0), at(15, 0));
+        assertThat(intervalSet.size()).isEqualTo(3);
+
+        intervalSet.add(at(10, 30), at(14, 0));
+
+        assertThat(intervalSet.size()).isEqualTo(1);
+        assertThat(intervalSet.overlaps(at(11, 30), at(11, 45))).isTrue();
+        assertThat(intervalSet.overlaps(at(15, 1), at(16, 0))).isFalse();
+    }
+
+    @Test
+    void add_KeepsIntervalsContainedInExisting() {
+        intervalSet.add(at(10, 15), at(10, 30));
+
+        assertThat(intervalSet.size()).isEqualTo(1);
+        assertThat(intervalSet.overlaps(at(10, 50), at(10, 55))).isTrue();
+    }
+
+    private static LocalDateTime at(int hour, int minute) {
+        return LocalDateTime.of(2025, 9, 20, hour, minute);
+    }
+}
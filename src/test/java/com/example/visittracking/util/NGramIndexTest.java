@@ -0,0 +1,63 @@
+package com.example.visittracking.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+class NGramIndexTest {
+
+    private NGramIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new NGramIndex();
+        index.put(1, "Alice", "Smith");
+        index.put(2, "Bob", "Johnson");
+        index.put(3, "Charlie", "Brown");
+        index.put(4, "Zoë", "Müller");
+    }
+
+    @Test
+    void search_FindsShortSubstringsIgnoringCase() {
+        assertThat(index.search("o").stream()).containsExactlyInAnyOrder(2, 3, 4);
+        assertThat(index.search("AL").stream()).containsExactly(1);
+    }
+
+    @Test
+    void search_FindsLongSubstringsInFirstOrLastName() {
+        assertThat(index.search("john").stream()).containsExactly(2);
+        assertThat(index.search("harli").stream()).containsExactly(3);
+    }
+
+    @Test
+    void search_DoesNotMatchAcrossFirstAndLastName() {
+        assertThat(index.search("alicesmith").isEmpty()).isTrue();
+        assertThat(index.search("ceSm").isEmpty()).isTrue();
+    }
+
+    @Test
+    void search_IgnoresDiacritics() {
+        assertThat(index.search("muller").stream()).containsExactly(4);
+        assertThat(index.search("zoe").stream()).containsExactly(4);
+    }
+
+    @Test
+    void put_ReplacesPreviousValues() {
+        index.put(1, "Alicia", "Keys");
+
+        assertThat(index.search("smith").isEmpty()).isTrue();
+        assertThat(index.search("keys").stream()).containsExactly(1);
+    }
+
+    @Test
+    void remove_DropsIdFromAllPostings() {
+        index.remove(2);
+
+        assertThat(index.search("o").stream()).containsExactlyInAnyOrder(3, 4);
+        assertThat(index.size()).isEqualTo(3);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.visittracking.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+class SlotBitmapTest {
+
+    @Test
+    void set_MarksRangeAcrossWords() {
+        SlotBitmap bitmap = new SlotBitmap(288);
+        bitmap.set(60, 130);
+
+        assertThat(bitmap.get(59)).isFalse();
+        assertThat(bitmap.get(60)).isTrue();
+        assertThat(bitmap.get(64)).isTrue();
+        assertThat(bitmap.get(130)).isTrue();
+        assertThat(bitmap.get(131)).isFalse();
+    }
+
+    @Test
+    void set_ClipsToBounds() {
+        SlotBitmap bitmap = new SlotBitmap(288);
+        bitmap.set(-5, 2);
+        bitmap.set(286, 400);
+
+        assertThat(bitmap.nextSet(0)).isZero();
+        assertThat(bitmap.nextClear(0)).isEqualTo(3);
+        assertThat(bitmap.nextSet(3)).isEqualTo(286);
+        assertThat(bitmap.nextClear(286)).isEqualTo(288);
+    }
+
+    @Test
+    void nextClearAndNextSet_ReturnSizeWhenNothingFound() {
+        SlotBitmap bitmap = new SlotBitmap(100);
+        assertThat(bitmap.nextSet(0)).isEqualTo(100);
+
+        bitmap.set(0, 99);
+        assertThat(bitmap.nextClear(0)).isEqualTo(100);
+        assertThat(bitmap.nextClear(150)).isEqualTo(100);
+    }
+
+    @Test
+    void copy_DoesNotShareBits() {
+        SlotBitmap bitmap = new SlotBitmap(64);
+        SlotBitmap copy = bitmap.copy();
+        copy.set(10, 10);
+
+        assertThat(bitmap.get(10)).isFalse();
+        assertThat(copy.get(10)).isTrue();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.visittracking.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * @author Pavel Zhurenkov
+ */
+class TimestampConverterTest {
+
+    @Test
+    void getDetailedTimeInfo_MatchesFormattedTime() {
+        for (long timestamp : new long[]{0L, 1_760_000_000_000L, 1_760_000_000_000L + 13 * 3_600_000L + 5_000L}) {
+            LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp),
+                    ZoneId.systemDefault());
+            String expected = String.format("Time: %02d:%02d:%02d | Date: %s",
+                    dateTime.getHour(), dateTime.getMinute(), dateTime.getSecond(), dateTime.toLocalDate());
+
+            assertThat(TimestampConverter.getDetailedTimeInfo(timestamp)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    void convertTimestampToTime_PadsWithZeros() {
+        LocalDateTime dateTime = LocalDateTime.of(2025, 9, 20, 7, 5, 3);
+        long timestamp = dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+
+        assertThat(TimestampConverter.convertTimestampToTime(timestamp)).isEqualTo("07:05:03");
+    }
+}
@@ -0,0 +1,24 @@
+CREATE TABLE doctors
+(
+    id         INT AUTO_INCREMENT PRIMARY KEY,
+    first_name VARCHAR(255) NOT NULL,
+    last_name  VARCHAR(255) NOT NULL,
+    time_zone  VARCHAR(255) NOT NULL
+);
+
+CREATE TABLE patients
+(
+    id         INT AUTO_INCREMENT PRIMARY KEY,
+    first_name VARCHAR(255) NOT NULL,
+    last_name  VARCHAR(255) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)
+);
+
+CREATE TABLE visits
+(
+    id              INT AUTO_INCREMENT PRIMARY KEY,
+    start_date_time TIMESTAMP NOT NULL,
+    end_date_time   TIMESTAMP NOT NULL,
+    patient_id      INT       NOT NULL REFERENCES patients (id),
+    doctor_id       INT       NOT NULL REFERENCES doctors (id)
+);
@@ -0,0 +1,12 @@
+-- Схему создают миграции Flyway. Контейнер БД общий для всех контекстов тестов,
+-- поэтому перед заполнением данные очищаются, а счетчики AUTO_INCREMENT сбрасываются.
+SET FOREIGN_KEY_CHECKS = 0;
+TRUNCATE TABLE outbox_events;
+TRUNCATE TABLE audit_log;
+TRUNCATE TABLE doctor_patient_stats;
+TRUNCATE TABLE doctor_patients;
+TRUNCATE TABLE visits_archive;
+TRUNCATE TABLE visits;
+TRUNCATE TABLE patients;
+TRUNCATE TABLE doctors;
+SET FOREIGN_KEY_CHECKS = 1;